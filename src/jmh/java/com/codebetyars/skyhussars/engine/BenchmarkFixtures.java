@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.codebetyars.skyhussars.SkyHussarsHeadless;
+import com.codebetyars.skyhussars.engine.data.PlaneRegistry;
+import com.codebetyars.skyhussars.engine.headless.ScenarioDescriptor;
+import com.codebetyars.skyhussars.engine.headless.ScenarioPlaneDescriptor;
+import com.codebetyars.skyhussars.engine.loader.PlaneRegistryLoader;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Vector3f;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shared setup of the benchmarks, everything is loaded from the asset
+ * directory the same way as the game does.
+ */
+public final class BenchmarkFixtures {
+
+    private static PlaneRegistry planeRegistry;
+    private static TerrainHeight terrain;
+
+    private BenchmarkFixtures() {
+    }
+
+    public static File assetDirectory() {
+        return new SettingsManager().assetDirectory();
+    }
+
+    public static synchronized PlaneRegistry planeRegistry() {
+        if (planeRegistry == null) {
+            planeRegistry = new PlaneRegistryLoader(assetDirectory()).planeRegistry();
+        }
+        return planeRegistry;
+    }
+
+    public static String planeType() {
+        List<String> planes = planeRegistry().availablePlanes();
+        Collections.sort(planes);
+        return planes.get(0);
+    }
+
+    public static PlaneDescriptor planeDescriptor() {
+        return planeRegistry().planeDescriptor(planeType());
+    }
+
+    public static synchronized TerrainHeight terrain() {
+        if (terrain == null) {
+            try {
+                terrain = SkyHussarsHeadless.loadTerrain(assetDirectory());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return terrain;
+    }
+
+    /**
+     * A player and its enemies on a grid 300 meters apart, all flying north.
+     */
+    public static ScenarioDescriptor scenario(int planeCount) {
+        int side = (int) Math.ceil(Math.sqrt(planeCount));
+        List<ScenarioPlaneDescriptor> planes = new ArrayList<>();
+        for (int i = 0; i < planeCount; i++) {
+            ScenarioPlaneDescriptor plane = new ScenarioPlaneDescriptor();
+            plane.setPlaneType(planeType());
+            plane.setPlayer(i == 0);
+            plane.setLocation(new Vector3f((i % side) * 300f, 3000f, (i / side) * -300f));
+            planes.add(plane);
+        }
+        ScenarioDescriptor scenario = new ScenarioDescriptor();
+        scenario.setName(planeCount + " planes");
+        scenario.setPlanes(planes);
+        return scenario;
+    }
+}
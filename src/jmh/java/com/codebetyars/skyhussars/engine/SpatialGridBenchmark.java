@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Vector3f;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rebuilding the plane index and one query of each kind for every plane, as
+ * an AI or radar pass over the world would, against a full scan. The planes
+ * share a 50 by 50 km area up to 10 km high, so the world gets denser with
+ * more planes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SpatialGridBenchmark {
+
+    private static final float RADIUS = 5000f;
+
+    @Param({"10", "100", "500", "2000"})
+    private int planes;
+
+    private Vector3f[] locations;
+    private Vector3f[] directions;
+    private final SpatialGrid grid = new SpatialGrid(World.CELL_SIZE);
+    private SpatialGrid.Query query;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        locations = new Vector3f[planes];
+        directions = new Vector3f[planes];
+        for (int i = 0; i < planes; i++) {
+            locations[i] = new Vector3f(random.nextFloat() * 50000f, random.nextFloat() * 10000f,
+                    random.nextFloat() * 50000f);
+            directions[i] = new Vector3f(random.nextFloat() - 0.5f, random.nextFloat() - 0.5f,
+                    random.nextFloat() - 0.5f).normalizeLocal();
+        }
+        grid.update(locations);
+        query = grid.query();
+    }
+
+    @Benchmark
+    public void update() {
+        grid.update(locations);
+    }
+
+    @Benchmark
+    public int within() {
+        int found = 0;
+        for (int i = 0; i < planes; i++) {
+            Vector3f location = locations[i];
+            found += query.within(location.x, location.y, location.z, RADIUS, i);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int nearest() {
+        int found = 0;
+        for (int i = 0; i < planes; i++) {
+            Vector3f location = locations[i];
+            found += query.nearest(location.x, location.y, location.z, 4, i);
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int cone() {
+        int found = 0;
+        float cosHalfAngle = FastMath.cos(30f * FastMath.DEG_TO_RAD);
+        for (int i = 0; i < planes; i++) {
+            Vector3f location = locations[i];
+            Vector3f direction = directions[i];
+            found += query.cone(location.x, location.y, location.z, direction.x, direction.y, direction.z,
+                    cosHalfAngle, RADIUS, i);
+        }
+        return found;
+    }
+
+    /* what every radius query costs without the index */
+    @Benchmark
+    public int withinFullScan() {
+        int found = 0;
+        float radiusSquared = RADIUS * RADIUS;
+        for (int i = 0; i < planes; i++) {
+            for (int e = 0; e < planes; e++) {
+                if (e != i && locations[e].distanceSquared(locations[i]) <= radiusSquared) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.Vector2f;
+import com.jme3.terrain.geomipmap.TerrainQuad;
+import com.jme3.terrain.heightmap.AbstractHeightMap;
+import com.jme3.terrain.heightmap.ImageBasedHeightMap;
+import com.jme3.texture.plugins.AWTLoader;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Height queries of the TerrainQuad behind TerrainManager.getHeightAt against
+ * the HeightMapTerrain of the headless runner, 1024 queries per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TerrainBenchmark {
+
+    private final Vector2f[] locations = new Vector2f[1024];
+    private TerrainQuad terrainQuad;
+    private TerrainHeight heightMapTerrain;
+
+    @Setup
+    public void setup() throws IOException {
+        File heightMapFile = new File(BenchmarkFixtures.assetDirectory(), TerrainManager.HEIGHT_MAP);
+        AbstractHeightMap heightMap = new ImageBasedHeightMap(
+                new AWTLoader().load(ImageIO.read(heightMapFile), true), 1f);
+        heightMap.load();
+        terrainQuad = new TerrainQuad("terrain", 17, TerrainManager.SIZE, heightMap.getHeightMap());
+        terrainQuad.setLocalScale(TerrainManager.HORIZONTAL_SCALE, TerrainManager.VERTICAL_SCALE,
+                TerrainManager.HORIZONTAL_SCALE);
+        terrainQuad.updateGeometricState();
+        heightMapTerrain = BenchmarkFixtures.terrain();
+        float extent = TerrainManager.SIZE / 2 * TerrainManager.HORIZONTAL_SCALE;
+        Random random = new Random(42);
+        for (int i = 0; i < locations.length; i++) {
+            locations[i] = new Vector2f((random.nextFloat() * 2 - 1) * extent, (random.nextFloat() * 2 - 1) * extent);
+        }
+    }
+
+    @Benchmark
+    public void terrainQuad(Blackhole blackhole) {
+        for (Vector2f location : locations) {
+            blackhole.consume(terrainQuad.getHeight(location));
+        }
+    }
+
+    @Benchmark
+    public void heightMapTerrain(Blackhole blackhole) {
+        for (Vector2f location : locations) {
+            blackhole.consume(heightMapTerrain.getHeightAt(location));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.ai;
+
+import com.codebetyars.skyhussars.engine.BenchmarkFixtures;
+import com.codebetyars.skyhussars.engine.World;
+import com.codebetyars.skyhussars.engine.headless.HeadlessSimulation;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One decision of every AI pilot over the real terrain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AIPilotBenchmark {
+
+    @Param({"10", "250"})
+    private int planes;
+
+    private final List<AIPilot> aiPilots = new ArrayList<>();
+    private World world;
+
+    @Setup
+    public void setup() {
+        HeadlessSimulation simulation = new HeadlessSimulation(BenchmarkFixtures.scenario(planes),
+                BenchmarkFixtures.planeRegistry(), BenchmarkFixtures.terrain());
+        simulation.step();
+        for (Plane plane : simulation.planes()) {
+            if (!plane.planeMissionDescriptor().player()) {
+                aiPilots.add(new AIPilot(plane));
+            }
+        }
+        world = new World(simulation.planes());
+        world.update(simulation.planes().stream().map(Plane::flightLocation).toArray(Vector3f[]::new));
+    }
+
+    @Benchmark
+    public void update() {
+        for (AIPilot aiPilot : aiPilots) {
+            aiPilot.update(world);
+        }
+    }
+}
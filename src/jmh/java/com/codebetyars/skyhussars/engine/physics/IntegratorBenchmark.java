@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.BenchmarkFixtures;
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One second of a rolling pull up of a plane, for every integrator, tick rate
+ * and substepping of the flight engine. At the end of the trial the distance
+ * of the same second from a reference trajectory, RK4 at 960 Hz, is printed
+ * for the option.
+ *
+ * Every invocation flies the manoeuvre from the same start. An invocation is
+ * at least ten steps of the full flight model, long enough for the per
+ * invocation setup not to distort the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class IntegratorBenchmark {
+
+    private static final int REFERENCE_TICKS = 960;
+
+    @Param({"EXPLICIT_EULER", "SEMI_IMPLICIT_EULER", "RK4"})
+    private IntegrationMethod integrator;
+
+    @Param({"60", "30", "15", "10"})
+    private int ticksPerSecond;
+
+    @Param({"false", "true"})
+    private boolean substepping;
+
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    private FlightModel flightModel;
+    private FlightEngine flightEngine;
+
+    @Setup(Level.Trial)
+    public void setupPlane() {
+        flightModel = BenchmarkFixtures.planeDescriptor().flightModel();
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        flightEngine = flightEngine(integrator, substepping ? Substepping.ADAPTIVE : Substepping.NONE);
+    }
+
+    /* gliding with the engine idle, rolling with the ailerons and pulling up with the elevator */
+    private FlightEngine flightEngine(IntegrationMethod integrationMethod, Substepping substepping) {
+        FlightEngine plane = new FlightEngine(1);
+        FlightEngine.Slot slot = plane.register(flightModel, new Vector3f(0, 3000, 0), new Quaternion(), Vector3f.ZERO);
+        slot.setSpeedForward(700f);
+        slot.aileron(4f);
+        slot.elevator(-3f);
+        slot.integrationMethod(integrationMethod);
+        slot.substepping(substepping);
+        return plane;
+    }
+
+    @Benchmark
+    public void secondOfFlight() {
+        float tpf = 1f / ticksPerSecond;
+        for (int i = 0; i < ticksPerSecond; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void reportError() {
+        Vector3f[] reference = trajectory(IntegrationMethod.RK4, Substepping.NONE, REFERENCE_TICKS);
+        Vector3f[] trajectory = trajectory(integrator, substepping ? Substepping.ADAPTIVE : Substepping.NONE,
+                ticksPerSecond);
+        int stride = REFERENCE_TICKS / ticksPerSecond;
+        float maxError = 0f;
+        for (int i = 0; i < trajectory.length; i++) {
+            maxError = Math.max(maxError, trajectory[i].distance(reference[i * stride]));
+        }
+        float finalError = trajectory[trajectory.length - 1].distance(reference[reference.length - 1]);
+        System.out.println(String.format("%s at %d Hz, substepping %s: final error %.2f m, max error %.2f m",
+                integrator, ticksPerSecond, substepping, finalError, maxError));
+    }
+
+    private Vector3f[] trajectory(IntegrationMethod integrationMethod, Substepping substepping, int ticks) {
+        FlightEngine plane = flightEngine(integrationMethod, substepping);
+        FlightSnapshot snapshot = new FlightSnapshot(1);
+        Vector3f[] trajectory = new Vector3f[ticks + 1];
+        float tpf = 1f / ticks;
+        for (int i = 0; i <= ticks; i++) {
+            plane.slot(0).writeSnapshot(snapshot, 0);
+            trajectory[i] = snapshot.translation(0, new Vector3f());
+            if (i < ticks) {
+                plane.step(tpf, environment, null);
+            }
+        }
+        return trajectory;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.BenchmarkFixtures;
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.codebetyars.skyhussars.engine.plane.EngineLocation;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One simulation tick of the flight model of every plane, on the calling
+ * thread or spread over the job system.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PlanePhysicsBenchmark {
+
+    @Param({"1", "10", "250"})
+    private int planes;
+
+    @Param({"SEMI_IMPLICIT_EULER", "RK4"})
+    private IntegrationMethod integrator;
+
+    private final float tpf = 1f / 30f;
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    private final JobSystem jobs = JobSystem.shared();
+    private FlightEngine flightEngine;
+
+    /* the planes are reset before each iteration so they do not drift too far from normal flight */
+    @Setup(Level.Iteration)
+    public void setup() {
+        PlaneDescriptor planeDescriptor = BenchmarkFixtures.planeDescriptor();
+        FlightModel flightModel = planeDescriptor.flightModel();
+        float thrust = 0f;
+        for (EngineLocation engineLocation : planeDescriptor.getEngineLocations()) {
+            thrust += engineLocation.getEngineDescriptor().getThrustMax() * 0.6f;
+        }
+        flightEngine = new FlightEngine(planes);
+        for (int i = 0; i < planes; i++) {
+            FlightEngine.Slot slot = flightEngine.register(flightModel, new Vector3f(i * 300f, 3000f, 0f),
+                    Quaternion.IDENTITY.clone(), Vector3f.ZERO);
+            slot.integrationMethod(integrator);
+            slot.thrust(thrust);
+            slot.setSpeedForward(300f);
+        }
+    }
+
+    @Benchmark
+    public void serial() {
+        flightEngine.step(tpf, environment, null);
+    }
+
+    @Benchmark
+    public void parallel() {
+        flightEngine.step(tpf, environment, jobs);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import com.codebetyars.skyhussars.engine.BenchmarkFixtures;
+import com.codebetyars.skyhussars.engine.headless.HeadlessSimulation;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A tick of the 250 enemy mission with and without recording, the recorded
+ * tick should stay within 1% of the other. Frames dropped because the writer
+ * fell behind are logged when the recorder closes, they make the recorded
+ * tick look cheaper than it is.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FlightRecorderBenchmark {
+
+    @Param({"250"})
+    private int planes;
+
+    @Param({"false", "true"})
+    private boolean recording;
+
+    private HeadlessSimulation simulation;
+    private FlightRecorder recorder;
+
+    @Setup(Level.Iteration)
+    public void setup() throws IOException {
+        simulation = new HeadlessSimulation(BenchmarkFixtures.scenario(planes),
+                BenchmarkFixtures.planeRegistry(), BenchmarkFixtures.terrain());
+        if (recording) {
+            File file = File.createTempFile("skyhussars", ".shr");
+            file.deleteOnExit();
+            recorder = new FlightRecorder(file, simulation.scheduler().ticksPerSecond(),
+                    simulation.scheduler().ticksPerSecond());
+            simulation.recorder(recorder);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (recorder != null) {
+            simulation.recorder(null);
+            recorder.close();
+            recorder.file().delete();
+            recorder = null;
+        }
+    }
+
+    @Benchmark
+    public void step() {
+        simulation.step();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.BenchmarkFixtures;
+import com.codebetyars.skyhussars.engine.DataManager;
+import com.codebetyars.skyhussars.engine.headless.HeadlessSimulation;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Projectile updates and the collision check against every plane. The
+ * bullets barely move, so the population stays the same during an iteration,
+ * and none of them is inside a plane, like most of the bullets in a fight.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProjectileManagerBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int bullets;
+
+    @Param({"1", "10", "250"})
+    private int planes;
+
+    private ProjectileManager projectileManager;
+    private List<Plane> targets;
+    private FlightSnapshot snapshot;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        HeadlessSimulation simulation = new HeadlessSimulation(BenchmarkFixtures.scenario(planes),
+                BenchmarkFixtures.planeRegistry(), at -> 0f);
+        simulation.step();
+        targets = simulation.planes();
+        snapshot = simulation.snapshot();
+        projectileManager = new ProjectileManager(new Node(), new DataManager() {
+            @Override
+            public Geometry getTracers(Mesh tracers) {
+                return new Geometry("tracers", tracers);
+            }
+        });
+        Random random = new Random(42);
+        float extent = (float) Math.ceil(Math.sqrt(planes)) * 300f;
+        while (projectileManager.projectileCount() < bullets) {
+            Vector3f location = new Vector3f(random.nextFloat() * extent, 2950f + random.nextFloat() * 100f,
+                    -random.nextFloat() * extent);
+            if (targets.stream().noneMatch(plane -> plane.getLocation().distance(location) < 30f)) {
+                projectileManager.addProjectile(0, location, new Vector3f(0, 0, 0.001f), true);
+            }
+        }
+    }
+
+    @Benchmark
+    public void update() {
+        projectileManager.update(1f / 30f);
+    }
+
+    @Benchmark
+    public void checkCollision() {
+        projectileManager.checkCollisions(targets, snapshot);
+    }
+}
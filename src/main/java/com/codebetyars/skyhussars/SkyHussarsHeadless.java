@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars;
+
+import com.codebetyars.skyhussars.engine.HeightMapTerrain;
+import com.codebetyars.skyhussars.engine.SettingsManager;
+import com.codebetyars.skyhussars.engine.TerrainHeight;
+import com.codebetyars.skyhussars.engine.TerrainManager;
+import com.codebetyars.skyhussars.engine.headless.HeadlessSimulation;
+import com.codebetyars.skyhussars.engine.headless.ScenarioDescriptor;
+import com.codebetyars.skyhussars.engine.headless.SimulationStats;
+import com.codebetyars.skyhussars.engine.loader.PlaneRegistryLoader;
+import com.codebetyars.skyhussars.engine.recorder.FlightRecorder;
+import com.codebetyars.skyhussars.engine.telemetry.CsvTelemetrySink;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import javax.imageio.ImageIO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a scenario without SimpleApplication, Nifty and the renderer.
+ *
+ * Usage: SkyHussarsHeadless scenario.json [trajectory.csv [recording.shr]]
+ *
+ * -Dskyhussars.telemetry=telemetry.csv writes the telemetry of the run.
+ */
+public class SkyHussarsHeadless {
+
+    private final static Logger logger = LoggerFactory.getLogger(SkyHussarsHeadless.class);
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: SkyHussarsHeadless scenario.json [trajectory.csv [recording.shr]]");
+            System.exit(1);
+        }
+        ScenarioDescriptor scenario = new ObjectMapper().readValue(new File(args[0]), ScenarioDescriptor.class);
+        File assetDirectory = new SettingsManager().assetDirectory();
+        TerrainHeight terrain = scenario.isTerrain() ? loadTerrain(assetDirectory) : at -> 0f;
+        HeadlessSimulation simulation = new HeadlessSimulation(scenario,
+                new PlaneRegistryLoader(assetDirectory).planeRegistry(), terrain);
+        FlightRecorder recorder = null;
+        if (args.length == 3) {
+            recorder = new FlightRecorder(new File(args[2]), scenario.getTicks(), scenario.getTicks());
+            simulation.recorder(recorder);
+        }
+        String telemetry = System.getProperty("skyhussars.telemetry");
+        if (telemetry != null) {
+            simulation.startTelemetry(new CsvTelemetrySink(Telemetry.shared(),
+                    new BufferedWriter(new FileWriter(telemetry))), Integer.getInteger("skyhussars.telemetry.rate", 10));
+        }
+        SimulationStats stats;
+        if (args.length >= 2) {
+            try (Writer trajectory = new BufferedWriter(new FileWriter(args[1]))) {
+                stats = simulation.run(trajectory);
+            }
+        } else {
+            stats = simulation.run();
+        }
+        if (telemetry != null) {
+            simulation.stopTelemetry();
+            System.out.println("Telemetry written to " + telemetry + ", dropped samples: " + Telemetry.shared().dropped());
+        }
+        if (recorder != null) {
+            recorder.close();
+            System.out.println("Recorded to " + recorder.file() + ", dropped frames: " + recorder.droppedFrames());
+        }
+        System.out.println(stats);
+        System.out.print(simulation.scheduler().report());
+    }
+
+    /**
+     * Loads the same height map as the TerrainManager, but only the heights.
+     */
+    public static TerrainHeight loadTerrain(File assetDirectory) throws IOException {
+        File heightMapFile = new File(assetDirectory, TerrainManager.HEIGHT_MAP);
+        logger.info("Loading terrain heights from {}", heightMapFile);
+        return HeightMapTerrain.fromImage(ImageIO.read(heightMapFile), TerrainManager.SIZE,
+                TerrainManager.HORIZONTAL_SCALE, TerrainManager.VERTICAL_SCALE);
+    }
+}
@@ -26,12 +26,15 @@
 package com.codebetyars.skyhussars;
 
 import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.BulletDescriptor;
 import com.codebetyars.skyhussars.engine.plane.EngineDescriptor;
 import com.codebetyars.skyhussars.engine.plane.EngineLocation;
 import com.codebetyars.skyhussars.engine.plane.GunDescriptor;
 import com.codebetyars.skyhussars.engine.plane.GunGroupDescriptor;
 import com.codebetyars.skyhussars.engine.plane.GunLocationDescriptor;
+import com.codebetyars.skyhussars.engine.plane.HitboxDescriptor;
 import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PolarDescriptor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jme3.math.Vector3f;
 import java.io.File;
@@ -62,6 +65,12 @@ public class TempDataGenerator {
         gun.setName(".50 M3 Browning");
         gun.setRateOfFire(20);
         gun.setMuzzleVelocity(890);
+        BulletDescriptor bullet = new BulletDescriptor();
+        bullet.setName(".50 M2 Ball");
+        bullet.setCaliber(0.0127f);
+        bullet.setMass(0.0459f);
+        bullet.setDragCoefficient(0.28f);
+        gun.setBulletDescriptor(bullet);
         gun.setSpread(0.5f);
         List<GunLocationDescriptor> guns = new ArrayList<>();
         GunLocationDescriptor gun1 = new GunLocationDescriptor();
@@ -87,6 +96,13 @@ public class TempDataGenerator {
         List<EngineLocation> engineLocations = new LinkedList<>();
         engineLocations.add(engineLocation);
 
+        PolarDescriptor wingPolar = new PolarDescriptor();
+        wingPolar.setMach(0f);
+        wingPolar.setAngles(new float[]{0f, 2f, 4f, 6f, 8f, 10f, 15f, 30f});
+        wingPolar.setLift(new float[]{0f, 0.246f, 0.475f, 0.68f, 0.775f, 0.795f, 0.82f, 0.8f});
+        List<PolarDescriptor> wingPolars = new ArrayList<>();
+        wingPolars.add(wingPolar);
+
         List<AirfoilDescriptor> airfoilDescriptors = new LinkedList<>();
 
         /*
@@ -102,6 +118,7 @@ public class TempDataGenerator {
         airfoilDescriptor.setAspectRatio(6.37f);
         airfoilDescriptor.setDamper(true);
         airfoilDescriptor.setDehidralDegree(0f);
+        airfoilDescriptor.setPolars(wingPolars);
         airfoilDescriptors.add(airfoilDescriptor);
         /*SymmetricAirfoil rightWing = new SymmetricAirfoil("WingB", new Vector3f(2.0f, 0, -0.2f), wingArea / 2, 1f, aspectRatio, true, 0f);*/
         airfoilDescriptor = new AirfoilDescriptor();
@@ -112,6 +129,7 @@ public class TempDataGenerator {
         airfoilDescriptor.setIncidence(1f);
         airfoilDescriptor.setDamper(true);
         airfoilDescriptor.setDehidralDegree(0f);
+        airfoilDescriptor.setPolars(wingPolars);
         airfoilDescriptors.add(airfoilDescriptor);
         /*SymmetricAirfoil horizontalStabilizer = new SymmetricAirfoil("HorizontalStabilizer", new Vector3f(0, 0, -6.0f), 5f, -3f, aspectRatio / 1.5f, false, 0f);*/
         airfoilDescriptor = new AirfoilDescriptor();
@@ -134,6 +152,20 @@ public class TempDataGenerator {
         airfoilDescriptor.setDehidralDegree(90f);
         airfoilDescriptors.add(airfoilDescriptor);
 
+        HitboxDescriptor engineBox = box("Engine", new Vector3f(0f, 0f, -1f), new Vector3f(0.6f, 0.6f, 1.8f), 0.25f);
+        engineBox.setEngine(0);
+        HitboxDescriptor fuselage = box("Fuselage", new Vector3f(0f, 0f, 0f), new Vector3f(0.7f, 0.8f, 5.2f), 0f);
+        fuselage.getChildren().add(engineBox);
+        HitboxDescriptor hitbox = new HitboxDescriptor();
+        hitbox.setName("Airframe");
+        hitbox.setCenter(new Vector3f(0f, 0f, -0.5f));
+        hitbox.setRadius(6.5f);
+        hitbox.getChildren().add(fuselage);
+        hitbox.getChildren().add(airfoilBox("WingLeft", new Vector3f(-3.2f, 0f, -0.2f), new Vector3f(2.7f, 0.2f, 1f), 0.05f));
+        hitbox.getChildren().add(airfoilBox("WingRight", new Vector3f(3.2f, 0f, -0.2f), new Vector3f(2.7f, 0.2f, 1f), 0.05f));
+        hitbox.getChildren().add(airfoilBox("HorizontalStabilizer", new Vector3f(0f, 0f, -4.8f), new Vector3f(2f, 0.15f, 0.7f), 0.1f));
+        hitbox.getChildren().add(airfoilBox("VerticalStabilizer", new Vector3f(0f, 1f, -4.8f), new Vector3f(0.15f, 1f, 0.8f), 0.1f));
+
         PlaneDescriptor planeDescriptor = new PlaneDescriptor();
         planeDescriptor.setName("Lockheed P-80A-1-LO Shooting Star");
         planeDescriptor.setEngineLocations(engineLocations);
@@ -143,6 +175,7 @@ public class TempDataGenerator {
         planeDescriptor.setInternalTank(1609);
         planeDescriptor.setGunGroupDescriptors(gunGroups);
         planeDescriptor.setAirfolDescriptors(airfoilDescriptors);
+        planeDescriptor.setHitbox(hitbox);
         planes.put(planeDescriptor.getName(), planeDescriptor);
 
         mapper.writerWithDefaultPrettyPrinter().writeValue(new File(folder + "/p80a1lo.json"), planeDescriptor);
@@ -162,10 +195,26 @@ public class TempDataGenerator {
         planeDescriptor.setInternalTank(1609);
         planeDescriptor.setGunGroupDescriptors(gunGroups);
         planeDescriptor.setAirfolDescriptors(airfoilDescriptors);
+        planeDescriptor.setHitbox(hitbox);
         planes.put(planeDescriptor.getName(), planeDescriptor);
 
         mapper.writerWithDefaultPrettyPrinter().writeValue(new File(folder + "/p80a5lo.json"), planeDescriptor);
         System.out.println(mapper.writeValueAsString(planeDescriptor));
 
     }
+
+    private HitboxDescriptor box(String name, Vector3f center, Vector3f extent, float damage) {
+        HitboxDescriptor box = new HitboxDescriptor();
+        box.setName(name);
+        box.setCenter(center);
+        box.setExtent(extent);
+        box.setDamage(damage);
+        return box;
+    }
+
+    private HitboxDescriptor airfoilBox(String airfoil, Vector3f center, Vector3f extent, float damage) {
+        HitboxDescriptor box = box(airfoil, center, extent, damage);
+        box.setAirfoil(airfoil);
+        return box;
+    }
 }
@@ -35,6 +35,7 @@ import com.jme3.math.ColorRGBA;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.queue.RenderQueue.Bucket;
 import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
 import com.jme3.scene.shape.Box;
 import com.jme3.scene.shape.Quad;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -48,19 +49,15 @@ public class DataManager {
     @Autowired
     private AssetManager assetManager;
 
-    private Geometry bulletTemplate;
-
-    public Geometry getBullet() {
-        if (bulletTemplate == null) {
-            Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md"); // create material
-            mat.setColor("Color", ColorRGBA.Green);
-
-            Geometry bullet = new Geometry("bullet", new Box(0.05f, 0.05f, 0.05f)); // wrap shape into geometry
-            bullet.setMaterial(mat);
-
-            bulletTemplate = bullet;
-        }
-        return bulletTemplate.clone();
+    /**
+     * @param tracers - the mesh of every tracer in the air
+     */
+    public Geometry getTracers(Mesh tracers) {
+        Material mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md"); // create material
+        mat.setColor("Color", ColorRGBA.Green);
+        Geometry geom = new Geometry("tracers", tracers);
+        geom.setMaterial(mat);
+        return geom;
     }
 
     public Geometry hitBox(Box box) {
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.Vector2f;
+import java.awt.image.BufferedImage;
+
+/**
+ * Terrain heights straight from a height map, laid out the same way as the
+ * TerrainQuad of the TerrainManager but without any geometry, for running the
+ * simulation without a renderer.
+ */
+public class HeightMapTerrain implements TerrainHeight {
+
+    private final float[] heights;
+    private final int size;
+    private final float horizontalScale;
+    private final float verticalScale;
+    private final float offset;
+    private final float maxHeight;
+
+    public HeightMapTerrain(float[] heights, int size, float horizontalScale, float verticalScale) {
+        if (size < 2 || heights.length != size * size) {
+            throw new IllegalArgumentException("Height map of " + heights.length
+                    + " samples does not match size " + size);
+        }
+        this.heights = heights;
+        this.size = size;
+        this.horizontalScale = horizontalScale;
+        this.verticalScale = verticalScale;
+        this.offset = (size - 1) / 2f;
+        float max = Float.NEGATIVE_INFINITY;
+        for (float height : heights) {
+            max = Math.max(max, height);
+        }
+        this.maxHeight = max * verticalScale;
+    }
+
+    /**
+     * Reads the heights the same way as an ImageBasedHeightMap with a height
+     * scale of 1, from the luminance of the pixels, 0 to 255. The terrain can
+     * be one sample larger than the image, like a 512 pixel image on a 513
+     * terrain, the last row and column repeats the edge of the image then.
+     */
+    public static HeightMapTerrain fromImage(BufferedImage image, int size,
+            float horizontalScale, float verticalScale) {
+        float[] heights = new float[size * size];
+        for (int z = 0; z < size; z++) {
+            for (int x = 0; x < size; x++) {
+                int rgb = image.getRGB(Math.min(x, image.getWidth() - 1), Math.min(z, image.getHeight() - 1));
+                heights[z * size + x] = (float) (0.299 * ((rgb >> 16) & 0xff)
+                        + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff));
+            }
+        }
+        return new HeightMapTerrain(heights, size, horizontalScale, verticalScale);
+    }
+
+    @Override
+    public float getHeightAt(Vector2f at) {
+        return getHeightAt(at.x, at.y);
+    }
+
+    @Override
+    public float maxHeight() {
+        return maxHeight;
+    }
+
+    public float getHeightAt(float x, float z) {
+        float gx = x / horizontalScale + offset;
+        float gz = z / horizontalScale + offset;
+        if (!(gx >= 0 && gz >= 0 && gx < size - 1 && gz < size - 1)) {
+            return Float.NaN;
+        }
+        int ix = (int) gx;
+        int iz = (int) gz;
+        float fx = gx - ix;
+        float fz = gz - iz;
+        int i = iz * size + ix;
+        float h1 = heights[i];
+        float h2 = heights[i + 1];
+        float h3 = heights[i + size];
+        float h4 = heights[i + size + 1];
+        /* the cells are split into two triangles along the same diagonal as the terrain mesh */
+        float height = fx + fz < 1
+                ? h1 + fx * (h2 - h1) + fz * (h3 - h1)
+                : h4 + (1 - fx) * (h3 - h4) + (1 - fz) * (h2 - h4);
+        return height * verticalScale;
+    }
+}
@@ -27,6 +27,10 @@ package com.codebetyars.skyhussars.engine;
 
 import com.codebetyars.skyhussars.engine.plane.Plane;
 
+/**
+ * The player flying a plane. The controls are taken from the render thread
+ * and applied by the simulation at the start of its next tick.
+ */
 public class Pilot {
 
     private Plane plane;
@@ -36,7 +40,7 @@ public class Pilot {
     }
 
     public void setThrottle(float throttle) {
-        plane.setThrottle(throttle);
+        plane.inputThrottle(throttle);
     }
 
     public void firing(boolean firing) {
@@ -48,7 +52,7 @@ public class Pilot {
      * @param aileron must be between -1.0 and 1.0
      */
     public void setAileron(float aileron) {
-        plane.setAileron(aileron);
+        plane.inputAileron(aileron);
     }
 
     /**
@@ -56,7 +60,7 @@ public class Pilot {
      * @param elevator must be between -1.0 and 1.0
      */
     public void setElevator(float elevator) {
-        plane.setElevator(elevator);
+        plane.inputElevator(elevator);
     }
 
     /**
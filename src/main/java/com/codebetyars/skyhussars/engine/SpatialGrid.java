@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the locations of the entities of the world, addressed by
+ * their index. The grid is rebuilt from all locations at once with a counting
+ * sort into a hashed table of cells, so an unbounded world needs no bounds
+ * and an empty cell costs nothing. Entities of different cells sharing a
+ * slot of the table are told apart by their cell.
+ *
+ * Queries go through a Query, which keeps its results and scratch space, so
+ * queries do not allocate once the buffers grew to their size. The grid can
+ * be queried from several threads at the same time, each with its own Query,
+ * but not while it is rebuilt.
+ */
+public class SpatialGrid {
+
+    private static final int MIN_SLOTS = 16;
+
+    private final float cellSize;
+    private int count;
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] z = new float[0];
+    private int[] cellX = new int[0];
+    private int[] cellY = new int[0];
+    private int[] cellZ = new int[0];
+    private int[] slot = new int[0];
+    /* the entities of slot s are entities[slotStart[s]] to entities[slotStart[s + 1] - 1] */
+    private int[] slotStart = new int[MIN_SLOTS + 1];
+    private int[] entities = new int[0];
+    private int mask = MIN_SLOTS - 1;
+    /* cells occupied, the searches never go beyond them */
+    private int minCellX, minCellY, minCellZ;
+    private int maxCellX, maxCellY, maxCellZ;
+
+    /**
+     * @param cellSize - m, about the radius of the common queries
+     */
+    public SpatialGrid(float cellSize) {
+        if (cellSize <= 0f) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public float cellSize() {
+        return cellSize;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Rebuilds the grid, the index of an entity is its index in the array.
+     */
+    public void update(Vector3f[] locations) {
+        count = locations.length;
+        if (x.length < count) {
+            x = new float[count];
+            y = new float[count];
+            z = new float[count];
+            cellX = new int[count];
+            cellY = new int[count];
+            cellZ = new int[count];
+            slot = new int[count];
+            entities = new int[count];
+        }
+        int slots = Math.max(MIN_SLOTS, Integer.highestOneBit(Math.max(1, count * 2) - 1) << 1);
+        if (slotStart.length != slots + 1) {
+            slotStart = new int[slots + 1];
+        } else {
+            Arrays.fill(slotStart, 0);
+        }
+        mask = slots - 1;
+        minCellX = minCellY = minCellZ = Integer.MAX_VALUE;
+        maxCellX = maxCellY = maxCellZ = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            Vector3f location = locations[i];
+            x[i] = location.x;
+            y[i] = location.y;
+            z[i] = location.z;
+            cellX[i] = cell(location.x);
+            cellY[i] = cell(location.y);
+            cellZ[i] = cell(location.z);
+            minCellX = Math.min(minCellX, cellX[i]);
+            minCellY = Math.min(minCellY, cellY[i]);
+            minCellZ = Math.min(minCellZ, cellZ[i]);
+            maxCellX = Math.max(maxCellX, cellX[i]);
+            maxCellY = Math.max(maxCellY, cellY[i]);
+            maxCellZ = Math.max(maxCellZ, cellZ[i]);
+            slot[i] = slot(cellX[i], cellY[i], cellZ[i]);
+            slotStart[slot[i]]++;
+        }
+        /* the running sums are the ends of the slots, filling backwards leaves the starts */
+        for (int s = 1; s < slots; s++) {
+            slotStart[s] += slotStart[s - 1];
+        }
+        slotStart[slots] = count;
+        for (int i = count - 1; i >= 0; i--) {
+            entities[--slotStart[slot[i]]] = i;
+        }
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int slot(int cx, int cy, int cz) {
+        return (cx * 73856093 ^ cy * 19349663 ^ cz * 83492791) & mask;
+    }
+
+    public Vector3f location(int entity, Vector3f store) {
+        return store.set(x[entity], y[entity], z[entity]);
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    /**
+     * The results of the last query of one user, closest first for nearest
+     * and in no particular order for the others.
+     */
+    public class Query {
+
+        private int found;
+        private int[] results = new int[16];
+        private float[] distances = new float[16];
+
+        public int count() {
+            return found;
+        }
+
+        public int result(int i) {
+            return results[i];
+        }
+
+        public float distanceSquared(int i) {
+            return distances[i];
+        }
+
+        /**
+         * @param exclude - an entity never found, -1 for none
+         * @return the number of entities within the radius
+         */
+        public int within(float px, float py, float pz, float radius, int exclude) {
+            found = 0;
+            if (count == 0) {
+                return 0;
+            }
+            float radiusSquared = radius * radius;
+            int fromX = Math.max(cell(px - radius), minCellX);
+            int toX = Math.min(cell(px + radius), maxCellX);
+            int fromY = Math.max(cell(py - radius), minCellY);
+            int toY = Math.min(cell(py + radius), maxCellY);
+            int fromZ = Math.max(cell(pz - radius), minCellZ);
+            int toZ = Math.min(cell(pz + radius), maxCellZ);
+            if ((long) (toX - fromX + 1) * (toY - fromY + 1) * (toZ - fromZ + 1) > count) {
+                /* more cells than entities, checking every entity is cheaper */
+                for (int e = 0; e < count; e++) {
+                    consider(e, px, py, pz, radiusSquared, exclude);
+                }
+                return found;
+            }
+            for (int cx = fromX; cx <= toX; cx++) {
+                for (int cy = fromY; cy <= toY; cy++) {
+                    for (int cz = fromZ; cz <= toZ; cz++) {
+                        int s = slot(cx, cy, cz);
+                        for (int k = slotStart[s]; k < slotStart[s + 1]; k++) {
+                            int e = entities[k];
+                            if (cellX[e] == cx && cellY[e] == cy && cellZ[e] == cz) {
+                                consider(e, px, py, pz, radiusSquared, exclude);
+                            }
+                        }
+                    }
+                }
+            }
+            return found;
+        }
+
+        private void consider(int e, float px, float py, float pz, float radiusSquared, int exclude) {
+            float dx = x[e] - px;
+            float dy = y[e] - py;
+            float dz = z[e] - pz;
+            float distanceSquared = dx * dx + dy * dy + dz * dz;
+            if (distanceSquared <= radiusSquared && e != exclude) {
+                add(e, distanceSquared);
+            }
+        }
+
+        private void add(int e, float distanceSquared) {
+            if (found == results.length) {
+                results = Arrays.copyOf(results, found * 2);
+                distances = Arrays.copyOf(distances, found * 2);
+            }
+            results[found] = e;
+            distances[found] = distanceSquared;
+            found++;
+        }
+
+        /**
+         * Finds the entities within the range whose direction from the apex is
+         * at most the half angle away from the axis.
+         *
+         * @param axisX - the axis has to be a unit vector
+         * @param cosHalfAngle - cosine of the half angle of the cone
+         * @return the number of entities in the cone
+         */
+        public int cone(float px, float py, float pz, float axisX, float axisY, float axisZ,
+                float cosHalfAngle, float range, int exclude) {
+            within(px, py, pz, range, exclude);
+            int kept = 0;
+            for (int i = 0; i < found; i++) {
+                int e = results[i];
+                float along = (x[e] - px) * axisX + (y[e] - py) * axisY + (z[e] - pz) * axisZ;
+                /* along / distance >= cos without a square root, along has to be positive for a narrow cone */
+                float limit = cosHalfAngle * Math.abs(cosHalfAngle) * distances[i];
+                if (along * Math.abs(along) >= limit) {
+                    results[kept] = e;
+                    distances[kept] = distances[i];
+                    kept++;
+                }
+            }
+            found = kept;
+            return found;
+        }
+
+        /**
+         * Finds the k entities closest to the point, searching outwards ring
+         * by ring of cells until no unvisited cell can hold a closer one.
+         *
+         * @return the number found, less than k only if there are not enough
+         * entities
+         */
+        public int nearest(float px, float py, float pz, int k, int exclude) {
+            found = 0;
+            if (k <= 0 || count == 0) {
+                return 0;
+            }
+            if (results.length < k) {
+                results = new int[k];
+                distances = new float[k];
+            }
+            int cx = cell(px);
+            int cy = cell(py);
+            int cz = cell(pz);
+            /* rings until the occupied cells are covered */
+            int rings = Math.max(Math.max(Math.max(cx - minCellX, maxCellX - cx), Math.max(cy - minCellY, maxCellY - cy)),
+                    Math.max(cz - minCellZ, maxCellZ - cz));
+            for (int ring = 0; ring <= rings; ring++) {
+                long cells = (long) (Math.min(cx + ring, maxCellX) - Math.max(cx - ring, minCellX) + 1)
+                        * (Math.min(cy + ring, maxCellY) - Math.max(cy - ring, minCellY) + 1)
+                        * (Math.min(cz + ring, maxCellZ) - Math.max(cz - ring, minCellZ) + 1);
+                if (cells > count) {
+                    /* the rings got larger than the world is dense, checking every entity is cheaper */
+                    found = 0;
+                    for (int e = 0; e < count; e++) {
+                        keepNearest(e, px, py, pz, k, exclude);
+                    }
+                    return found;
+                }
+                visitRing(cx, cy, cz, ring, px, py, pz, k, exclude);
+                /* every unvisited cell is at least ring cells away from the point */
+                float reach = ring * cellSize;
+                if (found == k && distances[k - 1] <= reach * reach) {
+                    return found;
+                }
+            }
+            return found;
+        }
+
+        /* the shell of cells ring cells from the center, only where cells are occupied */
+        private void visitRing(int cx, int cy, int cz, int ring, float px, float py, float pz, int k, int exclude) {
+            int fromZ = Math.max(cz - ring, minCellZ);
+            int toZ = Math.min(cz + ring, maxCellZ);
+            for (int ix = Math.max(cx - ring, minCellX); ix <= Math.min(cx + ring, maxCellX); ix++) {
+                boolean faceX = ix == cx - ring || ix == cx + ring;
+                for (int iy = Math.max(cy - ring, minCellY); iy <= Math.min(cy + ring, maxCellY); iy++) {
+                    if (faceX || iy == cy - ring || iy == cy + ring) {
+                        for (int iz = fromZ; iz <= toZ; iz++) {
+                            visitNearest(ix, iy, iz, px, py, pz, k, exclude);
+                        }
+                    } else {
+                        /* inside the shell only the two z faces are new */
+                        if (cz - ring >= minCellZ) {
+                            visitNearest(ix, iy, cz - ring, px, py, pz, k, exclude);
+                        }
+                        if (ring > 0 && cz + ring <= maxCellZ) {
+                            visitNearest(ix, iy, cz + ring, px, py, pz, k, exclude);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void visitNearest(int ix, int iy, int iz, float px, float py, float pz, int k, int exclude) {
+            int s = slot(ix, iy, iz);
+            for (int j = slotStart[s]; j < slotStart[s + 1]; j++) {
+                int e = entities[j];
+                if (cellX[e] == ix && cellY[e] == iy && cellZ[e] == iz) {
+                    keepNearest(e, px, py, pz, k, exclude);
+                }
+            }
+        }
+
+        /* keeps the k closest so far sorted by distance */
+        private void keepNearest(int e, float px, float py, float pz, int k, int exclude) {
+            if (e == exclude) {
+                return;
+            }
+            float dx = x[e] - px;
+            float dy = y[e] - py;
+            float dz = z[e] - pz;
+            float distanceSquared = dx * dx + dy * dy + dz * dz;
+            if (found == k && distanceSquared >= distances[k - 1]) {
+                return;
+            }
+            int i = found < k ? found++ : k - 1;
+            while (i > 0 && distances[i - 1] > distanceSquared) {
+                results[i] = results[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            results[i] = e;
+            distances[i] = distanceSquared;
+        }
+    }
+}
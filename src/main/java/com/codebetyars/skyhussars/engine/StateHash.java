@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * A cheap 64 bit hash over the exact bits of the simulation state, FNV-1a on
+ * whole words. Two runs that hash the same state tick by tick took the same
+ * path.
+ */
+public class StateHash {
+
+    private final static long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private final static long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    public StateHash reset() {
+        hash = OFFSET_BASIS;
+        return this;
+    }
+
+    public StateHash add(long value) {
+        hash = (hash ^ value) * PRIME;
+        return this;
+    }
+
+    public StateHash add(int value) {
+        return add((long) value);
+    }
+
+    public StateHash add(boolean value) {
+        return add(value ? 1L : 0L);
+    }
+
+    public StateHash add(float value) {
+        return add((long) Float.floatToIntBits(value));
+    }
+
+    public StateHash add(Vector3f vector) {
+        return add(vector.x).add(vector.y).add(vector.z);
+    }
+
+    public StateHash add(Quaternion quaternion) {
+        return add(quaternion.getX()).add(quaternion.getY()).add(quaternion.getZ()).add(quaternion.getW());
+    }
+
+    public long value() {
+        return hash;
+    }
+
+    /**
+     * Folds the hash of a tick into the hash of every tick before it.
+     */
+    public static long roll(long rolling, long tick) {
+        long hash = (rolling ^ tick) * PRIME;
+        return hash ^ (hash >>> 29);
+    }
+}
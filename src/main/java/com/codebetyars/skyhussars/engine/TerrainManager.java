@@ -25,7 +25,6 @@
  */
 package com.codebetyars.skyhussars.engine;
 
-import com.codebetyars.skyhussars.engine.plane.Plane;
 import com.jme3.asset.AssetManager;
 import com.jme3.material.Material;
 import com.jme3.math.Vector2f;
@@ -40,7 +39,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
-public class TerrainManager {
+public class TerrainManager implements TerrainHeight {
+
+    public final static String HEIGHT_MAP = "Textures/AdriaSmall.bmp";
+    public final static int SIZE = 513;
+    public final static float HORIZONTAL_SCALE = 1000f;
+    public final static float VERTICAL_SCALE = 15f;
 
     @Autowired
     private AssetManager assetManager;
@@ -57,21 +61,19 @@ public class TerrainManager {
         return terrain;
     }
 
+    @Override
     public float getHeightAt(Vector2f at) {
         return terrain.getHeight(at);
     }
 
-    public boolean checkCollisionWithGround(Plane plane) {
-        boolean collide = false;
-        float height = terrain.getHeight(plane.getLocation2D());
-        if (height > plane.getHeight()) {
-            collide = true;
-        }
-        return collide;
+    /* the luminance of the height map is at most 255 */
+    @Override
+    public float maxHeight() {
+        return 255f * VERTICAL_SCALE;
     }
     
     public void loadTerrain(){
-        AbstractHeightMap heightmap = new ImageBasedHeightMap(assetManager.loadTexture("Textures/AdriaSmall.bmp").getImage(), 1f);
+        AbstractHeightMap heightmap = new ImageBasedHeightMap(assetManager.loadTexture(HEIGHT_MAP).getImage(), 1f);
         heightmap.load();
 
         Texture grass = assetManager.loadTexture("Textures/ground.png");
@@ -92,9 +94,9 @@ public class TerrainManager {
         mat_terrain.setTexture("DiffuseMap_1", land);
         mat_terrain.setFloat("DiffuseMap_1_scale", 1024f);
 
-        terrain = new TerrainQuad("my terrain", 17, 513, heightmap.getHeightMap());
+        terrain = new TerrainQuad("my terrain", 17, SIZE, heightmap.getHeightMap());
         terrain.setMaterial(mat_terrain);
-        terrain.setLocalScale(1000f, 15f, 1000f);
+        terrain.setLocalScale(HORIZONTAL_SCALE, VERTICAL_SCALE, HORIZONTAL_SCALE);
         terrain.addControl(new TerrainLodControl(terrain, camera.testCamera()));
         terrain.setShadowMode(RenderQueue.ShadowMode.Receive);
         rootNode.attachChild(terrain);
@@ -26,25 +26,109 @@
 package com.codebetyars.skyhussars.engine;
 
 import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.jme3.math.Vector3f;
 import java.util.List;
 import java.util.Optional;
 
 public class World {
 
-    private final TerrainManager terrainManager;
-    private Plane target;
+    /* m, about the distance the planes look around */
+    public static final float CELL_SIZE = 5000f;
+    /* the closest hostile planes checked first, more are only searched if they all crashed */
+    private static final int NOTICED = 4;
 
-    public World(List<Plane> planes, TerrainManager terrainManager) {
-        this.terrainManager = terrainManager;
-        planes.stream().filter(p -> p.planeMissionDescriptor().player())
-                .findFirst().ifPresent(p -> target = p);
+    private final List<Plane> planes;
+    private final SpatialGrid grid = new SpatialGrid(CELL_SIZE);
+    /* the planes of the player and of the AI indexed apart, so a plane only searches the other side */
+    private final SpatialGrid[] sides = {new SpatialGrid(CELL_SIZE), new SpatialGrid(CELL_SIZE)};
+    private final int[][] sidePlanes = new int[2][];
+    private final Vector3f[][] sideLocations = new Vector3f[2][];
+
+    public World(List<Plane> planes) {
+        this.planes = planes;
+        for (int side = 0; side < 2; side++) {
+            int count = 0;
+            for (Plane plane : planes) {
+                count += side(plane) == side ? 1 : 0;
+            }
+            sidePlanes[side] = new int[count];
+            sideLocations[side] = new Vector3f[count];
+            count = 0;
+            for (int i = 0; i < planes.size(); i++) {
+                if (side(planes.get(i)) == side) {
+                    sidePlanes[side][count++] = i;
+                }
+            }
+        }
+    }
+
+    private static int side(Plane plane) {
+        return plane.planeMissionDescriptor().player() ? 1 : 0;
     }
 
-    public Optional<Plane> lookAround() {
-        return Optional.of(target);
+    /**
+     * @return a query for the planes hostile to the plane, one for every
+     * caller looking around at the same time
+     */
+    public SpatialGrid.Query sight(Plane plane) {
+        return sides[1 - side(plane)].query();
+    }
+
+    /**
+     * @param query - from sight, of the same plane
+     * @return the closest hostile plane still flying at the last tick, only
+     * for the simulation thread
+     */
+    public Optional<Plane> lookAround(Plane plane, SpatialGrid.Query query) {
+        int[] hostiles = sidePlanes[1 - side(plane)];
+        Vector3f location = plane.flightLocation();
+        for (int k = NOTICED;; k *= 2) {
+            int found = query.nearest(location.x, location.y, location.z, k, -1);
+            for (int i = 0; i < found; i++) {
+                Plane other = planes.get(hostiles[query.result(i)]);
+                if (!other.crashed()) {
+                    return Optional.of(other);
+                }
+            }
+            if (found < k) {
+                return Optional.empty();
+            }
+        }
     }
     
+    /**
+     * @return the height of the plane above the ground at the last tick, only
+     * for the simulation thread
+     */
     public float getStandardHeightFor(Plane plane){
-        return plane.getHeight() - terrainManager.getHeightAt(plane.getLocation2D());
+        return plane.flightState().heightAboveGround();
+    }
+
+    /**
+     * Moves the planes in the spatial index, once per tick on the simulation
+     * thread, never while it is queried.
+     *
+     * @param locations - of the planes, in mission order
+     */
+    public void update(Vector3f[] locations) {
+        grid.update(locations);
+        for (int side = 0; side < 2; side++) {
+            for (int i = 0; i < sidePlanes[side].length; i++) {
+                sideLocations[side][i] = locations[sidePlanes[side][i]];
+            }
+            sides[side].update(sideLocations[side]);
+        }
+    }
+
+    /**
+     * @return the index of the planes by location, the entities are the
+     * indices of the planes in mission order
+     */
+    public SpatialGrid planeIndex() {
+        return grid;
+    }
+
+    public Plane plane(int index) {
+        return planes.get(index);
     }
 }
@@ -25,8 +25,11 @@
  */
 package com.codebetyars.skyhussars.engine.ai;
 
+import com.codebetyars.skyhussars.engine.SpatialGrid;
 import com.codebetyars.skyhussars.engine.World;
 import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.codebetyars.skyhussars.engine.telemetry.Metric;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
 import com.jme3.math.Vector3f;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -39,6 +42,9 @@ public class AIPilot {
     private final Plane plane;
     private final float initialHeight;
     private Plane target;
+    private final Telemetry telemetry = Telemetry.shared();
+    private final Vector3f direction = new Vector3f();
+    private SpatialGrid.Query sight;
 
     public AIPilot(Plane plane) {
         this.plane = plane;
@@ -47,8 +53,9 @@ public class AIPilot {
     }
 
     public void update(World world) {
-        plane.getLocation();
-
+        if (sight == null) {
+            sight = world.sight(plane);
+        }
         // first simple decision tree like AI.
         // 1. don't get too close to earth
         // 2. if enemy behind turn left
@@ -56,7 +63,7 @@ public class AIPilot {
         // if enemy to the right-ahead turn right
         // if above/below make corrections
         // how to combine moves?
-        Optional<Plane> noticedPlane = world.lookAround();
+        Optional<Plane> noticedPlane = world.lookAround(plane, sight);
         // should have some clever method chaining here?
         if (isCloseToGround(world)) {
             increaseHeight();
@@ -71,21 +78,25 @@ public class AIPilot {
         return world.getStandardHeightFor(plane) < 300;
     }
 
+    /* towards where the rounds fired now meet the target */
     private Vector3f findDirection(Plane target) {
-        return target.getLocation().subtract(plane.getLocation()).normalize();
+        return plane.lead(target.flightLocation(), target.flightVelocity(), direction)
+                .subtractLocal(plane.flightLocation()).normalizeLocal();
     }
 
     private void navigateToDirection(Vector3f direction) {
         /**
          * TODO: revise direction code, this should not be negated
          */
-        Vector3f flyingDir = plane.getDirection();
+        Vector3f flyingDir = plane.flightDirection();
         Vector3f targetDir = direction;
         //the all too naive AI
         //if behind, try to turn back
         //let's determine forward plane, then dot product tells us if direction
         //is backwards
-        logger.debug("flyingto:  {}, targeting: {}, dot: {}", flyingDir, targetDir, flyingDir.dot(targetDir));
+        if (telemetry.sampling()) {
+            telemetry.sample(plane.telemetrySource(), Metric.TARGET_ALIGNMENT, flyingDir.dot(targetDir));
+        }
         if (isBehind(flyingDir, targetDir)) {
             turnLeft();
         } else {
@@ -102,10 +113,9 @@ public class AIPilot {
     }
 
     private void turnLeft() {
-        logger.debug("turn left when {}", plane.roll());
-        if (plane.roll() > -45) {
+        if (plane.flightState().roll() > -45) {
             plane.setAileron(-1);
-        } else if (plane.roll() < -60) {
+        } else if (plane.flightState().roll() < -60) {
             plane.setAileron(1);
         } else {
             plane.setAileron(0);
@@ -114,7 +124,7 @@ public class AIPilot {
     }
 
     public void pullInTurn() {
-        if (plane.roll() > -45 && plane.roll() < - 60) {
+        if (plane.flightState().roll() > -45 && plane.flightState().roll() < - 60) {
             plane.setElevator(1f);
         }
     }
@@ -125,10 +135,9 @@ public class AIPilot {
     }
 
     private void rollUp() {
-        logger.debug("plane roll: {}", plane.roll());
-        if (plane.roll() > 2f) {
+        if (plane.flightState().roll() > 2f) {
             plane.setAileron(-1);
-        } else if (plane.roll() < -2f) {
+        } else if (plane.flightState().roll() < -2f) {
             plane.setAileron(1);
         } else {
             plane.setAileron(0);
@@ -137,11 +146,12 @@ public class AIPilot {
 
     private void levelFlight() {
         rollUp();
-        if (plane.getHeight() > initialHeight) {
+        float altitude = plane.flightState().altitude();
+        if (altitude > initialHeight) {
             plane.setElevator(-1f);
             plane.setThrottle(0.5f);
         }
-        if (plane.getHeight() < initialHeight) {
+        if (altitude < initialHeight) {
             plane.setElevator(1f);
             plane.setThrottle(1f);
         }
@@ -28,13 +28,19 @@ package com.codebetyars.skyhussars.engine.gamestates;
 import com.codebetyars.skyhussars.engine.sound.SoundManager;
 import com.codebetyars.skyhussars.engine.*;
 import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.codebetyars.skyhussars.engine.recorder.FlightRecorder;
+import com.codebetyars.skyhussars.engine.telemetry.CsvTelemetrySink;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
 import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
 import com.jme3.scene.Node;
 import de.lessvoid.nifty.elements.render.TextRenderer;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.NumberFormat;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -52,10 +58,13 @@ public class MissionState implements GameState {
     private final SoundManager soundManager;
     private final static Logger logger = LoggerFactory.getLogger(MissionState.class);
     private final WorldThread worldThread;
-    private Timer timer;
+    private SimulationLoop simulationLoop;
     private GameState nextState = this;
     private final Node rootNode;
     private final Sky sky;
+    private FlightRecorder recorder;
+    /* sound priorities run at a fixed rate on the render thread */
+    private final TickScheduler renderScheduler;
 
     public MissionState(List<Plane> planes, ProjectileManager projectileManager, SoundManager soundManager,
             CameraManager cameraManager, TerrainManager terrainManager,
@@ -68,15 +77,25 @@ public class MissionState implements GameState {
         this.terrainManager = terrainManager;
         this.dayLightWeatherManager = dayLightWeatherManager;
         this.soundManager = soundManager;
+        speedFormat.setMaximumFractionDigits(0);
+        speedFormat.setMinimumIntegerDigits(3);
         planes.stream().forEach((plane) -> {
             if (plane.planeMissionDescriptor().player()) {
                 player = new Pilot(plane);
             }
         });
         initiliazePlayer();
-        worldThread = new WorldThread(planes, ticks, terrainManager);
+        worldThread = new WorldThread(planes, projectileManager, ticks, terrainManager);
+        startRecorder(System.getProperty("skyhussars.recorder"));
+        startTelemetry(System.getProperty("skyhussars.telemetry"));
+        renderScheduler = new TickScheduler(renderTicks);
+        renderScheduler.every("sound", renderScheduler.supportedRate(Integer.getInteger("skyhussars.sound.rate", 5)),
+                dt -> soundManager.prioritise());
     }
-    private final int ticks = 30;
+    /* with RK4 or substepping the simulation stays stable at a lower tick rate */
+    private final int ticks = Integer.getInteger("skyhussars.physics.ticks", 30);
+    private final int maxCatchUpTicks = 5;
+    private final int renderTicks = 60;
     private int cycles = 0;
 
     public Pilot player() {
@@ -92,24 +111,57 @@ public class MissionState implements GameState {
     }
 
     private void startWorldThread() {
-        if (timer == null) {
-            timer = new Timer(true);
-            timer.schedule(new TimerTask() {
-                @Override
-                public void run() {
-                    worldThread.run();
-                }
-            }, 0, 1000 / ticks);  // 16 = 60 tick, 50 = 20 tick
+        if (simulationLoop == null) {
+            simulationLoop = new SimulationLoop(worldThread, ticks, maxCatchUpTicks);
+            worldThread.clock(simulationLoop::tickNanos);
+            simulationLoop.start();
         }
     }
 
     private void stopWorldThread() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
+        if (simulationLoop != null) {
+            simulationLoop.stop();
+            simulationLoop = null;
         }
     }
 
+    private void startRecorder(String recording) {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recorder = new FlightRecorder(new File(recording), ticks, ticks);
+            worldThread.recorder(recorder);
+        } catch (IOException ex) {
+            logger.error("Unable to record the mission to " + recording, ex);
+        }
+    }
+
+    private void startTelemetry(String file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            worldThread.startTelemetry(new CsvTelemetrySink(Telemetry.shared(), new BufferedWriter(new FileWriter(file))),
+                    Integer.getInteger("skyhussars.telemetry.rate", 10));
+        } catch (IOException ex) {
+            logger.error("Unable to write the telemetry to " + file, ex);
+        }
+    }
+
+    private void stopRecorder() {
+        if (recorder == null) {
+            return;
+        }
+        worldThread.recorder(null);
+        try {
+            recorder.close();
+        } catch (IOException ex) {
+            logger.error("Unable to finish the recording " + recorder.file(), ex);
+        }
+        recorder = null;
+    }
+
     private void initiliazePlayer() {
         Plane plane = player.plane();
         cameraManager.moveCameraTo(plane.getLocation());
@@ -118,6 +170,7 @@ public class MissionState implements GameState {
     }
 
     private TextRenderer speedoMeterUI;
+    private final NumberFormat speedFormat = NumberFormat.getInstance();
 
     public synchronized void speedoMeterUI(TextRenderer speedoMeterUI) {
         this.speedoMeterUI = speedoMeterUI;
@@ -131,12 +184,14 @@ public class MissionState implements GameState {
         if (!paused && !ended) {
             startWorldThread();
             updatePlanes(tpf);
-            projectileManager.update(tpf);
+            projectileManager.updateTracers();
+            renderScheduler.advance(tpf, maxCatchUpTicks);
             if (player.plane().crashed()) {
                 ended = true;
             }
             /* take another look at it later to get rid of a chance of a null reference */
-            if(speedoMeterUI != null) speedoMeterUI.setText(player.plane().getSpeedKmH() + "km/h");
+            if(speedoMeterUI != null) speedoMeterUI.setText(
+                    speedFormat.format(player.plane().instruments().flightState().speedKmH()) + "km/h");
         } else {
             stopWorldThread();
             soundManager.muteAllSounds();
@@ -155,22 +210,20 @@ public class MissionState implements GameState {
     }
 
     private void updatePlanes(float tpf) {
-        worldThread.updatePlaneLocations();
+        worldThread.updatePlaneLocations(simulationLoop);
         planes.forEach(plane -> {
             //plane.update(tpf);
-            if (terrainManager.checkCollisionWithGround(plane)) {
-                plane.crashed(true);
-            };
             plane.updateSound();
-            projectileManager.checkCollision(plane);
         });
     }
 
     @Override
     public void close() {
-        if (timer != null) {
-            timer.cancel();
-        }
+        stopWorldThread();
+        stopRecorder();
+        worldThread.stopTelemetry();
+        logger.info("Simulation systems:\n{}Render systems:\n{}", worldThread.scheduler().report(),
+                renderScheduler.report());
         sky.disableSky();
         soundManager.muteAllSounds();
         soundManager.update();
@@ -197,7 +250,7 @@ public class MissionState implements GameState {
     public void reinitPlayer() {
         player.plane().setLocation(0, 0);
         player.plane().setHeight(3000);
-        player.plane().crashed(false);
+        player.plane().respawn(300f);
         initiliazePlayer();
         ended = false;
     }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.gamestates;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the simulation on its own thread with a fixed time step. Time is
+ * accumulated and consumed in whole steps, at most maxCatchUpTicks at once, the
+ * rest is dropped and counted. A tick can stamp what it publishes with the
+ * moment its state belongs to, the render thread interpolates by the stamp.
+ */
+public class SimulationLoop implements Runnable {
+
+    private final static Logger logger = LoggerFactory.getLogger(SimulationLoop.class);
+
+    private final Runnable tick;
+    private final long stepNanos;
+    private final int maxCatchUpTicks;
+
+    private volatile boolean running = false;
+    private Thread thread;
+    /* only used by the simulation thread */
+    private long tickNanos;
+
+    private final AtomicLong ticks = new AtomicLong(0);
+    private final AtomicLong droppedTicks = new AtomicLong(0);
+    private final AtomicLong overruns = new AtomicLong(0);
+    private volatile long maxTickNanos = 0;
+
+    public SimulationLoop(Runnable tick, int ticksPerSecond, int maxCatchUpTicks) {
+        if (ticksPerSecond <= 0 || maxCatchUpTicks <= 0) {
+            throw new IllegalArgumentException("Tick rate and catch up limit must be positive");
+        }
+        this.tick = tick;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.maxCatchUpTicks = maxCatchUpTicks;
+    }
+
+    public synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "SkyHussars-Simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            running = false;
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+            logger.info("Simulation stopped after {} ticks, {} overruns, {} dropped ticks, longest tick {} us",
+                    ticks.get(), overruns.get(), droppedTicks.get(), maxTickNanos / 1000);
+        }
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        /* the first tick runs right away */
+        long accumulator = stepNanos;
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+            int steps = 0;
+            while (accumulator >= stepNanos && steps < maxCatchUpTicks && running) {
+                /* the wall clock moment the state after this tick belongs to */
+                tickNanos = previous - accumulator + stepNanos;
+                long started = System.nanoTime();
+                try {
+                    tick.run();
+                } catch (RuntimeException ex) {
+                    logger.error("Simulation tick failed, stopping simulation", ex);
+                    running = false;
+                    return;
+                }
+                long elapsed = System.nanoTime() - started;
+                if (elapsed > stepNanos) {
+                    overruns.incrementAndGet();
+                }
+                if (elapsed > maxTickNanos) {
+                    maxTickNanos = elapsed;
+                }
+                accumulator -= stepNanos;
+                ticks.incrementAndGet();
+                steps++;
+            }
+            if (accumulator >= stepNanos) {
+                droppedTicks.addAndGet(accumulator / stepNanos);
+                accumulator %= stepNanos;
+            }
+            long wait = stepNanos - accumulator;
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * @return the System.nanoTime moment the state of the running tick belongs
+     * to, only for the tick itself
+     */
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * @param tickNanos - the moment of the published tick, from tickNanos
+     * @return the interpolation factor between the tick before and the
+     * published tick, between 0.0 and 1.0
+     */
+    public float alpha(long tickNanos) {
+        float alpha = (float) (System.nanoTime() - tickNanos) / stepNanos;
+        return alpha < 0f ? 0f : (alpha > 1f ? 1f : alpha);
+    }
+
+    public long ticks() {
+        return ticks.get();
+    }
+
+    public long droppedTicks() {
+        return droppedTicks.get();
+    }
+
+    public long overruns() {
+        return overruns.get();
+    }
+
+    public long maxTickNanos() {
+        return maxTickNanos;
+    }
+}
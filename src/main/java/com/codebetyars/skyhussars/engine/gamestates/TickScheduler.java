@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.gamestates;
+
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs the systems of the game at their own rates on top of a fixed base tick.
+ * A system runs every ticksPerSecond / rate ticks, at a phase chosen so the
+ * systems spread evenly over the ticks. A staggered system runs every tick on
+ * one slice of its items, so every item is updated once per period. The time
+ * spent in each system is measured.
+ *
+ * A system runs after the one added before it, unless its dependencies are
+ * given with after. Systems without a dependency between them run at the same
+ * time on the job system, if the scheduler has one.
+ *
+ * Not thread safe, ticks should come from one thread at a time.
+ */
+public class TickScheduler {
+
+    public interface Task {
+
+        /**
+         * @param dt - seconds since the previous run of the task
+         */
+        void run(float dt);
+    }
+
+    public interface StaggeredTask {
+
+        /**
+         * Should update the items where index % slices == slice.
+         *
+         * @param dt - seconds since the previous update of the same items
+         */
+        void run(int slice, int slices, float dt);
+    }
+
+    private final int ticksPerSecond;
+    private final JobSystem jobs;
+    private final List<ScheduledSystem> systems = new ArrayList<>();
+    /* the due systems of the wave being run */
+    private final List<Runnable> due = new ArrayList<>();
+    private int waves = 0;
+    /* systems planned for each tick of a second, used to pick the phases */
+    private final int[] load;
+    private long tick = 0;
+    private float accumulator = 0f;
+
+    public TickScheduler(int ticksPerSecond) {
+        this(ticksPerSecond, null);
+    }
+
+    /**
+     * @param jobs - runs the independent systems at the same time, can be
+     * null
+     */
+    public TickScheduler(int ticksPerSecond, JobSystem jobs) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("Tick rate must be positive");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        this.jobs = jobs;
+        this.load = new int[ticksPerSecond];
+    }
+
+    public int ticksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public long ticks() {
+        return tick;
+    }
+
+    /**
+     * @return the rate closest to the requested one which divides the tick
+     * rate, never above the tick rate
+     */
+    public int supportedRate(int rate) {
+        int supported = ticksPerSecond;
+        for (int period = 1; period <= ticksPerSecond; period++) {
+            if (ticksPerSecond % period == 0
+                    && Math.abs(ticksPerSecond / period - rate) < Math.abs(supported - rate)) {
+                supported = ticksPerSecond / period;
+            }
+        }
+        return supported;
+    }
+
+    /**
+     * Adds a system at the phase with the least load.
+     */
+    public TickScheduler every(String name, int rate, Task task) {
+        int period = period(name, rate);
+        int phase = 0;
+        int phaseLoad = Integer.MAX_VALUE;
+        for (int candidate = 0; candidate < period; candidate++) {
+            int candidateLoad = 0;
+            for (int t = candidate; t < ticksPerSecond; t += period) {
+                candidateLoad = Math.max(candidateLoad, load[t]);
+            }
+            if (candidateLoad < phaseLoad) {
+                phase = candidate;
+                phaseLoad = candidateLoad;
+            }
+        }
+        return every(name, rate, phase, task);
+    }
+
+    /**
+     * @param phase - the system runs on the ticks where tick % period == phase
+     */
+    public TickScheduler every(String name, int rate, int phase, Task task) {
+        int period = period(name, rate);
+        if (phase < 0 || phase >= period) {
+            throw new IllegalArgumentException("Phase of " + name + " must be between 0 and " + (period - 1));
+        }
+        for (int t = phase; t < ticksPerSecond; t += period) {
+            load[t]++;
+        }
+        return add(new ScheduledSystem(name, rate, period, phase, task, null));
+    }
+
+    public TickScheduler staggered(String name, int rate, StaggeredTask task) {
+        return add(new ScheduledSystem(name, rate, period(name, rate), 0, null, task));
+    }
+
+    private TickScheduler add(ScheduledSystem system) {
+        if (systems.stream().anyMatch(added -> added.time.name().equals(system.time.name()))) {
+            throw new IllegalArgumentException("System " + system.time.name() + " is already scheduled");
+        }
+        if (!systems.isEmpty()) {
+            system.after(Collections.singletonList(systems.get(systems.size() - 1)));
+        }
+        systems.add(system);
+        waves = Math.max(waves, system.wave + 1);
+        return this;
+    }
+
+    /**
+     * Replaces the dependencies of the last added system. The dependencies
+     * have to be added before it, so the systems can not depend on each other
+     * in a circle.
+     *
+     * @param names - the systems which have to finish in a tick before the
+     * last added one starts, none if it does not depend on anything
+     */
+    public TickScheduler after(String... names) {
+        if (systems.isEmpty()) {
+            throw new IllegalStateException("No system to add dependencies to");
+        }
+        ScheduledSystem system = systems.get(systems.size() - 1);
+        List<ScheduledSystem> dependencies = new ArrayList<>();
+        for (String name : names) {
+            dependencies.add(systems.stream().filter(added -> added != system && added.time.name().equals(name))
+                    .findFirst().orElseThrow(() -> new IllegalArgumentException(
+                            "Unknown dependency " + name + " of " + system.time.name())));
+        }
+        system.after(dependencies);
+        waves = systems.stream().mapToInt(added -> added.wave + 1).max().orElse(0);
+        return this;
+    }
+
+    private int period(String name, int rate) {
+        if (rate <= 0 || rate > ticksPerSecond || ticksPerSecond % rate != 0) {
+            throw new IllegalArgumentException("Rate of " + name + " must divide the tick rate " + ticksPerSecond
+                    + ", was " + rate);
+        }
+        return ticksPerSecond / rate;
+    }
+
+    /**
+     * Runs one base tick, the systems due in it wave by wave.
+     */
+    public void tick() {
+        for (int wave = 0; wave < waves; wave++) {
+            due.clear();
+            for (int i = 0; i < systems.size(); i++) {
+                ScheduledSystem system = systems.get(i);
+                if (system.wave == wave && system.due(tick)) {
+                    due.add(system);
+                }
+            }
+            if (jobs == null || due.size() == 1) {
+                due.forEach(Runnable::run);
+            } else {
+                jobs.invokeAll(due);
+            }
+        }
+        tick++;
+    }
+
+    /**
+     * @return the names of the systems which run at the same time in the
+     * order of the waves
+     */
+    public List<List<String>> waves() {
+        List<List<String>> names = new ArrayList<>();
+        for (int wave = 0; wave < waves; wave++) {
+            List<String> waveNames = new ArrayList<>();
+            for (ScheduledSystem system : systems) {
+                if (system.wave == wave) {
+                    waveNames.add(system.time.name());
+                }
+            }
+            names.add(Collections.unmodifiableList(waveNames));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Runs as many base ticks as fit into the elapsed time, at most maxTicks,
+     * the rest of the time is dropped.
+     *
+     * @return the number of ticks run
+     */
+    public int advance(float seconds, int maxTicks) {
+        float tickSeconds = 1f / ticksPerSecond;
+        accumulator += seconds;
+        int ticks = 0;
+        while (accumulator >= tickSeconds && ticks < maxTicks) {
+            tick();
+            accumulator -= tickSeconds;
+            ticks++;
+        }
+        if (accumulator >= tickSeconds) {
+            accumulator %= tickSeconds;
+        }
+        return ticks;
+    }
+
+    public List<SystemTime> times() {
+        List<SystemTime> times = new ArrayList<>();
+        systems.forEach(system -> times.add(system.time));
+        return Collections.unmodifiableList(times);
+    }
+
+    /**
+     * @return the time spent in each system, one line per system
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        for (ScheduledSystem system : systems) {
+            SystemTime time = system.time;
+            report.append(String.format(Locale.ROOT, "%-12s %3d Hz, runs: %d, mean: %.1f us, max: %.1f us, per second: %.2f ms%n",
+                    time.name(), time.rate(), time.runs(), time.meanNanos() / 1000.0, time.maxNanos() / 1000.0,
+                    tick == 0 ? 0.0 : time.totalNanos() * (double) ticksPerSecond / tick / 1_000_000.0));
+        }
+        return report.toString();
+    }
+
+    public static class SystemTime {
+
+        private final String name;
+        private final int rate;
+        private volatile long runs;
+        private volatile long totalNanos;
+        private volatile long maxNanos;
+
+        private SystemTime(String name, int rate) {
+            this.name = name;
+            this.rate = rate;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public int rate() {
+            return rate;
+        }
+
+        public long runs() {
+            return runs;
+        }
+
+        public long totalNanos() {
+            return totalNanos;
+        }
+
+        public long maxNanos() {
+            return maxNanos;
+        }
+
+        public double meanNanos() {
+            long runs = this.runs;
+            return runs == 0 ? 0.0 : (double) totalNanos / runs;
+        }
+
+        private void add(long nanos) {
+            runs++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+    }
+
+    private class ScheduledSystem implements Runnable {
+
+        private final int period;
+        private final int phase;
+        private final float dt;
+        private final Task task;
+        private final StaggeredTask staggeredTask;
+        private final SystemTime time;
+        /* one more than the latest wave of the dependencies */
+        private int wave = 0;
+
+        ScheduledSystem(String name, int rate, int period, int phase, Task task, StaggeredTask staggeredTask) {
+            this.period = period;
+            this.phase = phase;
+            this.dt = (float) period / ticksPerSecond;
+            this.task = task;
+            this.staggeredTask = staggeredTask;
+            this.time = new SystemTime(name, rate);
+        }
+
+        void after(List<ScheduledSystem> dependencies) {
+            wave = dependencies.stream().mapToInt(dependency -> dependency.wave + 1).max().orElse(0);
+        }
+
+        boolean due(long tick) {
+            return staggeredTask != null || tick % period == phase;
+        }
+
+        @Override
+        public void run() {
+            int slot = (int) (tick % period);
+            long started = System.nanoTime();
+            if (staggeredTask != null) {
+                staggeredTask.run(slot, period, dt);
+            } else {
+                task.run(dt);
+            }
+            time.add(System.nanoTime() - started);
+        }
+    }
+}
@@ -25,40 +25,125 @@
  */
 package com.codebetyars.skyhussars.engine.gamestates;
 
-import com.codebetyars.skyhussars.engine.TerrainManager;
+import com.codebetyars.skyhussars.engine.StateHash;
+import com.codebetyars.skyhussars.engine.TerrainHeight;
 import com.codebetyars.skyhussars.engine.World;
 import com.codebetyars.skyhussars.engine.ai.AIPilot;
-import com.codebetyars.skyhussars.engine.physics.environment.AtmosphereImpl;
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.codebetyars.skyhussars.engine.physics.FlightEngine;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.physics.PhysicsLod;
+import com.codebetyars.skyhussars.engine.physics.TripleBuffer;
+import com.codebetyars.skyhussars.engine.recorder.FlightRecorder;
 import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
 import com.codebetyars.skyhussars.engine.plane.Plane;
-import java.util.LinkedList;
+import com.codebetyars.skyhussars.engine.telemetry.Metric;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
+import com.codebetyars.skyhussars.engine.telemetry.TelemetrySink;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.TimerTask;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class WorldThread extends TimerTask {
+public class WorldThread implements Runnable {
 
     private final static Logger logger = LoggerFactory.getLogger(WorldThread.class);
 
+    /* the smallest number of planes and pilots worth a task on the job system */
+    private static final int PLANES_PER_TASK = 4;
+    private static final int PILOTS_PER_TASK = 8;
+
     private final List<Plane> planes;
+    private final ProjectileManager projectileManager;
+    private final int ticks;
     private final float tpf;
 
-    private final Environment environment = new Environment(10, new AtmosphereImpl());
-    private final List<AIPilot> aiPilots = new LinkedList<>();
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    private final List<AIPilot> aiPilots = new ArrayList<>();
     private final World world;
+    private final TerrainHeight terrain;
+    private final FlightEngine flightEngine;
+    private final TripleBuffer<FlightSnapshot> snapshots;
+    private final boolean deterministic;
+    private volatile FlightRecorder recorder;
+    private final PhysicsLod lod = PhysicsLod.fromSystemProperties();
+    /* the player, physics levels are chosen by the distance from it */
+    private final int focus;
+    /* where the planes were at the end of the last tick, only used by the simulation thread */
+    private final Vector3f[] locations;
+    private final TickScheduler scheduler;
+    private final JobSystem jobs = JobSystem.shared();
+    private final Telemetry telemetry = Telemetry.shared();
+    private final Vector3f tempVelocity = new Vector3f();
+    private final Vector2f tempGround = new Vector2f();
+    private volatile LongSupplier clock = System::nanoTime;
+
+    public WorldThread(List<Plane> planes, ProjectileManager projectileManager, int ticks, TerrainHeight terrain) {
+        this(planes, projectileManager, ticks, terrain, Boolean.getBoolean("skyhussars.deterministic"));
+    }
 
-    public WorldThread(List<Plane> planes, int ticks, TerrainManager terrainManager) {
+    /**
+     * @param projectileManager - the projectiles are moved and checked
+     * against the planes and the ground in every tick
+     * @param deterministic - the planes and the AI are updated one by one in
+     * mission order instead of on the common pool
+     */
+    public WorldThread(List<Plane> planes, ProjectileManager projectileManager, int ticks, TerrainHeight terrain,
+            boolean deterministic) {
         this.planes = planes;
+        this.projectileManager = projectileManager;
+        this.deterministic = deterministic;
         planes.stream().forEach((plane) -> {
             if (!plane.planeMissionDescriptor().player()) {
                 aiPilots.add(new AIPilot(plane));
             }
         });
 
-        world = new World(planes, terrainManager);
+        focus = IntStream.range(0, planes.size())
+                .filter(i -> planes.get(i).planeMissionDescriptor().player()).findFirst().orElse(-1);
+        locations = planes.stream().map(plane -> plane.getLocation().clone()).toArray(Vector3f[]::new);
+        world = new World(planes);
+        world.update(locations);
+        this.terrain = terrain;
+        this.ticks = ticks;
         tpf = (float) 1 / (float) ticks;
+        /* the flight engine keeps the state of all planes */
+        flightEngine = new FlightEngine(planes.size());
+        planes.forEach(plane -> plane.bindTo(flightEngine));
+        snapshots = new TripleBuffer<>(() -> new FlightSnapshot(planes.size()));
+        /* the pilots of the first tick already decide on the flight state */
+        FlightSnapshot initial = snapshots.back();
+        for (int i = 0; i < planes.size(); i++) {
+            planes.get(i).writeSnapshot(initial, i);
+        }
+        updateFlightStates(initial, 0f);
+        /*
+         * a tick is a chain of stages: controls -> ai -> lod -> physics -> guns
+         * -> weapons -> collision -> publish, the work inside a stage is
+         * spread over the job system. AI decisions are slower than the
+         * physics, every pilot decides once in each period
+         */
+        scheduler = new TickScheduler(ticks, deterministic ? null : jobs);
+        /* the collisions check the segments of every step of the projectiles, so they run together */
+        int weaponsRate = scheduler.supportedRate(Integer.getInteger("skyhussars.weapons.rate", ticks));
+        scheduler.every("controls", ticks, 0, dt -> applyControls())
+                .staggered("ai", scheduler.supportedRate(Integer.getInteger("skyhussars.ai.rate", 10)), this::updateAI)
+                .every("lod", ticks, 0, dt -> updatePhysicsLevels())
+                .every("physics", ticks, 0, dt -> {
+                    updatePhysics();
+                    writeSnapshot();
+                })
+                .every("guns", ticks, 0, this::fireGuns)
+                .every("weapons", weaponsRate, 0, projectileManager::update)
+                .every("collision", weaponsRate, 0, dt -> checkCollisions())
+                .every("publish", ticks, 0, dt -> publishSnapshot(cycle.incrementAndGet()));
     }
 
     private final AtomicLong cycle = new AtomicLong(0);
@@ -67,23 +152,176 @@ public class WorldThread extends TimerTask {
         return cycle.get();
     }
 
+    public TickScheduler scheduler() {
+        return scheduler;
+    }
+
     @Override
     public void run() {
-        synchronized (this) {
-            planes.parallelStream().forEach(plane -> {
-                plane.updatePlanePhysics(tpf, environment);
-            });
+        telemetry.tick(cycle.get() + 1);
+        scheduler.tick();
+    }
+
+    private void updatePhysics() {
+        flightEngine.step(tpf, environment, deterministic ? null : jobs);
+    }
+
+    /* the controls of the player and the damage of the hits in the last tick */
+    private void applyControls() {
+        for (Plane plane : planes) {
+            plane.applyControls();
+            plane.applyDamage();
         }
-        aiPilots.parallelStream().forEach(aiPilot -> {
-            aiPilot.update(world);
-        });
-        cycle.incrementAndGet();
     }
 
-    public synchronized void updatePlaneLocations() {
-        planes.stream().forEach(plane -> {
-            plane.update(tpf);
-        });
+    private void fireGuns(float dt) {
+        if (deterministic) {
+            planes.forEach(plane -> plane.fireGuns(dt));
+        } else {
+            jobs.parallelFor(planes.size(), PLANES_PER_TASK, i -> planes.get(i).fireGuns(dt));
+        }
+    }
+
+    private void checkCollisions() {
+        for (Plane plane : planes) {
+            if (!plane.crashed() && plane.flightState().heightAboveGround() < 0) {
+                plane.crashed(true);
+            }
+        }
+        projectileManager.checkCollisions(planes, snapshots.back());
+        projectileManager.checkGround(terrain);
+    }
+
+    private void updateAI(int slice, int slices, float dt) {
+        int count = (aiPilots.size() - slice + slices - 1) / slices;
+        if (deterministic) {
+            for (int i = 0; i < count; i++) {
+                aiPilots.get(slice + i * slices).update(world);
+            }
+        } else {
+            jobs.parallelFor(count, PILOTS_PER_TASK, i -> aiPilots.get(slice + i * slices).update(world));
+        }
+    }
+
+    private void updatePhysicsLevels() {
+        if (lod == null) {
+            return;
+        }
+        for (int i = 0; i < planes.size(); i++) {
+            Plane plane = planes.get(i);
+            float distanceSquared = focus < 0 ? 0f : locations[i].distanceSquared(locations[focus]);
+            plane.physicsLevel(lod.level(plane.physicsLevel(), plane.crashed(), plane.shotdown(), distanceSquared));
+        }
+    }
+
+    /* the state of the tick, read by the later stages before it is published */
+    private void writeSnapshot() {
+        FlightSnapshot snapshot = snapshots.back();
+        for (int i = 0; i < planes.size(); i++) {
+            planes.get(i).writeSnapshot(snapshot, i);
+            snapshot.translation(i, locations[i]);
+        }
+        world.update(locations);
+        updateFlightStates(snapshot, tpf);
+    }
+
+    private void publishSnapshot(long tick) {
+        FlightSnapshot snapshot = snapshots.back();
+        projectileManager.publishTracers();
+        snapshot.tick(tick);
+        snapshot.nanos(clock.getAsLong());
+        if (telemetry.sampling()) {
+            sample(snapshot);
+        }
+        FlightRecorder flightRecorder = recorder;
+        if (flightRecorder != null) {
+            flightRecorder.record(tick, snapshot, projectileManager);
+        }
+        snapshots.publish();
+    }
+
+    private void updateFlightStates(FlightSnapshot snapshot, float dt) {
+        for (int i = 0; i < planes.size(); i++) {
+            float ground = terrain.getHeightAt(tempGround.set(locations[i].x, locations[i].z));
+            planes.get(i).updateFlightState(snapshot, i, ground, environment, dt);
+        }
+    }
+
+    /* the metrics every plane has, read from the snapshot of the tick */
+    private void sample(FlightSnapshot snapshot) {
+        for (int i = 0; i < planes.size(); i++) {
+            Plane plane = planes.get(i);
+            int source = plane.telemetrySource();
+            telemetry.sample(source, Metric.SPEED, snapshot.velocity(i, tempVelocity).length());
+            telemetry.sample(source, Metric.ALTITUDE, locations[i].y);
+            telemetry.sample(source, Metric.PHYSICS_LEVEL, plane.physicsLevel().ordinal());
+        }
+    }
+
+    /**
+     * Samples the telemetry rate times a second and drains it to the sink,
+     * until stopTelemetry is called.
+     */
+    public void startTelemetry(TelemetrySink sink, int rate) {
+        telemetry.start(sink, ticks / scheduler.supportedRate(rate));
+    }
+
+    public void stopTelemetry() {
+        telemetry.stop();
+    }
+
+    /**
+     * @param clock - the moment the state of the running tick belongs to, the
+     * published snapshots are stamped with it
+     */
+    public void clock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Records the planes and the projectiles after every tick.
+     *
+     * @param recorder - null stops recording
+     */
+    public void recorder(FlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    public boolean deterministic() {
+        return deterministic;
+    }
+
+    /**
+     * @return the last published state, only for the thread that reads the
+     * snapshots
+     */
+    public FlightSnapshot snapshot() {
+        return snapshots.front();
+    }
+
+    /**
+     * Adds the last published state of every plane to the hash.
+     */
+    public void hashState(StateHash hash) {
+        snapshots.front().hashState(hash);
+    }
+
+    /**
+     * Moves the planes in the scene to the latest published simulation state,
+     * never blocks the simulation thread.
+     *
+     * @param loop - interpolates by the stamp of the snapshot, null shows the
+     * snapshot as it is
+     */
+    public void updatePlaneLocations(SimulationLoop loop) {
+        FlightSnapshot snapshot = snapshots.front();
+        if (!snapshot.published()) {
+            return;
+        }
+        float alpha = loop != null ? loop.alpha(snapshot.nanos()) : 1f;
+        for (int i = 0; i < planes.size(); i++) {
+            planes.get(i).update(snapshot, i, alpha);
+        }
     }
 
 }
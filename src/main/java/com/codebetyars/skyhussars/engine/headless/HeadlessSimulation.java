@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.headless;
+
+import com.codebetyars.skyhussars.engine.RandomStreams;
+import com.codebetyars.skyhussars.engine.StateHash;
+import com.codebetyars.skyhussars.engine.TerrainHeight;
+import com.codebetyars.skyhussars.engine.data.PlaneRegistry;
+import com.codebetyars.skyhussars.engine.gamestates.TickScheduler;
+import com.codebetyars.skyhussars.engine.gamestates.WorldThread;
+import com.codebetyars.skyhussars.engine.mission.PlaneMissionDescriptor;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.physics.FlightState;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.codebetyars.skyhussars.engine.plane.instruments.BarometricAltimeter;
+import com.codebetyars.skyhussars.engine.plane.instruments.Instruments;
+import com.codebetyars.skyhussars.engine.recorder.FlightRecorder;
+import com.codebetyars.skyhussars.engine.sound.AudioHandler;
+import com.codebetyars.skyhussars.engine.telemetry.TelemetrySink;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.jme3.audio.AudioNode;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.shape.Box;
+import com.jme3.scene.shape.Quad;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs a scenario without a renderer, as fast as the CPU allows. Each tick
+ * runs the WorldThread, which steps the physics, the AI and the projectiles,
+ * which end in planes or in the ground, then moves the planes to the new
+ * state like the game does between two frames.
+ *
+ * With a seed in the scenario the run is deterministic: every gun draws from
+ * its own seeded stream, planes and AI are updated in mission order, and the
+ * state hash after each tick is the same for every run of the same build.
+ */
+public class HeadlessSimulation {
+
+    private final ScenarioDescriptor scenario;
+    private final List<Plane> planes = new ArrayList<>();
+    private final ProjectileManager projectileManager = new ProjectileManager();
+    private final WorldThread worldThread;
+    private final float tpf;
+    private final StateHash tickHash = new StateHash();
+    private long stateHash;
+
+    public HeadlessSimulation(ScenarioDescriptor scenario, PlaneRegistry planeRegistry, TerrainHeight terrain) {
+        if (scenario.getTicks() <= 0 || scenario.getDuration() < 0) {
+            throw new IllegalArgumentException("Tick rate must be positive and duration must not be negative");
+        }
+        if (scenario.getPlanes() == null || scenario.getPlanes().isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + scenario.getName() + " has no planes");
+        }
+        this.scenario = scenario;
+        this.tpf = 1f / scenario.getTicks();
+        for (ScenarioPlaneDescriptor planeScenario : scenario.getPlanes()) {
+            planes.add(createPlane(planeScenario, planeRegistry));
+        }
+        if (scenario.getSeed() != null) {
+            RandomStreams randomStreams = new RandomStreams(scenario.getSeed());
+            for (int i = 0; i < planes.size(); i++) {
+                planes.get(i).randomStreams(randomStreams.child(i));
+            }
+            worldThread = new WorldThread(planes, projectileManager, scenario.getTicks(), terrain, true);
+        } else {
+            worldThread = new WorldThread(planes, projectileManager, scenario.getTicks(), terrain);
+        }
+    }
+
+    private Plane createPlane(ScenarioPlaneDescriptor planeScenario, PlaneRegistry planeRegistry) {
+        PlaneDescriptor planeDescriptor = planeRegistry.planeDescriptor(planeScenario.getPlaneType());
+        if (planeDescriptor == null) {
+            throw new IllegalArgumentException("Unknown plane type: " + planeScenario.getPlaneType());
+        }
+        /* the box stands in for the model as a hitbox */
+        Plane plane = new Plane(new Geometry(planeScenario.getPlaneType(), new Box(6f, 1f, 4f)), planeDescriptor,
+                new AudioHandler(new AudioNode()), new AudioHandler(new AudioNode()),
+                projectileManager, new Geometry("cockpit", new Quad(0.03f, 0.03f)),
+                new Instruments(new BarometricAltimeter(0)));
+        PlaneMissionDescriptor planeMission = new PlaneMissionDescriptor();
+        planeMission.planeType(planeScenario.getPlaneType());
+        planeMission.player(planeScenario.isPlayer());
+        planeMission.startLocation(planeScenario.getLocation());
+        plane.planeMissinDescriptor(planeMission);
+        plane.setLocation(planeScenario.getLocation().clone());
+        plane.setThrottle(planeScenario.getThrottle());
+        plane.setFiring(planeScenario.isFiring());
+        return plane;
+    }
+
+    public List<Plane> planes() {
+        return Collections.unmodifiableList(planes);
+    }
+
+    /**
+     * @return the state of the planes published by the last tick
+     */
+    public FlightSnapshot snapshot() {
+        return worldThread.snapshot();
+    }
+
+    /**
+     * @return the scheduler of the simulation systems, with the time spent in
+     * each of them
+     */
+    public TickScheduler scheduler() {
+        return worldThread.scheduler();
+    }
+
+    /**
+     * Records the planes and the projectiles after every tick.
+     *
+     * @param recorder - null stops recording
+     */
+    public void recorder(FlightRecorder recorder) {
+        worldThread.recorder(recorder);
+    }
+
+    /**
+     * Samples the telemetry rate times a second of simulated time.
+     */
+    public void startTelemetry(TelemetrySink sink, int rate) {
+        worldThread.startTelemetry(sink, rate);
+    }
+
+    /**
+     * Drains the remaining samples and closes the sink.
+     */
+    public void stopTelemetry() {
+        worldThread.stopTelemetry();
+    }
+
+    /**
+     * @return the rolling hash of the state of the planes and the projectiles
+     * over every tick so far
+     */
+    public long stateHash() {
+        return stateHash;
+    }
+
+    public SimulationStats run() {
+        return run(null);
+    }
+
+    /**
+     * Runs the scenario to its end, or until every plane crashed.
+     *
+     * @param trajectory - receives the sampled trajectory as CSV, can be null
+     */
+    public SimulationStats run(Writer trajectory) {
+        long maxTicks = (long) Math.ceil(scenario.getDuration() * scenario.getTicks());
+        long sampleEvery = Math.max(1, Math.round(scenario.getSampleInterval() * scenario.getTicks()));
+        long[] tickNanos = new long[(int) maxTicks];
+        long start = System.nanoTime();
+        writeHeader(trajectory);
+        writeSample(trajectory, 0);
+        long tick = 0;
+        while (tick < maxTicks && !allCrashed()) {
+            long tickStart = System.nanoTime();
+            step();
+            tickNanos[(int) tick] = System.nanoTime() - tickStart;
+            tick++;
+            if (tick % sampleEvery == 0) {
+                writeSample(trajectory, tick);
+            }
+        }
+        return new SimulationStats(tick, tick * tpf, System.nanoTime() - start, tickNanos, stateHash);
+    }
+
+    /**
+     * Advances the simulation by one tick.
+     */
+    public void step() {
+        worldThread.run();
+        worldThread.updatePlaneLocations(null);
+        for (Plane plane : planes) {
+            plane.planeGeometry().root().updateGeometricState();
+        }
+        tickHash.reset();
+        worldThread.hashState(tickHash);
+        planes.forEach(plane -> plane.hashState(tickHash));
+        projectileManager.hashState(tickHash);
+        stateHash = StateHash.roll(stateHash, tickHash.value());
+    }
+
+    private boolean allCrashed() {
+        return planes.stream().allMatch(Plane::crashed);
+    }
+
+    private void writeHeader(Writer trajectory) {
+        write(trajectory, "time,plane,type,x,y,z,dirX,dirY,dirZ,roll,ground,crashed,hash\n");
+    }
+
+    private void writeSample(Writer trajectory, long tick) {
+        if (trajectory == null) {
+            return;
+        }
+        StringBuilder sample = new StringBuilder();
+        for (int i = 0; i < planes.size(); i++) {
+            Plane plane = planes.get(i);
+            Vector3f location = plane.flightLocation();
+            Vector3f direction = plane.flightDirection();
+            FlightState state = plane.flightState();
+            sample.append(String.format(Locale.ROOT, "%.3f,%d,%s,%.2f,%.2f,%.2f,%.4f,%.4f,%.4f,%.1f,%.1f,%b,%016x%n",
+                    tick * tpf, i, plane.planeMissionDescriptor().planeType(),
+                    location.x, location.y, location.z, direction.x, direction.y, direction.z,
+                    state.roll(), state.altitude() - state.heightAboveGround(), plane.crashed(), stateHash));
+        }
+        write(trajectory, sample.toString());
+    }
+
+    private void write(Writer trajectory, String text) {
+        if (trajectory == null) {
+            return;
+        }
+        try {
+            trajectory.write(text);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to write trajectory", ex);
+        }
+    }
+}
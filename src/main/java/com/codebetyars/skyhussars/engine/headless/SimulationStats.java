@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.headless;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Timing of a headless run. Tick times cover the simulation only, the wall
+ * time covers the whole run including writing the trajectory.
+ */
+public class SimulationStats {
+
+    private final long ticks;
+    private final float simulatedSeconds;
+    private final long wallNanos;
+    private final long[] sortedTickNanos;
+    private final long stateHash;
+
+    public SimulationStats(long ticks, float simulatedSeconds, long wallNanos, long[] tickNanos, long stateHash) {
+        this.ticks = ticks;
+        this.simulatedSeconds = simulatedSeconds;
+        this.wallNanos = wallNanos;
+        this.sortedTickNanos = Arrays.copyOf(tickNanos, (int) ticks);
+        Arrays.sort(sortedTickNanos);
+        this.stateHash = stateHash;
+    }
+
+    public long ticks() {
+        return ticks;
+    }
+
+    public float simulatedSeconds() {
+        return simulatedSeconds;
+    }
+
+    public long wallNanos() {
+        return wallNanos;
+    }
+
+    /**
+     * @return the rolling state hash after the last tick
+     */
+    public long stateHash() {
+        return stateHash;
+    }
+
+    public double realTimeFactor() {
+        return wallNanos == 0 ? Double.POSITIVE_INFINITY : simulatedSeconds / (wallNanos / 1e9);
+    }
+
+    public double meanTickNanos() {
+        return ticks == 0 ? 0 : Arrays.stream(sortedTickNanos).sum() / (double) ticks;
+    }
+
+    /**
+     * @param percentile - between 0.0 and 100.0
+     */
+    public long tickNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (ticks == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * ticks) - 1;
+        return sortedTickNanos[Math.max(0, index)];
+    }
+
+    public long maxTickNanos() {
+        return tickNanos(100);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "ticks: %d, simulated: %.1f s, wall: %.3f s, real time factor: %.1fx%n"
+                + "tick mean: %.1f us, p50: %.1f us, p99: %.1f us, max: %.1f us%n"
+                + "state hash: %016x",
+                ticks, simulatedSeconds, wallNanos / 1e9, realTimeFactor(),
+                meanTickNanos() / 1e3, tickNanos(50) / 1e3, tickNanos(99) / 1e3, maxTickNanos() / 1e3,
+                stateHash);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.jobs;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * A worker pool of its own for the simulation, so the game does not compete
+ * with everything else on the common pool. Work is split into chunks which the
+ * workers steal from each other. A workload not larger than its grain runs
+ * serially on the calling thread, as does everything when the pool has a
+ * single thread.
+ */
+public class JobSystem {
+
+    /* chunks per thread, so a slow chunk can be balanced by stealing the others */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static JobSystem shared;
+
+    public interface RangeTask {
+
+        void run(int from, int to);
+    }
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public JobSystem(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Job system needs at least one thread");
+        }
+        this.threads = threads;
+        this.pool = threads == 1 ? null : new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("SkyHussars-Worker-" + worker.getPoolIndex());
+            worker.setDaemon(true);
+            return worker;
+        }, null, false);
+    }
+
+    /**
+     * @return the job system of the game, sized by the skyhussars.jobs.threads
+     * property, by default one thread per core
+     */
+    public static synchronized JobSystem shared() {
+        if (shared == null) {
+            shared = new JobSystem(Integer.getInteger("skyhussars.jobs.threads",
+                    Runtime.getRuntime().availableProcessors()));
+        }
+        return shared;
+    }
+
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * Runs the body for every index below count and returns when all are done.
+     *
+     * @param grain - the smallest number of indices worth a task of its own
+     */
+    public void parallelFor(int count, int grain, IntConsumer body) {
+        parallelRange(count, grain, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                body.accept(i);
+            }
+        });
+    }
+
+    /**
+     * Runs the task over consecutive ranges covering every index below count.
+     */
+    public void parallelRange(int count, int grain, RangeTask task) {
+        if (count <= 0) {
+            return;
+        }
+        if (pool == null || count <= grain) {
+            task.run(0, count);
+            return;
+        }
+        int chunk = Math.max(Math.max(1, grain), (count + threads * CHUNKS_PER_THREAD - 1) / (threads * CHUNKS_PER_THREAD));
+        pool.invoke(new RangeAction(task, 0, count, chunk));
+    }
+
+    /**
+     * Runs the jobs at once and returns when all are done.
+     */
+    public void invokeAll(List<Runnable> jobs) {
+        if (pool == null || jobs.size() <= 1) {
+            jobs.forEach(Runnable::run);
+            return;
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[jobs.size()];
+                for (int i = 0; i < tasks.length; i++) {
+                    tasks[i] = ForkJoinTask.adapt(jobs.get(i));
+                }
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    private static class RangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        RangeAction(RangeTask task, int from, int to, int chunk) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunk) {
+                task.run(from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeAction(task, from, middle, chunk), new RangeAction(task, middle, to, chunk));
+            }
+        }
+    }
+}
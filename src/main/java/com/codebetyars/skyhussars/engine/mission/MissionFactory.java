@@ -87,8 +87,14 @@ public class MissionFactory {
 
     private List<Plane> planes(MissionDescriptor missionDescriptor) {
         List<Plane> planes = new ArrayList<>();
+        /* -Dskyhussars.seed together with -Dskyhussars.deterministic=true makes the simulation repeatable */
+        Long seed = Long.getLong("skyhussars.seed");
+        RandomStreams randomStreams = seed != null ? new RandomStreams(seed) : null;
         for (PlaneMissionDescriptor planeMission : missionDescriptor.planeMissionDescriptors()) {
             Plane plane = planeFactory.createPlane(planeMission.planeType());
+            if (randomStreams != null) {
+                plane.randomStreams(randomStreams.child(planes.size()));
+            }
             plane.setLocation(planeMission.startLocation());
             plane.planeMissinDescriptor(planeMission);
             plane.setThrottle(0.6f);
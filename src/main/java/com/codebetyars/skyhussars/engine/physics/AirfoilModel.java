@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * The constant part of an airfoil, compiled once and shared by every plane of
+ * the same type. The vector and quaternion returned by the getters are shared
+ * as well, they must not be modified.
+ */
+public class AirfoilModel {
+
+    private final String name;
+    private final AirfoilRole role;
+    private final Vector3f cog;
+    private final float cogLength;
+    private final float wingArea;
+    private final float aspectRatio;
+    private final Quaternion wingRotation;
+    private final float dampingX, dampingY, dampingZ;
+    private final AirfoilPolar polar;
+
+    public AirfoilModel(AirfoilDescriptor airfoilDescriptor) {
+        this(airfoilDescriptor.getName(), airfoilDescriptor.getCog(), airfoilDescriptor.getWingArea(),
+                airfoilDescriptor.getIncidence(), airfoilDescriptor.getAspectRatio(), airfoilDescriptor.isDamper(),
+                airfoilDescriptor.getDehidralDegree(), airfoilDescriptor.polar());
+    }
+
+    public AirfoilModel(String name, Vector3f cog, float wingArea, float incidence, float aspectRatio,
+            boolean damper, float dehidralDegree, AirfoilPolar polar) {
+        this.name = name;
+        this.role = AirfoilRole.of(name);
+        this.cog = new Vector3f(cog);
+        this.cogLength = cog.length();
+        this.wingArea = wingArea;
+        this.aspectRatio = aspectRatio;
+        /* incidence, then dihedral */
+        this.wingRotation = new Quaternion().fromAngles((-incidence) * FastMath.DEG_TO_RAD, 0, 0)
+                .multLocal(new Quaternion().fromAngleAxis(dehidralDegree * FastMath.DEG_TO_RAD, Vector3f.UNIT_Z));
+        this.polar = polar;
+        /* damping flow along the up vector is dampingX * wx + dampingY * wy + dampingZ * wz */
+        float rollDamping = !damper ? 0f : cog.x < 0 ? cogLength : -cogLength;
+        dampingX = role == AirfoilRole.HORIZONTAL_STABILIZER ? -2f * cogLength : 0f;
+        dampingY = role == AirfoilRole.VERTICAL_STABILIZER ? -cogLength : 0f;
+        dampingZ = rollDamping;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public AirfoilRole role() {
+        return role;
+    }
+
+    public Vector3f cog() {
+        return cog;
+    }
+
+    public float cogLength() {
+        return cogLength;
+    }
+
+    public float wingArea() {
+        return wingArea;
+    }
+
+    public float aspectRatio() {
+        return aspectRatio;
+    }
+
+    public Quaternion wingRotation() {
+        return wingRotation;
+    }
+
+    /**
+     * @return the speed of the flow along the up vector of the airfoil caused
+     * by the rotation of the plane
+     */
+    public float damping(float wx, float wy, float wz) {
+        return dampingX * wx + dampingY * wy + dampingZ * wz;
+    }
+
+    public AirfoilPolar polar() {
+        return polar;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.PolarDescriptor;
+import com.jme3.math.FastMath;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lift and profile drag coefficients of an airfoil, compiled into dense
+ * tables. The tables are sampled uniformly by the sine of the angle of attack,
+ * which the flight model gets from a single dot product, and optionally by
+ * Mach, so a lookup is an index calculation and a linear interpolation.
+ */
+public class AirfoilPolar {
+
+    private static final int SAMPLES = 1024;
+    private static final int MACH_SAMPLES = 16;
+
+    public static final AirfoilPolar DEFAULT = new AirfoilPolar(Collections.singletonList(defaultPolar()));
+
+    private final float[] lift;
+    private final float[] drag;
+    private final int machSamples;
+    private final float minMach;
+    private final float machStep;
+
+    private static PolarDescriptor defaultPolar() {
+        PolarDescriptor polar = new PolarDescriptor();
+        polar.setAngles(new float[]{0, 2, 4, 6, 8, 10, 15, 30});
+        polar.setLift(new float[]{0f, 0.246f, 0.475f, 0.68f, 0.775f, 0.795f, 0.82f, 0.8f});
+        return polar;
+    }
+
+    /**
+     * @param polars - polars of the airfoil at one or more Mach numbers
+     */
+    public AirfoilPolar(List<PolarDescriptor> polars) {
+        if (polars == null || polars.isEmpty()) {
+            throw new IllegalArgumentException("At least one polar is needed");
+        }
+        List<PolarDescriptor> sorted = new ArrayList<>(polars);
+        sorted.sort(Comparator.comparing(PolarDescriptor::getMach));
+        sorted.forEach(AirfoilPolar::validate);
+        machSamples = sorted.size() == 1 ? 1 : MACH_SAMPLES;
+        minMach = sorted.get(0).getMach();
+        float maxMach = sorted.get(sorted.size() - 1).getMach();
+        machStep = machSamples == 1 ? 1f : (maxMach - minMach) / (machSamples - 1);
+        if (machStep <= 0) {
+            throw new IllegalArgumentException("Polars must be given at different Mach numbers");
+        }
+        lift = new float[machSamples * (SAMPLES + 1)];
+        drag = new float[machSamples * (SAMPLES + 1)];
+        for (int row = 0; row < machSamples; row++) {
+            float mach = minMach + row * machStep;
+            for (int sample = 0; sample <= SAMPLES; sample++) {
+                float angle = FastMath.asin((float) sample / SAMPLES) * FastMath.RAD_TO_DEG;
+                lift[row * (SAMPLES + 1) + sample] = sample(sorted, mach, angle, true);
+                drag[row * (SAMPLES + 1) + sample] = sample(sorted, mach, angle, false);
+            }
+        }
+    }
+
+    private static void validate(PolarDescriptor polar) {
+        float[] angles = polar.getAngles();
+        if (angles == null || angles.length < 2 || polar.getLift() == null || polar.getLift().length != angles.length
+                || (polar.getDrag() != null && polar.getDrag().length != angles.length)) {
+            throw new IllegalArgumentException("Polar at Mach " + polar.getMach() + " needs at least two angles and a coefficient for each");
+        }
+        for (int i = 1; i < angles.length; i++) {
+            if (angles[i] <= angles[i - 1]) {
+                throw new IllegalArgumentException("Angles of the polar at Mach " + polar.getMach() + " must be increasing");
+            }
+        }
+    }
+
+    /* interpolates between the polars of the two closest Mach numbers */
+    private static float sample(List<PolarDescriptor> polars, float mach, float angle, boolean lift) {
+        int upper = 0;
+        while (upper < polars.size() - 1 && polars.get(upper).getMach() < mach) {
+            upper++;
+        }
+        int lower = Math.max(upper - 1, 0);
+        float upperValue = sample(polars.get(upper), angle, lift);
+        if (lower == upper) {
+            return upperValue;
+        }
+        float lowerMach = polars.get(lower).getMach();
+        float a = FastMath.clamp((mach - lowerMach) / (polars.get(upper).getMach() - lowerMach), 0f, 1f);
+        return sample(polars.get(lower), angle, lift) * (1f - a) + upperValue * a;
+    }
+
+    private static float sample(PolarDescriptor polar, float angle, boolean lift) {
+        float[] angles = polar.getAngles();
+        float[] coefficients = lift ? polar.getLift() : polar.getDrag();
+        if (coefficients == null) {
+            return 0f;
+        }
+        if (angle <= angles[0]) {
+            return coefficients[0];
+        }
+        for (int i = 1; i < angles.length; i++) {
+            if (angle < angles[i]) {
+                float a = (angle - angles[i - 1]) / (angles[i] - angles[i - 1]);
+                return coefficients[i] * a + coefficients[i - 1] * (1f - a);
+            }
+        }
+        /* stalled, the drag of the last angle is kept */
+        return lift ? 0f : coefficients[coefficients.length - 1];
+    }
+
+    /**
+     * @return true if the coefficients depend on the Mach number, otherwise
+     * the Mach parameter of the lookups is ignored
+     */
+    public boolean machDependent() {
+        return machSamples > 1;
+    }
+
+    /**
+     * @param sinAngleOfAttack - sine of the angle of attack, the sign is
+     * ignored
+     */
+    public float liftCoefficient(float sinAngleOfAttack, float mach) {
+        return lookup(lift, sinAngleOfAttack, mach);
+    }
+
+    public float dragCoefficient(float sinAngleOfAttack, float mach) {
+        return lookup(drag, sinAngleOfAttack, mach);
+    }
+
+    /**
+     * Lift coefficient of the lowest Mach number for an angle of attack in
+     * degrees, for callers outside the flight model.
+     */
+    public float liftCoefficient(float angleOfAttack) {
+        return lookup(lift, FastMath.sin(angleOfAttack * FastMath.DEG_TO_RAD), minMach);
+    }
+
+    private float lookup(float[] table, float sinAngleOfAttack, float mach) {
+        float position = Math.min(Math.abs(sinAngleOfAttack), 1f) * SAMPLES;
+        int sample = Math.min((int) position, SAMPLES - 1);
+        float a = position - sample;
+        if (machSamples == 1) {
+            return table[sample] + (table[sample + 1] - table[sample]) * a;
+        }
+        float machPosition = FastMath.clamp((mach - minMach) / machStep, 0f, machSamples - 1);
+        int row = Math.min((int) machPosition, machSamples - 2);
+        float b = machPosition - row;
+        int lower = row * (SAMPLES + 1) + sample;
+        int upper = lower + SAMPLES + 1;
+        float lowerValue = table[lower] + (table[lower + 1] - table[lower]) * a;
+        float upperValue = table[upper] + (table[upper + 1] - table[upper]) * a;
+        return lowerValue + (upperValue - lowerValue) * b;
+    }
+}
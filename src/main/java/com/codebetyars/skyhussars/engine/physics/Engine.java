@@ -53,16 +53,29 @@ public class Engine implements ThrustProducer, RigidBody {
         return vMaxThrust.mult(throttle).mult(engineStatus);
     }
 
+    @Override
+    public Vector3f getThrust(Vector3f store) {
+        return store.set(vMaxThrust).multLocal(throttle).multLocal(engineStatus);
+    }
+
     @Override
     public void setThrottle(float throttle) {
         this.throttle = throttle;
     }
     
+    public float getEngineStatus() {
+        return engineStatus;
+    }
+
     public void damage(float damage){
         engineStatus -= damage;
         if(engineStatus < 0){
             engineStatus = 0;
         }
     }
+
+    public void repair() {
+        engineStatus = 1.0f;
+    }
     
 }
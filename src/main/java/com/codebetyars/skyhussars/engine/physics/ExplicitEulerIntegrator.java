@@ -23,40 +23,24 @@
  * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
  * POSSIBILITY OF SUCH DAMAGE.
  */
-package com.codebetyars.skyhussars.engine.weapons;
+package com.codebetyars.skyhussars.engine.physics;
 
-import com.codebetyars.skyhussars.engine.plane.GunLocationDescriptor;
+import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 
-import java.util.LinkedList;
-import java.util.List;
+class ExplicitEulerIntegrator implements Integrator {
 
-public class Gun {
-    //M3 shoots 1200 bullets per minute -> 20 per second
-    //rate of fire is in second
-
-    private GunLocationDescriptor gunLocation;
-    private int ammo;
-
-    public Gun(GunLocationDescriptor gunLocation) {
-        this.gunLocation = gunLocation;
-        this.ammo = gunLocation.getRoundsMax();
-    }
-    /*bullets procuded since last update*/
-    private float bpslu = 0;
-
-    //refine it later on, it is not enough to pass velocity only
-    public List<Projectile> update(float tpf, boolean firing, Vector3f noseDirection,
-            Vector3f vPlaneVelocity, Vector3f vPlaneLocation) {
-        bpslu += gunLocation.getGunDescriptor().getRateOfFire() * tpf;
-        /*gunLocation.getGunDescriptor().getMuzzleVelocity();*/
-        List<Projectile> projectiles = new LinkedList<>();
-        while (bpslu-- > 1) {
-            Bullet bullet = new Bullet(Vector3f.ZERO, Vector3f.ZERO, null);
-            projectiles.add(bullet);
-            bpslu -= 1;
-        }
-        return projectiles;
+    private final Vector3f linearAcceleration = new Vector3f();
+    private final Vector3f angularAcceleration = new Vector3f();
+    private final Quaternion delta = new Quaternion();
 
+    @Override
+    public void step(Dynamics dynamics, Quaternion rotation, Vector3f translation,
+            Vector3f velocity, Vector3f angularVelocity, float dt) {
+        dynamics.accelerations(rotation, translation, velocity, angularVelocity, linearAcceleration, angularAcceleration);
+        translation.addLocal(velocity.x * dt, velocity.y * dt, velocity.z * dt);
+        rotation.multLocal(delta.fromAngles(angularVelocity.x * dt, angularVelocity.y * dt, angularVelocity.z * dt));
+        velocity.addLocal(linearAcceleration.x * dt, linearAcceleration.y * dt, linearAcceleration.z * dt);
+        angularVelocity.addLocal(angularAcceleration.x * dt, angularAcceleration.y * dt, angularAcceleration.z * dt);
     }
 }
@@ -0,0 +1,749 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.codebetyars.skyhussars.engine.telemetry.Metric;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
+import com.jme3.math.FastMath;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * FlightEngine is the flight model of the planes. The state of the planes is
+ * stored in primitive columns indexed by slot, the airfoils of all planes are
+ * packed into a second set of columns. Every slot is integrated with its own
+ * integration method and substepping at its own physics level, a plane is a
+ * view over its slot.
+ */
+public class FlightEngine {
+
+    /* the smallest number of planes worth a task on the job system */
+    private static final int PLANES_PER_TASK = 8;
+    private static final float planeFactor = 0.2566f; // cross section and drag coeff together
+
+    private final int capacity;
+    private int count = 0;
+
+    /* plane columns */
+    private final float[] px, py, pz;
+    private final float[] vx, vy, vz;
+    private final float[] wx, wy, wz;
+    private final float[] qx, qy, qz, qw;
+    private final float[] previousPx, previousPy, previousPz;
+    private final float[] previousQx, previousQy, previousQz, previousQw;
+    private final float[] thrust, aileron, elevator, rudder;
+    private final float[] mass, inverseIxx, inverseIyy, inverseIzz;
+    private final FlightModel[] flightModel;
+    /* air density and speed of sound at the altitude of each slot, sampled at the start of a step */
+    private final float[] airDensity;
+    private final float[] speedOfSound;
+    private final int[] airfoilStart, airfoilCount;
+    private final Slot[] slots;
+    private final IntegrationMethod[] integrationMethod;
+    private final Substepping[] substepping;
+    /* substeps of the last step of each slot */
+    private final int[] substeps;
+    private final int[] telemetrySource;
+    /* physics level of each slot, a point mass flies with its calibrated drag */
+    private final PhysicsLevel[] level;
+    private final float[] dragFactor;
+    private final int[] levelTicks;
+    /* a point mass is evaluated every pointMassRate ticks and only moved in between */
+    private volatile int pointMassRate = Integer.getInteger("skyhussars.physics.lod.rate", 4);
+    private final IntegrationMethod defaultIntegrationMethod = IntegrationMethod.valueOf(
+            System.getProperty("skyhussars.physics.integrator", IntegrationMethod.SEMI_IMPLICIT_EULER.name()));
+
+    /* airfoil columns */
+    private int airfoils = 0;
+    private float[] cogX, cogY, cogZ;
+    private float[] wingArea, aspectRatio;
+    private float[] rotX, rotY, rotZ, rotW;
+    private AirfoilRole[] role;
+    private AirfoilPolar[] polar;
+    private float[] dampingX, dampingY, dampingZ;
+    /* 1 for an intact airfoil, its lift is lost with it */
+    private float[] integrity;
+    private int[] airfoilTelemetrySource;
+
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+    private final Telemetry telemetry = Telemetry.shared();
+    /* the step in progress, read by the chunks of stepTask */
+    private float tpf;
+    private Environment environment;
+    private final JobSystem.RangeTask stepTask = this::step;
+
+    public FlightEngine(int capacity) {
+        this.capacity = capacity;
+        px = new float[capacity];
+        py = new float[capacity];
+        pz = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        vz = new float[capacity];
+        wx = new float[capacity];
+        wy = new float[capacity];
+        wz = new float[capacity];
+        qx = new float[capacity];
+        qy = new float[capacity];
+        qz = new float[capacity];
+        qw = new float[capacity];
+        previousPx = new float[capacity];
+        previousPy = new float[capacity];
+        previousPz = new float[capacity];
+        previousQx = new float[capacity];
+        previousQy = new float[capacity];
+        previousQz = new float[capacity];
+        previousQw = new float[capacity];
+        thrust = new float[capacity];
+        aileron = new float[capacity];
+        elevator = new float[capacity];
+        rudder = new float[capacity];
+        mass = new float[capacity];
+        inverseIxx = new float[capacity];
+        inverseIyy = new float[capacity];
+        inverseIzz = new float[capacity];
+        flightModel = new FlightModel[capacity];
+        airDensity = new float[capacity];
+        speedOfSound = new float[capacity];
+        airfoilStart = new int[capacity];
+        airfoilCount = new int[capacity];
+        slots = new Slot[capacity];
+        integrationMethod = new IntegrationMethod[capacity];
+        substepping = new Substepping[capacity];
+        substeps = new int[capacity];
+        telemetrySource = new int[capacity];
+        level = new PhysicsLevel[capacity];
+        dragFactor = new float[capacity];
+        levelTicks = new int[capacity];
+        allocateAirfoils(capacity * 4);
+    }
+
+    private void allocateAirfoils(int size) {
+        cogX = Arrays.copyOf(cogX == null ? new float[0] : cogX, size);
+        cogY = Arrays.copyOf(cogY == null ? new float[0] : cogY, size);
+        cogZ = Arrays.copyOf(cogZ == null ? new float[0] : cogZ, size);
+        wingArea = Arrays.copyOf(wingArea == null ? new float[0] : wingArea, size);
+        aspectRatio = Arrays.copyOf(aspectRatio == null ? new float[0] : aspectRatio, size);
+        rotX = Arrays.copyOf(rotX == null ? new float[0] : rotX, size);
+        rotY = Arrays.copyOf(rotY == null ? new float[0] : rotY, size);
+        rotZ = Arrays.copyOf(rotZ == null ? new float[0] : rotZ, size);
+        rotW = Arrays.copyOf(rotW == null ? new float[0] : rotW, size);
+        role = Arrays.copyOf(role == null ? new AirfoilRole[0] : role, size);
+        polar = Arrays.copyOf(polar == null ? new AirfoilPolar[0] : polar, size);
+        dampingX = Arrays.copyOf(dampingX == null ? new float[0] : dampingX, size);
+        dampingY = Arrays.copyOf(dampingY == null ? new float[0] : dampingY, size);
+        dampingZ = Arrays.copyOf(dampingZ == null ? new float[0] : dampingZ, size);
+        integrity = Arrays.copyOf(integrity == null ? new float[0] : integrity, size);
+        airfoilTelemetrySource = Arrays.copyOf(airfoilTelemetrySource == null ? new int[0] : airfoilTelemetrySource, size);
+    }
+
+    /**
+     * Registers a new plane with the compiled flight model of the descriptor.
+     */
+    public Slot register(PlaneDescriptor planeDescriptor, Vector3f location, Quaternion rotation, Vector3f velocity) {
+        return register(planeDescriptor.flightModel(), location, rotation, velocity);
+    }
+
+    /**
+     * Registers a new plane in the engine. Registration is not thread safe, it
+     * should happen before the first step.
+     *
+     * @return the view over the slot of the new plane
+     */
+    public Slot register(FlightModel flightModel, Vector3f location, Quaternion rotation, Vector3f velocity) {
+        if (count == capacity) {
+            throw new IllegalStateException("Flight engine is full, capacity: " + capacity);
+        }
+        int slot = count;
+        px[slot] = location.x;
+        py[slot] = location.y;
+        pz[slot] = location.z;
+        vx[slot] = velocity.x;
+        vy[slot] = velocity.y;
+        vz[slot] = velocity.z;
+        qx[slot] = rotation.getX();
+        qy[slot] = rotation.getY();
+        qz[slot] = rotation.getZ();
+        qw[slot] = rotation.getW();
+        storePrevious(slot);
+        level[slot] = PhysicsLevel.FULL;
+        dragFactor[slot] = PointMass.PARASITIC_DRAG_FACTOR;
+        integrationMethod[slot] = defaultIntegrationMethod;
+        substepping[slot] = Substepping.ADAPTIVE;
+        substeps[slot] = 1;
+        telemetrySource[slot] = -1;
+        this.flightModel[slot] = flightModel;
+        mass[slot] = flightModel.mass();
+        Matrix3f inverseInertia = flightModel.inverseMomentOfInertia();
+        inverseIxx[slot] = inverseInertia.get(0, 0);
+        inverseIyy[slot] = inverseInertia.get(1, 1);
+        inverseIzz[slot] = inverseInertia.get(2, 2);
+        List<AirfoilModel> airfoilModels = flightModel.airfoils();
+        airfoilStart[slot] = airfoils;
+        airfoilCount[slot] = airfoilModels.size();
+        if (airfoils + airfoilCount[slot] > cogX.length) {
+            allocateAirfoils(Math.max(cogX.length * 2, airfoils + airfoilCount[slot]));
+        }
+        for (int a = 0; a < airfoilModels.size(); a++) {
+            registerAirfoil(airfoils++, airfoilModels.get(a));
+        }
+        slots[slot] = new Slot(slot);
+        count++;
+        return slots[slot];
+    }
+
+    private void registerAirfoil(int airfoil, AirfoilModel airfoilModel) {
+        Vector3f cog = airfoilModel.cog();
+        cogX[airfoil] = cog.x;
+        cogY[airfoil] = cog.y;
+        cogZ[airfoil] = cog.z;
+        wingArea[airfoil] = airfoilModel.wingArea();
+        aspectRatio[airfoil] = airfoilModel.aspectRatio();
+        polar[airfoil] = airfoilModel.polar();
+        Quaternion wingRotation = airfoilModel.wingRotation();
+        rotX[airfoil] = wingRotation.getX();
+        rotY[airfoil] = wingRotation.getY();
+        rotZ[airfoil] = wingRotation.getZ();
+        rotW[airfoil] = wingRotation.getW();
+        role[airfoil] = airfoilModel.role();
+        dampingX[airfoil] = airfoilModel.damping(1f, 0f, 0f);
+        dampingY[airfoil] = airfoilModel.damping(0f, 1f, 0f);
+        dampingZ[airfoil] = airfoilModel.damping(0f, 0f, 1f);
+        integrity[airfoil] = 1f;
+        airfoilTelemetrySource[airfoil] = -1;
+    }
+
+    private void storePrevious(int i) {
+        previousPx[i] = px[i];
+        previousPy[i] = py[i];
+        previousPz[i] = pz[i];
+        previousQx[i] = qx[i];
+        previousQy[i] = qy[i];
+        previousQz[i] = qz[i];
+        previousQw[i] = qw[i];
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the view over a registered slot
+     */
+    public Slot slot(int index) {
+        if (index < 0 || index >= count) {
+            throw new IllegalArgumentException("No plane in slot " + index);
+        }
+        return slots[index];
+    }
+
+    public int pointMassRate() {
+        return pointMassRate;
+    }
+
+    public void pointMassRate(int pointMassRate) {
+        if (pointMassRate <= 0) {
+            throw new IllegalArgumentException("Point mass rate must be positive");
+        }
+        this.pointMassRate = pointMassRate;
+    }
+
+    /**
+     * Steps all registered planes, the slots are independent of each other so
+     * they are spread over the job system in chunks.
+     *
+     * @param jobs - null steps every plane on the calling thread, in slot
+     * order
+     */
+    public void step(float tpf, Environment environment, JobSystem jobs) {
+        for (int i = 0; i < count; i++) {
+            slots[i].applyPendingPlacement();
+        }
+        /* the air of every slot in one pass over the altitude column */
+        environment.atmosphere().sample(py, airDensity);
+        environment.atmosphere().sampleSpeedOfSound(py, speedOfSound);
+        this.tpf = tpf;
+        this.environment = environment;
+        if (jobs == null) {
+            step(0, count);
+        } else {
+            jobs.parallelRange(count, PLANES_PER_TASK, stepTask);
+        }
+    }
+
+    private void step(int from, int to) {
+        Scratch s = scratch.get();
+        for (int i = from; i < to; i++) {
+            storePrevious(i);
+            switch (level[i]) {
+                case FULL:
+                    updateFull(i, s);
+                    break;
+                case POINT_MASS:
+                    updatePointMass(i, s);
+                    break;
+                case BALLISTIC:
+                    updateBallistic(i, s);
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void updateFull(int i, Scratch s) {
+        Quaternion rotation = s.bodyRotation.set(qx[i], qy[i], qz[i], qw[i]);
+        Vector3f translation = s.bodyTranslation.set(px[i], py[i], pz[i]);
+        Vector3f velocity = s.bodyVelocity.set(vx[i], vy[i], vz[i]);
+        Vector3f angularVelocity = s.bodyAngularVelocity.set(wx[i], wy[i], wz[i]);
+        float dynamicPressure = 0.5f * airDensity[i] * velocity.lengthSquared();
+        int steps = substepping[i].substeps(tpf, angularVelocity.length(), dynamicPressure);
+        Integrator integrator = s.integrators[integrationMethod[i].ordinal()];
+        s.dynamics.slot = i;
+        float dt = tpf / steps;
+        for (int step = 0; step < steps; step++) {
+            integrator.step(s.dynamics, rotation, translation, velocity, angularVelocity, dt);
+        }
+        substeps[i] = steps;
+        if (telemetrySource[i] >= 0 && telemetry.sampling()) {
+            sample(i, rotation, velocity, s);
+        }
+        qx[i] = rotation.getX();
+        qy[i] = rotation.getY();
+        qz[i] = rotation.getZ();
+        qw[i] = rotation.getW();
+        px[i] = translation.x;
+        py[i] = translation.y;
+        pz[i] = translation.z;
+        vx[i] = velocity.x;
+        vy[i] = velocity.y;
+        vz[i] = velocity.z;
+        wx[i] = angularVelocity.x;
+        wy[i] = angularVelocity.y;
+        wz[i] = angularVelocity.z;
+    }
+
+    /* the velocity of the slot still holds the start of the step */
+    private void sample(int i, Quaternion rotation, Vector3f velocity, Scratch s) {
+        int source = telemetrySource[i];
+        Vector3f direction = s.temp.set(velocity).normalizeLocal();
+        float angleOfAttack = rotation.mult(Vector3f.UNIT_Z, s.up).angleBetween(direction) * FastMath.RAD_TO_DEG;
+        if (rotation.mult(Vector3f.UNIT_Y, s.up).dot(direction) > 0) {
+            angleOfAttack = -angleOfAttack;
+        }
+        Vector3f right = rotation.mult(Vector3f.UNIT_X, s.up).crossLocal(0, 0, -1);
+        telemetry.sample(source, Metric.ANGLE_OF_ATTACK, angleOfAttack);
+        telemetry.sample(source, Metric.ROLL, right.angleBetween(Vector3f.UNIT_Y) * FastMath.RAD_TO_DEG);
+        telemetry.sample(source, Metric.SUBSTEPS, substeps[i]);
+        telemetry.sample(source, Metric.LINEAR_ACCELERATION,
+                s.temp.set(velocity).subtractLocal(vx[i], vy[i], vz[i]).length() / tpf);
+    }
+
+    private void updatePointMass(int i, Scratch s) {
+        Vector3f gravity = environment.gravity();
+        if (levelTicks[i] == 0) {
+            /* one evaluation of the full model, so the point mass loses speed as the plane would */
+            Quaternion rotation = s.rotation.set(qx[i], qy[i], qz[i], qw[i]);
+            Vector3f velocity = s.velocity.set(vx[i], vy[i], vz[i]);
+            forces(i, rotation, velocity, s.angularVelocity.set(wx[i], wy[i], wz[i]), s);
+            Vector3f thrustForce = rotation.mult(s.thrust.set(0, 0, thrust[i]), s.thrust);
+            dragFactor[i] = PointMass.dragFactor(velocity, s.force.divideLocal(mass[i]), thrustForce,
+                    gravity, mass[i], airDensity[i]);
+            /* a point mass does not rotate on its own, it turns with its path */
+            wx[i] = 0;
+            wy[i] = 0;
+            wz[i] = 0;
+        }
+        int rate = pointMassRate;
+        if (levelTicks[i]++ % rate == 0) {
+            Quaternion rotation = s.rotation.set(qx[i], qy[i], qz[i], qw[i]);
+            Vector3f velocity = s.velocity.set(vx[i], vy[i], vz[i]);
+            s.pointMass.fly(rotation, velocity, thrust[i], gravity, mass[i], airDensity[i], dragFactor[i], tpf * rate);
+            qx[i] = rotation.getX();
+            qy[i] = rotation.getY();
+            qz[i] = rotation.getZ();
+            qw[i] = rotation.getW();
+            vx[i] = velocity.x;
+            vy[i] = velocity.y;
+            vz[i] = velocity.z;
+        }
+        translate(i);
+    }
+
+    private void updateBallistic(int i, Scratch s) {
+        Vector3f velocity = s.pointMass.fall(s.velocity.set(vx[i], vy[i], vz[i]), environment.gravity(),
+                mass[i], airDensity[i], tpf);
+        vx[i] = velocity.x;
+        vy[i] = velocity.y;
+        vz[i] = velocity.z;
+        Quaternion rotation = s.rotation.set(qx[i], qy[i], qz[i], qw[i])
+                .multLocal(s.delta.fromAngles(wx[i] * tpf, wy[i] * tpf, wz[i] * tpf));
+        qx[i] = rotation.getX();
+        qy[i] = rotation.getY();
+        qz[i] = rotation.getZ();
+        qw[i] = rotation.getW();
+        translate(i);
+    }
+
+    private void translate(int i) {
+        px[i] += vx[i] * tpf;
+        py[i] += vy[i] * tpf;
+        pz[i] += vz[i] * tpf;
+    }
+
+    /* total force in world space and torque in body space of the full model into the scratch */
+    private void forces(int i, Quaternion rotation, Vector3f velocity, Vector3f angularVelocity, Scratch s) {
+        float airDensity = this.airDensity[i];
+
+        Vector3f force = s.force.set(environment.gravity()).multLocal(mass[i]);
+        force.addLocal(rotation.mult(s.temp.set(0, 0, thrust[i]), s.temp));
+
+        Vector3f flow = s.flow.set(velocity).negateLocal();
+        Quaternion inverseRotation = s.inverseRotation.set(rotation).inverseLocal();
+        Vector3f torque = s.torque.set(0, 0, 0);
+        int end = airfoilStart[i] + airfoilCount[i];
+        for (int a = airfoilStart[i]; a < end; a++) {
+            Vector3f airfoilForce = airfoilForce(i, a, airDensity, rotation, flow, angularVelocity, s);
+            force.addLocal(airfoilForce);
+            inverseRotation.mult(airfoilForce, airfoilForce);
+            torque.addLocal(s.cog.set(cogX[a], cogY[a], cogZ[a]).cross(airfoilForce, s.temp));
+        }
+
+        float drag = airDensity * planeFactor * velocity.lengthSquared();
+        Vector3f dragDirection = s.temp.set(velocity).negateLocal().normalizeLocal();
+        force.addLocal(dragDirection.x * drag, dragDirection.y * drag, dragDirection.z * drag);
+    }
+
+    private Vector3f airfoilForce(int i, int a, float airDensity, Quaternion rotation, Vector3f flow,
+            Vector3f angularVelocity, Scratch s) {
+        float halfDeflection = deflection(i, a) * FastMath.DEG_TO_RAD * 0.5f;
+        s.deflection.set(FastMath.sin(halfDeflection), 0, 0, FastMath.cos(halfDeflection));
+        Quaternion foil = s.foil.set(rotation).multLocal(s.wingRotation.set(rotX[a], rotY[a], rotZ[a], rotW[a]))
+                .multLocal(s.deflection);
+        Vector3f up = foil.mult(Vector3f.UNIT_Y, s.up).normalizeLocal();
+
+        float damping = dampingX[a] * angularVelocity.x + dampingY[a] * angularVelocity.y
+                + dampingZ[a] * angularVelocity.z;
+        Vector3f dampedFlow = s.dampedFlow.set(flow).addLocal(up.x * damping, up.y * damping, up.z * damping);
+        Vector3f flowDirection = s.flowDirection.set(dampedFlow).normalizeLocal();
+
+        /* sine of the angle of attack, the tables of the polar are indexed by it */
+        float sinAngleOfAttack = up.dot(flowDirection);
+        float flowSquared = dampedFlow.lengthSquared();
+        AirfoilPolar airfoilPolar = polar[a];
+        float mach = airfoilPolar.machDependent() ? FastMath.sqrt(flowSquared) / speedOfSound[i] : 0f;
+        float dynamicPressure = 0.5f * airDensity * wingArea[a] * flowSquared;
+        float scLift = dynamicPressure * airfoilPolar.liftCoefficient(sinAngleOfAttack, mach) * integrity[a];
+        /* the lift is perpendicular to the flow, in the plane of the flow and the up vector of the airfoil */
+        Vector3f lift = s.lift.set(flowDirection).multLocal(-sinAngleOfAttack).addLocal(up).normalizeLocal();
+        if (sinAngleOfAttack < 0) {
+            lift.negateLocal();
+        }
+        lift.multLocal(scLift);
+
+        float dividened = 0.5f * airDensity * aspectRatio[a] * flowSquared * FastMath.PI * wingArea[a];
+        float scInducedDrag = dividened == 0 ? 0f : lift.lengthSquared() / dividened;
+        if (airfoilTelemetrySource[a] >= 0 && telemetry.sampling()) {
+            telemetry.sample(airfoilTelemetrySource[a], Metric.LIFT, FastMath.abs(scLift));
+            telemetry.sample(airfoilTelemetrySource[a], Metric.INDUCED_DRAG, scInducedDrag);
+        }
+        float scDrag = scInducedDrag + dynamicPressure * airfoilPolar.dragCoefficient(sinAngleOfAttack, mach);
+        return s.airfoilForce.set(flowDirection).multLocal(scDrag).addLocal(lift);
+    }
+
+    private float deflection(int i, int a) {
+        switch (role[a]) {
+            case WING_LEFT:
+                return aileron[i];
+            case WING_RIGHT:
+                return -aileron[i];
+            case HORIZONTAL_STABILIZER:
+                return elevator[i];
+            case VERTICAL_STABILIZER:
+                return rudder[i];
+            default:
+                return 0f;
+        }
+    }
+
+    /* the full model of one slot as the integrators see it */
+    private class SlotDynamics implements Dynamics {
+
+        private final Scratch s;
+        private int slot;
+
+        private SlotDynamics(Scratch s) {
+            this.s = s;
+        }
+
+        @Override
+        public void accelerations(Quaternion rotation, Vector3f translation, Vector3f velocity,
+                Vector3f angularVelocity, Vector3f linearStore, Vector3f angularStore) {
+            forces(slot, rotation, velocity, angularVelocity, s);
+            linearStore.set(s.force).divideLocal(mass[slot]);
+            angularStore.set(s.torque.x * inverseIxx[slot], s.torque.y * inverseIyy[slot],
+                    s.torque.z * inverseIzz[slot]);
+        }
+    }
+
+    /* per thread temporaries, so chunks can run in parallel without allocation */
+    private class Scratch {
+
+        /* the integrators keep state between their evaluations, so every thread has its own */
+        private final Integrator[] integrators = new Integrator[IntegrationMethod.values().length];
+        private final SlotDynamics dynamics = new SlotDynamics(this);
+        private final Quaternion bodyRotation = new Quaternion();
+        private final Vector3f bodyTranslation = new Vector3f();
+        private final Vector3f bodyVelocity = new Vector3f();
+        private final Vector3f bodyAngularVelocity = new Vector3f();
+        private final Quaternion rotation = new Quaternion();
+        private final Quaternion inverseRotation = new Quaternion();
+        private final Quaternion delta = new Quaternion();
+        private final Quaternion wingRotation = new Quaternion();
+        private final Quaternion deflection = new Quaternion();
+        private final Quaternion foil = new Quaternion();
+        private final Vector3f velocity = new Vector3f();
+        private final Vector3f angularVelocity = new Vector3f();
+        private final Vector3f force = new Vector3f();
+        private final Vector3f torque = new Vector3f();
+        private final Vector3f flow = new Vector3f();
+        private final Vector3f dampedFlow = new Vector3f();
+        private final Vector3f flowDirection = new Vector3f();
+        private final Vector3f up = new Vector3f();
+        private final Vector3f lift = new Vector3f();
+        private final Vector3f cog = new Vector3f();
+        private final Vector3f airfoilForce = new Vector3f();
+        private final Vector3f temp = new Vector3f();
+        private final Vector3f thrust = new Vector3f();
+        private final PointMass pointMass = new PointMass();
+
+        private Scratch() {
+            for (IntegrationMethod method : IntegrationMethod.values()) {
+                integrators[method.ordinal()] = method.create();
+            }
+        }
+    }
+
+    /**
+     * A thin view over one slot of the engine, the flight model itself is
+     * stepped by FlightEngine.step. Should be used from the simulation thread
+     * unless noted otherwise.
+     */
+    public class Slot implements PlanePhysics {
+
+        private final int index;
+        private final Quaternion forwardRotation = new Quaternion();
+        private final Vector3f forward = new Vector3f();
+        private final AtomicReference<Vector3f> pendingTranslation = new AtomicReference<>();
+
+        private Slot(int index) {
+            this.index = index;
+        }
+
+        public int index() {
+            return index;
+        }
+
+        /**
+         * Registers the plane of this slot in another engine with all of its
+         * state, this slot should not be used afterwards.
+         *
+         * @return the view over the slot of the plane in the other engine
+         */
+        public Slot moveTo(FlightEngine flightEngine) {
+            applyPendingPlacement();
+            Slot slot = flightEngine.register(flightModel[index], Vector3f.ZERO, Quaternion.IDENTITY, Vector3f.ZERO);
+            slot.adopt(FlightEngine.this, index);
+            return slot;
+        }
+
+        private void adopt(FlightEngine source, int from) {
+            px[index] = source.px[from];
+            py[index] = source.py[from];
+            pz[index] = source.pz[from];
+            vx[index] = source.vx[from];
+            vy[index] = source.vy[from];
+            vz[index] = source.vz[from];
+            wx[index] = source.wx[from];
+            wy[index] = source.wy[from];
+            wz[index] = source.wz[from];
+            qx[index] = source.qx[from];
+            qy[index] = source.qy[from];
+            qz[index] = source.qz[from];
+            qw[index] = source.qw[from];
+            previousPx[index] = source.previousPx[from];
+            previousPy[index] = source.previousPy[from];
+            previousPz[index] = source.previousPz[from];
+            previousQx[index] = source.previousQx[from];
+            previousQy[index] = source.previousQy[from];
+            previousQz[index] = source.previousQz[from];
+            previousQw[index] = source.previousQw[from];
+            thrust[index] = source.thrust[from];
+            aileron[index] = source.aileron[from];
+            elevator[index] = source.elevator[from];
+            rudder[index] = source.rudder[from];
+            integrationMethod[index] = source.integrationMethod[from];
+            substepping[index] = source.substepping[from];
+            substeps[index] = source.substeps[from];
+            telemetrySource[index] = source.telemetrySource[from];
+            level[index] = source.level[from];
+            dragFactor[index] = source.dragFactor[from];
+            levelTicks[index] = source.levelTicks[from];
+            for (int a = 0; a < airfoilCount[index]; a++) {
+                integrity[airfoilStart[index] + a] = source.integrity[source.airfoilStart[from] + a];
+                airfoilTelemetrySource[airfoilStart[index] + a] = source.airfoilTelemetrySource[source.airfoilStart[from] + a];
+            }
+        }
+
+        @Override
+        public void writeSnapshot(FlightSnapshot snapshot, int snapshotIndex) {
+            /* a plane placed before the first step is written where it was placed */
+            applyPendingPlacement();
+            snapshot.write(snapshotIndex, previousPx[index], previousPy[index], previousPz[index],
+                    previousQx[index], previousQy[index], previousQz[index], previousQw[index],
+                    px[index], py[index], pz[index], qx[index], qy[index], qz[index], qw[index],
+                    vx[index], vy[index], vz[index]);
+        }
+
+        @Override
+        public void setTranslation(Vector3f translation) {
+            pendingTranslation.set(new Vector3f(translation));
+        }
+
+        @Override
+        public PhysicsLevel physicsLevel() {
+            return level[index];
+        }
+
+        @Override
+        public void physicsLevel(PhysicsLevel level) {
+            if (FlightEngine.this.level[index] == level) {
+                return;
+            }
+            FlightEngine.this.level[index] = level;
+            levelTicks[index] = 0;
+        }
+
+        private void applyPendingPlacement() {
+            Vector3f translation = pendingTranslation.getAndSet(null);
+            if (translation != null) {
+                px[index] = translation.x;
+                py[index] = translation.y;
+                pz[index] = translation.z;
+                previousPx[index] = translation.x;
+                previousPy[index] = translation.y;
+                previousPz[index] = translation.z;
+            }
+        }
+
+        public IntegrationMethod integrationMethod() {
+            return integrationMethod[index];
+        }
+
+        public void integrationMethod(IntegrationMethod integrationMethod) {
+            FlightEngine.this.integrationMethod[index] = integrationMethod;
+        }
+
+        public Substepping substepping() {
+            return substepping[index];
+        }
+
+        public void substepping(Substepping substepping) {
+            FlightEngine.this.substepping[index] = substepping;
+        }
+
+        /**
+         * @return the number of substeps the last step was divided into
+         */
+        public int substeps() {
+            return substeps[index];
+        }
+
+        public void telemetrySource(int telemetrySource) {
+            FlightEngine.this.telemetrySource[index] = telemetrySource;
+        }
+
+        /**
+         * @param airfoil - index of the airfoil in the flight model
+         */
+        public void airfoilTelemetrySource(int airfoil, int telemetrySource) {
+            airfoilTelemetrySource[airfoilStart[index] + airfoil] = telemetrySource;
+        }
+
+        /* all controls are in degrees of deflection, thrust is in newtons */
+        public void thrust(float thrust) {
+            FlightEngine.this.thrust[index] = thrust;
+        }
+
+        public void aileron(float aileron) {
+            FlightEngine.this.aileron[index] = aileron;
+        }
+
+        public void elevator(float elevator) {
+            FlightEngine.this.elevator[index] = elevator;
+        }
+
+        public void rudder(float rudder) {
+            FlightEngine.this.rudder[index] = rudder;
+        }
+
+        /**
+         * @param airfoil - index of the airfoil in the flight model
+         */
+        public float airfoilIntegrity(int airfoil) {
+            return integrity[airfoilStart[index] + airfoil];
+        }
+
+        /**
+         * @param airfoil - index of the airfoil in the flight model
+         */
+        public void airfoilIntegrity(int airfoil, float integrity) {
+            FlightEngine.this.integrity[airfoilStart[index] + airfoil] = integrity;
+        }
+
+        @Override
+        public void setSpeedForward(float kmh) {
+            Vector3f velocity = forwardRotation.set(qx[index], qy[index], qz[index], qw[index])
+                    .mult(Vector3f.UNIT_Z, forward).normalizeLocal().multLocal(kmh / 3.6f);
+            vx[index] = velocity.x;
+            vy[index] = velocity.y;
+            vz[index] = velocity.z;
+        }
+
+        @Override
+        public Vector3f velocity(Vector3f store) {
+            return store.set(vx[index], vy[index], vz[index]);
+        }
+    }
+}
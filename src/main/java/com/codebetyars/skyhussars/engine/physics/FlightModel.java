@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Matrix3f;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A plane type compiled for the flight model: everything that is constant for
+ * the type, calculated once and shared by every plane of the type. Only
+ * controls and the state of the flight belong to the single plane.
+ */
+public class FlightModel {
+
+    private final static float length = 10.49f;
+    private final static float rPlane = 1.3f;
+
+    private final String name;
+    private final float mass;
+    private final Matrix3f momentOfInertia;
+    private final Matrix3f inverseMomentOfInertia;
+    private final List<AirfoilModel> airfoils;
+
+    public FlightModel(PlaneDescriptor planeDescriptor) {
+        this.name = planeDescriptor.getName();
+        this.mass = planeDescriptor.getMassGross();
+        this.momentOfInertia = momentOfInertiaTensor(mass);
+        this.inverseMomentOfInertia = momentOfInertia.invert();
+        List<AirfoilModel> compiled = new ArrayList<>();
+        for (AirfoilDescriptor airfoilDescriptor : planeDescriptor.getAirfolDescriptors()) {
+            compiled.add(new AirfoilModel(airfoilDescriptor));
+        }
+        this.airfoils = Collections.unmodifiableList(compiled);
+    }
+
+    /* the plane is approximated as a solid cylinder */
+    static Matrix3f momentOfInertiaTensor(float mass) {
+        return new Matrix3f((mass / 12) * (3 * rPlane * rPlane + length * length), 0f, 0f,
+                0f, (mass / 12) * (3 * rPlane * rPlane + length * length), 0f,
+                0f, 0f, (mass / 2) * (rPlane * rPlane));
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public float mass() {
+        return mass;
+    }
+
+    /**
+     * @return shared, must not be modified
+     */
+    public Matrix3f momentOfInertia() {
+        return momentOfInertia;
+    }
+
+    /**
+     * @return shared, must not be modified
+     */
+    public Matrix3f inverseMomentOfInertia() {
+        return inverseMomentOfInertia;
+    }
+
+    public List<AirfoilModel> airfoils() {
+        return airfoils;
+    }
+}
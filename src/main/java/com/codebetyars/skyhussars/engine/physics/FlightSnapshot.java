@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.StateHash;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+
+/**
+ * The published state of every plane after a simulation tick: the pose of the
+ * previous and the current tick for interpolation, the velocity and the
+ * derived flight state. Planes are addressed by their index in the mission.
+ */
+public class FlightSnapshot {
+
+    private long tick = -1;
+    /* System.nanoTime moment the state belongs to */
+    private long nanos;
+    private final float[] px, py, pz;
+    private final float[] qx, qy, qz, qw;
+    private final float[] previousPx, previousPy, previousPz;
+    private final float[] previousQx, previousQy, previousQz, previousQw;
+    private final float[] vx, vy, vz;
+    private final FlightState[] flightStates;
+
+    /* only used by the reader */
+    private final Quaternion rotation = new Quaternion();
+    private final Quaternion previousRotation = new Quaternion();
+    private final Vector3f translation = new Vector3f();
+    private final Vector3f previousTranslation = new Vector3f();
+
+    public FlightSnapshot(int capacity) {
+        px = new float[capacity];
+        py = new float[capacity];
+        pz = new float[capacity];
+        qx = new float[capacity];
+        qy = new float[capacity];
+        qz = new float[capacity];
+        qw = new float[capacity];
+        previousPx = new float[capacity];
+        previousPy = new float[capacity];
+        previousPz = new float[capacity];
+        previousQx = new float[capacity];
+        previousQy = new float[capacity];
+        previousQz = new float[capacity];
+        previousQw = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        vz = new float[capacity];
+        flightStates = new FlightState[capacity];
+        for (int i = 0; i < capacity; i++) {
+            flightStates[i] = new FlightState();
+        }
+    }
+
+    public int capacity() {
+        return px.length;
+    }
+
+    public long tick() {
+        return tick;
+    }
+
+    public void tick(long tick) {
+        this.tick = tick;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    public void nanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return true if the snapshot was written by the simulation at least once
+     */
+    public boolean published() {
+        return tick >= 0;
+    }
+
+    public void write(int index, Vector3f previousTranslation, Quaternion previousRotation,
+            Vector3f translation, Quaternion rotation, Vector3f velocity) {
+        write(index, previousTranslation.x, previousTranslation.y, previousTranslation.z,
+                previousRotation.getX(), previousRotation.getY(), previousRotation.getZ(), previousRotation.getW(),
+                translation.x, translation.y, translation.z,
+                rotation.getX(), rotation.getY(), rotation.getZ(), rotation.getW(),
+                velocity.x, velocity.y, velocity.z);
+    }
+
+    public void write(int index, float ppx, float ppy, float ppz, float pqx, float pqy, float pqz, float pqw,
+            float px, float py, float pz, float qx, float qy, float qz, float qw,
+            float vx, float vy, float vz) {
+        previousPx[index] = ppx;
+        previousPy[index] = ppy;
+        previousPz[index] = ppz;
+        previousQx[index] = pqx;
+        previousQy[index] = pqy;
+        previousQz[index] = pqz;
+        previousQw[index] = pqw;
+        this.px[index] = px;
+        this.py[index] = py;
+        this.pz[index] = pz;
+        this.qx[index] = qx;
+        this.qy[index] = qy;
+        this.qz[index] = qz;
+        this.qw[index] = qw;
+        this.vx[index] = vx;
+        this.vy[index] = vy;
+        this.vz[index] = vz;
+    }
+
+    /**
+     * Moves the node to the interpolated pose of the plane.
+     *
+     * @param alpha - 0.0f is the previous tick, 1.0f is the current tick
+     */
+    public void applyTo(int index, Node node, float alpha) {
+        previousRotation.set(previousQx[index], previousQy[index], previousQz[index], previousQw[index]);
+        rotation.set(qx[index], qy[index], qz[index], qw[index]);
+        previousTranslation.set(previousPx[index], previousPy[index], previousPz[index]);
+        translation.set(px[index], py[index], pz[index]);
+        rotation.slerp(previousRotation, rotation, alpha);
+        translation.interpolateLocal(previousTranslation, translation, alpha);
+        node.setLocalRotation(rotation);
+        node.setLocalTranslation(translation);
+    }
+
+    /**
+     * Adds the current pose and velocity of every plane to the hash.
+     */
+    public void hashState(StateHash hash) {
+        hash.add(tick);
+        for (int i = 0; i < px.length; i++) {
+            hash.add(px[i]).add(py[i]).add(pz[i])
+                    .add(qx[i]).add(qy[i]).add(qz[i]).add(qw[i])
+                    .add(vx[i]).add(vy[i]).add(vz[i]);
+        }
+    }
+
+    public Vector3f translation(int index, Vector3f store) {
+        return store.set(px[index], py[index], pz[index]);
+    }
+
+    public Quaternion rotation(int index, Quaternion store) {
+        return store.set(qx[index], qy[index], qz[index], qw[index]);
+    }
+
+    public Vector3f velocity(int index, Vector3f store) {
+        return store.set(vx[index], vy[index], vz[index]);
+    }
+
+    /**
+     * @return the flight state of the plane, copied into the snapshot by the
+     * simulation thread
+     */
+    public FlightState flightState(int index) {
+        return flightStates[index];
+    }
+}
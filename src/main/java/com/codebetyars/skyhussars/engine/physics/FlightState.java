@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * The flight values derived from the pose of a plane, computed once per tick
+ * on the simulation thread so the AI, the instruments and the HUD don't
+ * recompute them. Angles are in degrees, lengths in meters.
+ */
+public class FlightState {
+
+    private float roll;
+    private float pitch;
+    private float heading;
+    private float angleOfAttack;
+    private float altitude;
+    private float heightAboveGround;
+    private float speed;
+    private float mach;
+    private float gLoad = 1f;
+
+    /* velocity of the previous update, for the acceleration */
+    private float previousVx, previousVy, previousVz;
+    private boolean initialized;
+
+    private final Vector3f forward = new Vector3f();
+    private final Vector3f up = new Vector3f();
+
+    /**
+     * @param ground - height of the terrain under the plane
+     * @param dt - time since the previous update, the g-load is only known
+     * from the second update
+     */
+    public FlightState update(Vector3f translation, Quaternion rotation, Vector3f velocity,
+            float ground, Environment environment, float dt) {
+        rotation.mult(Vector3f.UNIT_Z, forward);
+        rotation.mult(Vector3f.UNIT_Y, up);
+        int side = forward.cross(Vector3f.UNIT_Y).dot(up) > 0 ? 1 : -1;
+        roll = side * up.angleBetween(Vector3f.UNIT_Y) * FastMath.RAD_TO_DEG;
+        pitch = FastMath.asin(FastMath.clamp(forward.y, -1f, 1f)) * FastMath.RAD_TO_DEG;
+        heading = FastMath.atan2(forward.x, forward.z) * FastMath.RAD_TO_DEG;
+        if (heading < 0) {
+            heading += 360f;
+        }
+        altitude = translation.y;
+        heightAboveGround = altitude - ground;
+        speed = velocity.length();
+        mach = speed / environment.speedOfSound(altitude);
+        if (speed > 0) {
+            float aoa = FastMath.acos(FastMath.clamp(forward.dot(velocity) / speed, -1f, 1f)) * FastMath.RAD_TO_DEG;
+            angleOfAttack = up.dot(velocity) > 0 ? -aoa : aoa;
+        } else {
+            angleOfAttack = 0;
+        }
+        if (initialized && dt > 0) {
+            Vector3f gravity = environment.gravity();
+            float ax = (velocity.x - previousVx) / dt - gravity.x;
+            float ay = (velocity.y - previousVy) / dt - gravity.y;
+            float az = (velocity.z - previousVz) / dt - gravity.z;
+            gLoad = (ax * up.x + ay * up.y + az * up.z) / gravity.length();
+        }
+        previousVx = velocity.x;
+        previousVy = velocity.y;
+        previousVz = velocity.z;
+        initialized = true;
+        return this;
+    }
+
+    /**
+     * Copies the values of the other state, the history used for the g-load
+     * is copied too.
+     */
+    public FlightState set(FlightState other) {
+        roll = other.roll;
+        pitch = other.pitch;
+        heading = other.heading;
+        angleOfAttack = other.angleOfAttack;
+        altitude = other.altitude;
+        heightAboveGround = other.heightAboveGround;
+        speed = other.speed;
+        mach = other.mach;
+        gLoad = other.gLoad;
+        previousVx = other.previousVx;
+        previousVy = other.previousVy;
+        previousVz = other.previousVz;
+        initialized = other.initialized;
+        return this;
+    }
+
+    /**
+     * @return the angle of the up vector from the vertical, negative when
+     * banked to the left
+     */
+    public float roll() {
+        return roll;
+    }
+
+    public float pitch() {
+        return pitch;
+    }
+
+    /**
+     * @return between 0 and 360, 0 is the z axis
+     */
+    public float heading() {
+        return heading;
+    }
+
+    public float angleOfAttack() {
+        return angleOfAttack;
+    }
+
+    public float altitude() {
+        return altitude;
+    }
+
+    public float heightAboveGround() {
+        return heightAboveGround;
+    }
+
+    /**
+     * @return in meters per second
+     */
+    public float speed() {
+        return speed;
+    }
+
+    public float speedKmH() {
+        return speed * 3.6f;
+    }
+
+    public float mach() {
+        return mach;
+    }
+
+    /**
+     * @return the load factor along the up axis of the plane, 1 in level
+     * flight
+     */
+    public float gLoad() {
+        return gLoad;
+    }
+}
@@ -30,5 +30,5 @@ import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 
 public interface LiftProducer {
-        public Vector3f calculateResultantForce(float airDensity, Vector3f vVelocity, Quaternion situation, Vector3f angularVelocity);
+        public Vector3f calculateResultantForce(float airDensity, float speedOfSound, Vector3f vVelocity, Quaternion situation, Vector3f angularVelocity);
 }
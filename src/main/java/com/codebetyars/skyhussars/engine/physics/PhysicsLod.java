@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+/**
+ * Chooses the physics level of a plane. Planes close to the focus, usually
+ * the player, get the full flight model, distant ones a point mass. The two
+ * distances are apart, so a plane near the boundary does not switch back and
+ * forth every tick.
+ */
+public class PhysicsLod {
+
+    private final float nearSquared;
+    private final float farSquared;
+
+    /**
+     * @param near - meters, a point mass closer than this goes back to the full
+     * model
+     * @param far - meters, a fully simulated plane further than this becomes a
+     * point mass
+     */
+    public PhysicsLod(float near, float far) {
+        if (near <= 0 || far < near) {
+            throw new IllegalArgumentException("Near must be positive and far must not be closer than near");
+        }
+        this.nearSquared = near * near;
+        this.farSquared = far * far;
+    }
+
+    /**
+     * @return the distances from the skyhussars.physics.lod.near and
+     * skyhussars.physics.lod.far properties, or null if
+     * skyhussars.physics.lod is false
+     */
+    public static PhysicsLod fromSystemProperties() {
+        if (!Boolean.parseBoolean(System.getProperty("skyhussars.physics.lod", "true"))) {
+            return null;
+        }
+        return new PhysicsLod(Float.parseFloat(System.getProperty("skyhussars.physics.lod.near", "8000")),
+                Float.parseFloat(System.getProperty("skyhussars.physics.lod.far", "10000")));
+    }
+
+    public PhysicsLevel level(PhysicsLevel current, boolean crashed, boolean shotdown, float distanceSquared) {
+        if (crashed) {
+            return PhysicsLevel.ASLEEP;
+        }
+        if (shotdown) {
+            return PhysicsLevel.BALLISTIC;
+        }
+        if (current == PhysicsLevel.POINT_MASS) {
+            return distanceSquared < nearSquared ? PhysicsLevel.FULL : PhysicsLevel.POINT_MASS;
+        }
+        return distanceSquared > farSquared ? PhysicsLevel.POINT_MASS : PhysicsLevel.FULL;
+    }
+}
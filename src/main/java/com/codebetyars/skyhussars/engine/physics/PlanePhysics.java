@@ -26,14 +26,16 @@
 
 package com.codebetyars.skyhussars.engine.physics;
 
-import com.codebetyars.skyhussars.engine.physics.environment.Environment;
 import com.jme3.math.Vector3f;
-import com.jme3.scene.Spatial;
 
 public interface PlanePhysics {
-    public void update(float tpf,Environment environment);
-    public String getInfo();
-    public void setSpeedForward(Spatial model,float kmh);
-    public Vector3f getVVelovity();
-    public String getSpeedKmH();
+    public void writeSnapshot(FlightSnapshot snapshot, int index);
+    /* can be called from any thread, takes effect at the start of the next step */
+    public void setTranslation(Vector3f translation);
+    /* should be called from the simulation thread, takes effect with the next step */
+    public void physicsLevel(PhysicsLevel level);
+    public PhysicsLevel physicsLevel();
+    /* along the nose of the plane, should be called from the simulation thread */
+    public void setSpeedForward(float kmh);
+    public Vector3f velocity(Vector3f store);
 }
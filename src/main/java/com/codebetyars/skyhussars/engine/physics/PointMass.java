@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * The cheap flight model of distant and shot down planes. A flying point mass
+ * keeps its climb angle: lift along the up of the plane cancels the gravity
+ * across the path, so a banked plane turns. Thrust and drag act along the path,
+ * the drag factor is calibrated against the full model when the plane switches
+ * over, so its speed and altitude carry on where the full model left them.
+ */
+public class PointMass {
+
+    /* same as the parasitic drag of the full model */
+    public static final float PARASITIC_DRAG_FACTOR = 0.2566f;
+    private static final float MAX_LOAD_FACTOR = 6f;
+    private static final float MIN_SPEED = 1f;
+
+    private final Vector3f direction = new Vector3f();
+    private final Vector3f gravityAcross = new Vector3f();
+    private final Vector3f up = new Vector3f();
+    private final Vector3f nose = new Vector3f();
+    private final Quaternion turn = new Quaternion();
+
+    /**
+     * @param acceleration - linear acceleration of the full model
+     * @param thrust - N, in world frame
+     * @return the drag factor which gives the point mass the same acceleration
+     * along the path as the full model
+     */
+    public static float dragFactor(Vector3f velocity, Vector3f acceleration, Vector3f thrust, Vector3f gravity,
+            float mass, float airDensity) {
+        float speedSquared = velocity.lengthSquared();
+        if (speedSquared < MIN_SPEED * MIN_SPEED || airDensity <= 0) {
+            return PARASITIC_DRAG_FACTOR;
+        }
+        float deceleration = (thrust.dot(velocity) / mass + gravity.dot(velocity) - acceleration.dot(velocity))
+                / FastMath.sqrt(speedSquared);
+        return Math.max(PARASITIC_DRAG_FACTOR, deceleration * mass / (airDensity * speedSquared));
+    }
+
+    /**
+     * Updates the velocity and turns the plane with its path. The position is
+     * left to the caller.
+     *
+     * @param thrust - N, along the nose
+     */
+    public void fly(Quaternion rotation, Vector3f velocity, float thrust, Vector3f gravity, float mass,
+            float airDensity, float dragFactor, float dt) {
+        float speed = velocity.length();
+        if (speed < MIN_SPEED) {
+            fall(velocity, gravity, mass, airDensity, dt);
+            return;
+        }
+        direction.set(velocity).divideLocal(speed);
+        float gravityAlong = gravity.dot(direction);
+        gravityAcross.set(direction).multLocal(-gravityAlong).addLocal(gravity);
+        float needed = gravityAcross.length();
+        rotation.mult(Vector3f.UNIT_Y, up);
+        float upAlong = up.dot(direction);
+        up.subtractLocal(direction.x * upAlong, direction.y * upAlong, direction.z * upAlong);
+        float lift = 0f;
+        if (up.lengthSquared() > FastMath.ZERO_TOLERANCE && needed > FastMath.ZERO_TOLERANCE) {
+            up.normalizeLocal();
+            float cosBank = -up.dot(gravityAcross) / needed;
+            lift = Math.min(needed / Math.max(cosBank, 1f / MAX_LOAD_FACTOR), MAX_LOAD_FACTOR * gravity.length());
+        }
+        float along = thrust * rotation.mult(Vector3f.UNIT_Z, nose).dot(direction) / mass
+                - dragFactor * airDensity * speed * speed / mass;
+        velocity.addLocal(gravity.x * dt, gravity.y * dt, gravity.z * dt)
+                .addLocal(up.x * lift * dt, up.y * lift * dt, up.z * lift * dt)
+                .addLocal(direction.x * along * dt, direction.y * along * dt, direction.z * along * dt);
+        /* the shortest arc from the old to the new direction of the path */
+        float newSpeed = velocity.length();
+        if (newSpeed > FastMath.ZERO_TOLERANCE) {
+            nose.set(velocity).divideLocal(newSpeed);
+            float dot = direction.dot(nose);
+            if (dot > -1f + FastMath.ZERO_TOLERANCE) {
+                direction.crossLocal(nose);
+                turn.set(direction.x, direction.y, direction.z, 1f + dot).normalizeLocal();
+                rotation.set(turn.multLocal(rotation)).normalizeLocal();
+            }
+        }
+    }
+
+    /**
+     * Updates the velocity of a plane without lift and thrust.
+     */
+    public Vector3f fall(Vector3f velocity, Vector3f gravity, float mass, float airDensity, float dt) {
+        velocity.addLocal(gravity.x * dt, gravity.y * dt, gravity.z * dt);
+        float speed = velocity.length();
+        if (speed > FastMath.ZERO_TOLERANCE) {
+            /* the drag can not reverse the velocity in one step */
+            float drop = Math.min(PARASITIC_DRAG_FACTOR * airDensity * speed * speed / mass * dt, speed);
+            velocity.multLocal(1f - drop / speed);
+        }
+        return velocity;
+    }
+}
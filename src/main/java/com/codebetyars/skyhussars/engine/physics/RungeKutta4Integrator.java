@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+/**
+ * Fourth order Runge-Kutta. The rotation of the intermediate stages and of
+ * the final step is advanced with the body space angular velocity, the same
+ * way as the Euler integrators do.
+ */
+class RungeKutta4Integrator implements Integrator {
+
+    private final Vector3f[] velocities = vectors(4);
+    private final Vector3f[] angularVelocities = vectors(4);
+    private final Vector3f[] linearAccelerations = vectors(4);
+    private final Vector3f[] angularAccelerations = vectors(4);
+    private final Quaternion stageRotation = new Quaternion();
+    private final Vector3f stageTranslation = new Vector3f();
+    private final Vector3f sum = new Vector3f();
+    private final Quaternion delta = new Quaternion();
+
+    private static Vector3f[] vectors(int count) {
+        Vector3f[] vectors = new Vector3f[count];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = new Vector3f();
+        }
+        return vectors;
+    }
+
+    @Override
+    public void step(Dynamics dynamics, Quaternion rotation, Vector3f translation,
+            Vector3f velocity, Vector3f angularVelocity, float dt) {
+        velocities[0].set(velocity);
+        angularVelocities[0].set(angularVelocity);
+        dynamics.accelerations(rotation, translation, velocity, angularVelocity,
+                linearAccelerations[0], angularAccelerations[0]);
+        stage(1, dynamics, rotation, translation, velocity, angularVelocity, dt / 2);
+        stage(2, dynamics, rotation, translation, velocity, angularVelocity, dt / 2);
+        stage(3, dynamics, rotation, translation, velocity, angularVelocity, dt);
+        translation.addLocal(weighted(velocities, dt));
+        velocity.addLocal(weighted(linearAccelerations, dt));
+        Vector3f turn = weighted(angularVelocities, dt);
+        rotation.multLocal(delta.fromAngles(turn.x, turn.y, turn.z));
+        angularVelocity.addLocal(weighted(angularAccelerations, dt));
+    }
+
+    /* evaluates the flight model at the state reached with the derivatives of the previous stage */
+    private void stage(int k, Dynamics dynamics, Quaternion rotation, Vector3f translation,
+            Vector3f velocity, Vector3f angularVelocity, float h) {
+        Vector3f previousVelocity = velocities[k - 1];
+        Vector3f previousAngularVelocity = angularVelocities[k - 1];
+        stageTranslation.set(previousVelocity).multLocal(h).addLocal(translation);
+        stageRotation.set(rotation).multLocal(delta.fromAngles(previousAngularVelocity.x * h,
+                previousAngularVelocity.y * h, previousAngularVelocity.z * h));
+        velocities[k].set(linearAccelerations[k - 1]).multLocal(h).addLocal(velocity);
+        angularVelocities[k].set(angularAccelerations[k - 1]).multLocal(h).addLocal(angularVelocity);
+        dynamics.accelerations(stageRotation, stageTranslation, velocities[k], angularVelocities[k],
+                linearAccelerations[k], angularAccelerations[k]);
+    }
+
+    private Vector3f weighted(Vector3f[] k, float dt) {
+        return sum.set(k[1]).addLocal(k[2]).multLocal(2f).addLocal(k[0]).addLocal(k[3]).multLocal(dt / 6f);
+    }
+}
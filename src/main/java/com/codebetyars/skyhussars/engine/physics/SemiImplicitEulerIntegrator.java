@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+
+class SemiImplicitEulerIntegrator implements Integrator {
+
+    private final Vector3f linearAcceleration = new Vector3f();
+    private final Vector3f angularAcceleration = new Vector3f();
+    private final Quaternion delta = new Quaternion();
+
+    @Override
+    public void step(Dynamics dynamics, Quaternion rotation, Vector3f translation,
+            Vector3f velocity, Vector3f angularVelocity, float dt) {
+        dynamics.accelerations(rotation, translation, velocity, angularVelocity, linearAcceleration, angularAcceleration);
+        velocity.addLocal(linearAcceleration.x * dt, linearAcceleration.y * dt, linearAcceleration.z * dt);
+        angularVelocity.addLocal(angularAcceleration.x * dt, angularAcceleration.y * dt, angularAcceleration.z * dt);
+        rotation.multLocal(delta.fromAngles(angularVelocity.x * dt, angularVelocity.y * dt, angularVelocity.z * dt));
+        translation.addLocal(velocity.x * dt, velocity.y * dt, velocity.z * dt);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.jme3.math.FastMath;
+
+/**
+ * Decides into how many substeps the step of a plane is divided. A plane in
+ * calm flight is stepped once per tick, only fast rotation or high dynamic
+ * pressure, where the flight model gets stiff, is subdivided.
+ */
+public class Substepping {
+
+    public static final Substepping NONE = new Substepping(Float.MAX_VALUE, Float.MAX_VALUE, 1);
+    /**
+     * The default of the planes. Below a turn of 0.1 rad per step and about
+     * 800 km/h at sea level it steps once per tick, the same as NONE, faster
+     * rolls and dives are divided into up to 8 substeps.
+     */
+    public static final Substepping ADAPTIVE = new Substepping(0.1f, 30000f, 8);
+
+    private final float maxAnglePerStep;
+    private final float dynamicPressureLimit;
+    private final int maxSubsteps;
+
+    /**
+     * @param maxAnglePerStep - radians the plane may turn in one substep
+     * @param dynamicPressureLimit - Pa, every multiple of it adds a substep
+     * @param maxSubsteps - upper limit of substeps in one tick
+     */
+    public Substepping(float maxAnglePerStep, float dynamicPressureLimit, int maxSubsteps) {
+        if (maxAnglePerStep <= 0 || dynamicPressureLimit <= 0 || maxSubsteps <= 0) {
+            throw new IllegalArgumentException("Substepping limits must be positive");
+        }
+        this.maxAnglePerStep = maxAnglePerStep;
+        this.dynamicPressureLimit = dynamicPressureLimit;
+        this.maxSubsteps = maxSubsteps;
+    }
+
+    public int substeps(float tpf, float angularSpeed, float dynamicPressure) {
+        int substeps = 1;
+        float angle = angularSpeed * tpf;
+        if (angle > maxAnglePerStep) {
+            substeps = (int) FastMath.ceil(angle / maxAnglePerStep);
+        }
+        if (dynamicPressure > dynamicPressureLimit) {
+            substeps = Math.max(substeps, (int) FastMath.ceil(dynamicPressure / dynamicPressureLimit));
+        }
+        return Math.min(substeps, maxSubsteps);
+    }
+}
@@ -36,78 +36,51 @@ public class SymmetricAirfoil implements Airfoil {
     private final static Logger logger = LoggerFactory.getLogger(SymmetricAirfoil.class);
 
     public SymmetricAirfoil(String name, Vector3f cog, float wingArea, float incidence, float aspectRatio, boolean damper, float dehidralDegree) {
-        this.wingArea = wingArea;
-        this.incidence = incidence;// * FastMath.DEG_TO_RAD;
-        this.cog = cog;
-        this.name = name;
-        this.aspectRatio = aspectRatio;
-        this.qIncidence = qIncidence.fromAngles((-incidence) * FastMath.DEG_TO_RAD, 0, 0);
-        this.dehidral = new Quaternion().fromAngleAxis(dehidralDegree * FastMath.DEG_TO_RAD, Vector3f.UNIT_Z);//vertical ? Vector3f.UNIT_X : Vector3f.UNIT_Y;
-        wingRotation = qIncidence.mult(dehidral);
-        logger.debug(name + " pointing to " + qIncidence.mult(dehidral).mult(Vector3f.UNIT_Y));
-        this.damper = damper;
-        if (damper) {
-            if (this.cog.dot(Vector3f.UNIT_X) < 0) {
-                leftDamper = true;
-            } else {
-                leftDamper = false;
-            }
-        }
+        this(new AirfoilModel(name, cog, wingArea, incidence, aspectRatio, damper, dehidralDegree, AirfoilPolar.DEFAULT));
+    }
+
+    /**
+     * @param model - the compiled airfoil, shared with the same airfoil of the
+     * other planes of the type
+     */
+    public SymmetricAirfoil(AirfoilModel model) {
+        this.model = model;
+        logger.debug(model.name() + " pointing to " + model.wingRotation().mult(Vector3f.UNIT_Y));
     }
-    private final int[] aoa = {0, 2, 4, 6, 8, 10, 15, 30};
-    private final float[] clm05 = {0f, 0.246f, 0.475f, 0.68f, 0.775f, 0.795f, 0.82f, 0.8f};
-    // private float[]
-    private final float wingArea;
-    private final float incidence;
-    private final Vector3f cog;
-    private final String name;
-    private final float aspectRatio;
-    private Quaternion qIncidence = new Quaternion();
-    private final Quaternion dehidral;
+
+    private final AirfoilModel model;
     private Quaternion qAileron = new Quaternion();
-    private final Quaternion wingRotation;
-    private final float dampingFactor = 1f;
-    private final boolean damper;
-    private boolean leftDamper;
+    /* 1 for an intact airfoil, its lift is lost with it */
+    private float integrity = 1f;
+
+    public float integrity() {
+        return integrity;
+    }
+
+    public void damage(float damage) {
+        integrity = Math.max(0f, integrity - damage);
+    }
+
+    public void repair() {
+        integrity = 1f;
+    }
 
     @Override
-    public Vector3f calculateResultantForce(float airDensity, Vector3f vFlow, Quaternion situation, Vector3f vAngularVelocity) {
+    public Vector3f calculateResultantForce(float airDensity, float speedOfSound, Vector3f vFlow, Quaternion situation, Vector3f vAngularVelocity) {
         //Quaternion foil = wingRotation.mult(qAileron).mult(situation);//situation.mult(wingRotation).mult(qAileron);//situation.mult(qIncidence).mult(qAileron).mult(dehidral);
-        Quaternion foil = situation.mult(wingRotation).mult(qAileron);//situation.mult(qIncidence).mult(qAileron).mult(dehidral);
+        Quaternion foil = situation.mult(model.wingRotation()).mult(qAileron);//situation.mult(qIncidence).mult(qAileron).mult(dehidral);
         Vector3f vUp = foil.mult(Vector3f.UNIT_Y).normalize();
         vFlow = addDamping(vFlow, vAngularVelocity, vUp);
         float angleOfAttack = calculateAngleOfAttack(vUp, vFlow.normalize());
-        Vector3f vLift = calculateLift(angleOfAttack, airDensity, vFlow, vUp);
+        Vector3f vLift = calculateLift(angleOfAttack, airDensity, vFlow, vUp).multLocal(integrity);
         Vector3f vInducedDrag = calculateInducedDrag(airDensity, vFlow, vLift);
-        logging(vLift, vUp, angleOfAttack, vInducedDrag);
+        Vector3f vProfileDrag = vFlow.normalize().mult(calculateProfileDrag(FastMath.sin(angleOfAttack * FastMath.DEG_TO_RAD), airDensity, speedOfSound, vFlow.lengthSquared()));
 
-        return vLift.add(vInducedDrag);
-    }
-
-    private void logging(Vector3f vLift, Vector3f vUp, float angleOfAttack, Vector3f vInducedDrag) {
-        String direction = "up";
-        if (vLift.normalize().dot(vUp) < 0) {
-            direction = "down";
-        }
-        logger.debug(name + " at " + angleOfAttack + " degrees generated " + direction + "forces: vLift " + vLift.length() + ", induced drag " + vInducedDrag.length());
+        return vLift.add(vInducedDrag).add(vProfileDrag);
     }
 
     public Vector3f addDamping(Vector3f vFlow, Vector3f vAngularVelocity, Vector3f vUp) {
-        float zDamping = vAngularVelocity.z * cog.length() * dampingFactor;
-        float xDamping = vAngularVelocity.x * cog.length() * 2;
-        float yDamping = vAngularVelocity.y * cog.length() * 1;
-        if (damper && leftDamper) {
-            vFlow = vFlow.add(vUp.mult(zDamping));
-        } else if (damper && !leftDamper) {
-            vFlow = vFlow.add(vUp.mult(zDamping).negate());
-        }
-        if (name.equals("HorizontalStabilizer")) {
-            vFlow = vFlow.add(vUp.mult(xDamping).negate());
-        }
-        if (name.equals("VerticalStabilizer")) {
-            vFlow = vFlow.add(vUp.mult(yDamping).negate());
-        }
-        return vFlow;
+        return vFlow.add(vUp.mult(model.damping(vAngularVelocity.x, vAngularVelocity.y, vAngularVelocity.z)));
     }
 
     public Vector3f calculateLift(float angleOfAttack, float airDensity, Vector3f vFlow, Vector3f vUp) {
@@ -119,29 +92,25 @@ public class SymmetricAirfoil implements Airfoil {
         return liftDirection.mult(scLift);
     }
 
+    private float calculateProfileDrag(float sinAngleOfAttack, float airDensity, float speedOfSound, float flowSquared) {
+        return 0.5f * airDensity * model.polar().dragCoefficient(sinAngleOfAttack, mach(flowSquared, speedOfSound)) * model.wingArea() * flowSquared;
+    }
+
+    private float mach(float flowSquared, float speedOfSound) {
+        return model.polar().machDependent() ? FastMath.sqrt(flowSquared) / speedOfSound : 0f;
+    }
+
     public float calculateLift(float angleOfAttack, float airDensity, Vector3f vFlow) {
         //abs is used for symmetric wings? not perfect
-        return 0.5f * airDensity * getLiftCoefficient(FastMath.abs(angleOfAttack)) * wingArea * vFlow.lengthSquared();
+        return 0.5f * airDensity * getLiftCoefficient(FastMath.abs(angleOfAttack)) * model.wingArea() * vFlow.lengthSquared();
     }
 
     public float getLiftCoefficient(float angleOfAttack) {
-        float liftCoefficient = 0f;
-        for (int i = 1; i < aoa.length; i++) {
-            if (angleOfAttack < aoa[i]) {
-                /*let's approximate the real  values with interpolation*/
-                float diff = aoa[i] - aoa[i - 1];
-                float real = angleOfAttack - aoa[i - 1];
-                float a = real / diff;
-                float b = 1f - a;
-                liftCoefficient = clm05[i] * a + clm05[i - 1] * b;
-                break;
-            }
-        }
-        return liftCoefficient;
+        return model.polar().liftCoefficient(angleOfAttack);
     }
 
     public Vector3f calculateInducedDrag(float airDensity, Vector3f vFlow, Vector3f vLift) {
-        float dividened = (0.5f * airDensity * aspectRatio * vFlow.lengthSquared() * FastMath.PI * wingArea);
+        float dividened = (0.5f * airDensity * model.aspectRatio() * vFlow.lengthSquared() * FastMath.PI * model.wingArea());
         //logger.debug("Airdensity: " + airDensity + ", Velocity: " + vVelocity.length() + ", lift: " + vLift.length() + );
         if (dividened == 0) {
             return Vector3f.ZERO;
@@ -156,11 +125,15 @@ public class SymmetricAirfoil implements Airfoil {
 
     @Override
     public Vector3f getCenterOfGravity() {
-        return cog;
+        return model.cog();
     }
 
     public String getName() {
-        return name;
+        return model.name();
+    }
+
+    public AirfoilRole role() {
+        return model.role();
     }
 
     private float calculateAngleOfAttack(Vector3f vUp, Vector3f vFlow) {
@@ -31,6 +31,7 @@ import com.jme3.math.Vector3f;
 public interface ThrustProducer {
     
     public Vector3f getThrust();
+    public Vector3f getThrust(Vector3f store);
     public void setThrottle(float throttle);
 
 }
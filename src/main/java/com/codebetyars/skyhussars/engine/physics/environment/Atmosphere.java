@@ -26,5 +26,37 @@
 package com.codebetyars.skyhussars.engine.physics.environment;
 
 public interface Atmosphere {
-    public float getAirDensity(int altitude);
+
+    /**
+     * @return kg/m3
+     */
+    public float airDensity(float altitude);
+
+    /**
+     * @return K
+     */
+    public float temperature(float altitude);
+
+    /**
+     * @return Pa
+     */
+    public float pressure(float altitude);
+
+    /**
+     * @return m/s
+     */
+    public float speedOfSound(float altitude);
+
+    /**
+     * Air density at many altitudes in one call.
+     *
+     * @param out - receives the density of altitudes[i] at out[i], must be at
+     * least as long as altitudes
+     */
+    public void sample(float[] altitudes, float[] out);
+
+    /**
+     * Speed of sound at many altitudes in one call, the same way as sample.
+     */
+    public void sampleSpeedOfSound(float[] altitudes, float[] out);
 }
@@ -37,8 +37,16 @@ public class Environment {
         this.atmosphere = atmosphere;
     }
 
-    public float airDensity(int altitude) {
-        return atmosphere.getAirDensity(altitude);
+    public float airDensity(float altitude) {
+        return atmosphere.airDensity(altitude);
+    }
+
+    public float speedOfSound(float altitude) {
+        return atmosphere.speedOfSound(altitude);
+    }
+
+    public Atmosphere atmosphere() {
+        return atmosphere;
     }
     
     public Vector3f gravity(){
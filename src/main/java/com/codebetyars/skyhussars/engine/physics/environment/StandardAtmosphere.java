@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics.environment;
+
+/**
+ * The International Standard Atmosphere up to 86 km. The layers are evaluated
+ * once into tables with a 10 m resolution, a query is an index calculation and
+ * a linear interpolation, so the values are continuous in altitude. Altitudes
+ * outside of the tables get the value of the nearest end.
+ */
+public class StandardAtmosphere implements Atmosphere {
+
+    private static final float MIN_ALTITUDE = -2000f;
+    private static final float MAX_ALTITUDE = 86000f;
+    private static final float STEP = 10f;
+    private static final int SAMPLES = (int) ((MAX_ALTITUDE - MIN_ALTITUDE) / STEP);
+
+    private static final double G0 = 9.80665;
+    /* specific gas constant of dry air, J/(kg K) */
+    private static final double R = 287.05287;
+    private static final double GAMMA = 1.4;
+    /* base altitude (m) and temperature lapse rate (K/m) of the layers */
+    private static final double[] LAYER_BASE = {0, 11000, 20000, 32000, 47000, 51000, 71000};
+    private static final double[] LAPSE_RATE = {-0.0065, 0, 0.001, 0.0028, 0, -0.0028, -0.002};
+
+    private final float[] density = new float[SAMPLES + 1];
+    private final float[] temperature = new float[SAMPLES + 1];
+    private final float[] pressure = new float[SAMPLES + 1];
+    private final float[] speedOfSound = new float[SAMPLES + 1];
+
+    public StandardAtmosphere() {
+        double[] baseTemperature = new double[LAYER_BASE.length];
+        double[] basePressure = new double[LAYER_BASE.length];
+        baseTemperature[0] = 288.15;
+        basePressure[0] = 101325;
+        for (int layer = 1; layer < LAYER_BASE.length; layer++) {
+            double height = LAYER_BASE[layer] - LAYER_BASE[layer - 1];
+            baseTemperature[layer] = baseTemperature[layer - 1] + LAPSE_RATE[layer - 1] * height;
+            basePressure[layer] = pressure(basePressure[layer - 1], baseTemperature[layer - 1], LAPSE_RATE[layer - 1], height);
+        }
+        for (int i = 0; i <= SAMPLES; i++) {
+            double altitude = MIN_ALTITUDE + i * STEP;
+            int layer = LAYER_BASE.length - 1;
+            while (layer > 0 && altitude < LAYER_BASE[layer]) {
+                layer--;
+            }
+            double height = altitude - LAYER_BASE[layer];
+            double t = baseTemperature[layer] + LAPSE_RATE[layer] * height;
+            double p = pressure(basePressure[layer], baseTemperature[layer], LAPSE_RATE[layer], height);
+            temperature[i] = (float) t;
+            pressure[i] = (float) p;
+            density[i] = (float) (p / (R * t));
+            speedOfSound[i] = (float) Math.sqrt(GAMMA * R * t);
+        }
+    }
+
+    private static double pressure(double basePressure, double baseTemperature, double lapseRate, double height) {
+        if (lapseRate == 0) {
+            return basePressure * Math.exp(-G0 * height / (R * baseTemperature));
+        }
+        return basePressure * Math.pow(baseTemperature / (baseTemperature + lapseRate * height), G0 / (R * lapseRate));
+    }
+
+    private static float lookup(float[] table, float altitude) {
+        float position = (altitude - MIN_ALTITUDE) / STEP;
+        if (position <= 0) {
+            return table[0];
+        }
+        if (position >= SAMPLES) {
+            return table[SAMPLES];
+        }
+        int i = (int) position;
+        return table[i] + (table[i + 1] - table[i]) * (position - i);
+    }
+
+    @Override
+    public float airDensity(float altitude) {
+        return lookup(density, altitude);
+    }
+
+    @Override
+    public float temperature(float altitude) {
+        return lookup(temperature, altitude);
+    }
+
+    @Override
+    public float pressure(float altitude) {
+        return lookup(pressure, altitude);
+    }
+
+    @Override
+    public float speedOfSound(float altitude) {
+        return lookup(speedOfSound, altitude);
+    }
+
+    @Override
+    public void sample(float[] altitudes, float[] out) {
+        sample(density, altitudes, out);
+    }
+
+    @Override
+    public void sampleSpeedOfSound(float[] altitudes, float[] out) {
+        sample(speedOfSound, altitudes, out);
+    }
+
+    private static void sample(float[] table, float[] altitudes, float[] out) {
+        if (out.length < altitudes.length) {
+            throw new IllegalArgumentException("Output has room for " + out.length + " values, " + altitudes.length + " are needed");
+        }
+        for (int i = 0; i < altitudes.length; i++) {
+            out[i] = lookup(table, altitudes[i]);
+        }
+    }
+}
@@ -27,9 +27,11 @@ package com.codebetyars.skyhussars.engine.plane;
 
 import com.codebetyars.skyhussars.engine.loader.converters.Point3fToVector3fConverter;
 import com.codebetyars.skyhussars.engine.loader.converters.Vector3fToPoint3fConverter;
+import com.codebetyars.skyhussars.engine.physics.AirfoilPolar;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.jme3.math.Vector3f;
+import java.util.List;
 
 public class AirfoilDescriptor {
 
@@ -40,6 +42,9 @@ public class AirfoilDescriptor {
     private float aspectRatio;
     private boolean damper;
     private float dehidralDegree;
+    private List<PolarDescriptor> polars;
+    /* compiled from the polars on first use, shared by every plane of the type */
+    private volatile AirfoilPolar polar;
 
     public String getName() {
         return name;
@@ -99,4 +104,26 @@ public class AirfoilDescriptor {
         this.dehidralDegree = dehidralDegree;
     }
 
+    public List<PolarDescriptor> getPolars() {
+        return polars;
+    }
+
+    public void setPolars(List<PolarDescriptor> polars) {
+        this.polars = polars;
+        this.polar = null;
+    }
+
+    /**
+     * @return the compiled polar of the airfoil, the default symmetric
+     * airfoil if the descriptor does not define one
+     */
+    public AirfoilPolar polar() {
+        AirfoilPolar compiled = polar;
+        if (compiled == null) {
+            compiled = polars == null || polars.isEmpty() ? AirfoilPolar.DEFAULT : new AirfoilPolar(polars);
+            polar = compiled;
+        }
+        return compiled;
+    }
+
 }
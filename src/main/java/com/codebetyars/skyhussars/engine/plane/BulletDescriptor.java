@@ -28,6 +28,11 @@ package com.codebetyars.skyhussars.engine.plane;
 
 public class BulletDescriptor {
     private String name;
+    /* m */
+    private float caliber;
+    /* kg */
+    private float mass;
+    private float dragCoefficient;
 
     public String getName() {
         return name;
@@ -37,4 +42,28 @@ public class BulletDescriptor {
         this.name = name;
     }
 
+    public float getCaliber() {
+        return caliber;
+    }
+
+    public void setCaliber(float caliber) {
+        this.caliber = caliber;
+    }
+
+    public float getMass() {
+        return mass;
+    }
+
+    public void setMass(float mass) {
+        this.mass = mass;
+    }
+
+    public float getDragCoefficient() {
+        return dragCoefficient;
+    }
+
+    public void setDragCoefficient(float dragCoefficient) {
+        this.dragCoefficient = dragCoefficient;
+    }
+
 }
@@ -25,7 +25,9 @@
  */
 package com.codebetyars.skyhussars.engine.plane;
 
+import com.codebetyars.skyhussars.engine.RandomStreams;
 import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileSpawns;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
 
@@ -34,12 +36,15 @@ import java.util.List;
 
 public class GunGroup {
 
-    public GunGroup(GunGroupDescriptor gunGroupDescriptor, ProjectileManager projectileManager) {
+    /**
+     * @param owner - the owner of the projectiles of the guns
+     */
+    public GunGroup(GunGroupDescriptor gunGroupDescriptor, ProjectileManager projectileManager, int owner) {
         name = gunGroupDescriptor.getName();
         gunLocations = new ArrayList<>();
         for (GunLocationDescriptor gunLocationDescriptor : gunGroupDescriptor.getGunLocations()) {
             gunLocations.add(new GunLocation(gunLocationDescriptor,
-                    gunLocationDescriptor.getRoundsMax(), projectileManager));
+                    gunLocationDescriptor.getRoundsMax(), projectileManager, owner));
         }
     }
     private String name;
@@ -61,9 +66,29 @@ public class GunGroup {
         this.gunLocations = gunLocations;
     }
 
-    public void firing(boolean firing,Vector3f vLocation, Vector3f vVelocity,Quaternion vOrientation) {
+    public void randomStreams(RandomStreams randomStreams) {
+        for (int i = 0; i < gunLocations.size(); i++) {
+            gunLocations.get(i).seed(randomStreams.seed(i));
+        }
+    }
+
+    /**
+     * @return the number of rounds fired
+     */
+    public int fire(float dt, boolean firing, Vector3f vLocation, Vector3f vVelocity, Quaternion vOrientation,
+            ProjectileSpawns spawns) {
+        int fired = 0;
+        for (GunLocation gunLocation : gunLocations) {
+            fired += gunLocation.fire(dt, firing, vLocation, vVelocity, vOrientation, spawns);
+        }
+        return fired;
+    }
+
+    public int rounds() {
+        int rounds = 0;
         for (GunLocation gunLocation : gunLocations) {
-            gunLocation.firing(firing,vLocation,vVelocity,vOrientation);
+            rounds += gunLocation.rounds();
         }
+        return rounds;
     }
 }
@@ -25,11 +25,11 @@
  */
 package com.codebetyars.skyhussars.engine.plane;
 
-import com.codebetyars.skyhussars.engine.weapons.Bullet;
+import com.codebetyars.skyhussars.engine.weapons.BallisticsTable;
 import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileSpawns;
 import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
-import com.jme3.math.Ring;
 import com.jme3.math.Vector3f;
 
 import java.util.Random;
@@ -39,29 +39,107 @@ public class GunLocation {
     private GunLocationDescriptor gunLocationDescriptor;
     private int rounds;
     private ProjectileManager projectileManager;
+    private final int owner;
+    /* rounds fired, the belt has a tracer every tracerRatio rounds */
+    private int fired;
+    /* rounds due but not fired yet, a round is chambered while the trigger is released */
+    private float due = 1f;
     private Random random;
+    private final BallisticsTable ballistics;
+    private final Vector3f muzzleVelocity = new Vector3f();
+    private final Vector3f bulletLocation = new Vector3f();
+    private final Vector3f bulletVelocity = new Vector3f();
+    private final Vector3f roundLocation = new Vector3f();
+    private final Vector3f roundOrigin = new Vector3f();
+    private final Vector3f spreadDirection = new Vector3f();
+    private final Vector3f spreadSide = new Vector3f();
+    private final Vector3f spreadUp = new Vector3f();
 
-    public GunLocation(GunLocationDescriptor gunLocationDescriptor, int rounds, ProjectileManager projectileManager) {
+    public GunLocation(GunLocationDescriptor gunLocationDescriptor, int rounds, ProjectileManager projectileManager,
+            int owner) {
         this.gunLocationDescriptor = gunLocationDescriptor;
-        /*should check if rounnds > maxRounds*/
-        this.rounds = rounds;
+        this.rounds = Math.min(rounds, gunLocationDescriptor.getRoundsMax());
         this.projectileManager = projectileManager;
+        this.owner = owner;
         this.random = new Random();
+        this.ballistics = projectileManager.ballistics(gunLocationDescriptor.getGunDescriptor());
     }
 
+    /**
+     * @return the ballistics of the rounds, null if they fly in a straight
+     * line
+     */
+    public BallisticsTable ballistics() {
+        return ballistics;
+    }
+
+    public GunLocationDescriptor descriptor() {
+        return gunLocationDescriptor;
+    }
+
+    /**
+     * Reseeds the spread of this gun, for deterministic runs.
+     */
+    public void seed(long seed) {
+        random.setSeed(seed);
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    /*
+     * draws only from the random of this gun, jME's Ring would use the shared
+     * FastMath random. Spreads vVelocity in place and returns it.
+     */
     public Vector3f addSpread(Vector3f vVelocity) {
         float spread = gunLocationDescriptor.getGunDescriptor().getSpread() * (float) random.nextGaussian() * vVelocity.length() / 100f;
-        return new Ring(vVelocity, vVelocity.normalize(), spread, spread).random();
+        Vector3f direction = spreadDirection.set(vVelocity).normalizeLocal();
+        Vector3f side = direction.cross(FastMath.abs(direction.y) < 0.99f ? Vector3f.UNIT_Y : Vector3f.UNIT_X, spreadSide)
+                .normalizeLocal();
+        Vector3f up = side.cross(direction, spreadUp);
+        float angle = random.nextFloat() * FastMath.TWO_PI;
+        float sideways = FastMath.cos(angle) * spread;
+        float upwards = FastMath.sin(angle) * spread;
+        return vVelocity.addLocal(side.x * sideways + up.x * upwards, side.y * sideways + up.y * upwards,
+                side.z * sideways + up.z * upwards);
     }
 
-    public void firing(boolean firing, Vector3f vLocation, Vector3f vVelocity, Quaternion vOrientation) {
-        if (firing) {
-            Vector3f vBulletLocation = vLocation.add(vOrientation.mult(gunLocationDescriptor.getLocation()));
-            Vector3f vMuzzleVelocity = vOrientation.mult(Vector3f.UNIT_Z).mult(gunLocationDescriptor.getGunDescriptor().getMuzzleVelocity());
-            Vector3f vBulletVelocity = addSpread(vVelocity.add(vMuzzleVelocity));
-
-            Bullet bullet = new Bullet(vBulletLocation, vBulletVelocity, null);
-            projectileManager.addProjectile(bullet);
+    /**
+     * Fires the rounds due in the last dt seconds at the rate of fire of the
+     * gun, until it runs out of ammunition. A round fired before the end of
+     * the step is already on its way from the muzzle.
+     *
+     * @param vLocation - location of the plane at the end of the step
+     * @return the number of rounds fired
+     */
+    public int fire(float dt, boolean firing, Vector3f vLocation, Vector3f vVelocity, Quaternion vOrientation,
+            ProjectileSpawns spawns) {
+        if (!firing || rounds == 0) {
+            due = 1f;
+            return 0;
+        }
+        float rateOfFire = gunLocationDescriptor.getGunDescriptor().getRateOfFire();
+        due += rateOfFire * dt;
+        int count = Math.min((int) due, rounds);
+        if (count == 0) {
+            return 0;
+        }
+        due -= count;
+        vOrientation.mult(Vector3f.UNIT_Z, muzzleVelocity).multLocal(gunLocationDescriptor.getGunDescriptor().getMuzzleVelocity());
+        vOrientation.mult(gunLocationDescriptor.getLocation(), bulletLocation).addLocal(vLocation);
+        for (int i = 0; i < count; i++) {
+            /* the last round left the muzzle due / rateOfFire seconds ago */
+            float age = (due + count - 1 - i) / rateOfFire;
+            bulletVelocity.set(vVelocity).addLocal(muzzleVelocity);
+            Vector3f velocity = addSpread(bulletVelocity);
+            /* relative to the plane the round moved away from the muzzle */
+            roundLocation.set(velocity).subtractLocal(vVelocity).multLocal(age).addLocal(bulletLocation);
+            /* where the muzzle was when the round left it */
+            roundOrigin.set(vVelocity).multLocal(-age).addLocal(bulletLocation);
+            spawns.add(owner, roundOrigin, roundLocation, velocity, fired++ % projectileManager.tracerRatio() == 0, ballistics);
         }
+        rounds -= count;
+        return count;
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.plane;
+
+import com.codebetyars.skyhussars.engine.loader.converters.Point3fToVector3fConverter;
+import com.codebetyars.skyhussars.engine.loader.converters.Vector3fToPoint3fConverter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hitbox of a plane and the hitboxes inside it, in the frame of the plane.
+ * A hitbox with a radius is a sphere, otherwise a box with the extent.
+ *
+ * Rounds only hit the smallest hitboxes: the outermost one is only tested
+ * first, a hitbox is hit if none of its children are. Each hit takes the
+ * damage of the hitbox from the airfoil or the engine it covers.
+ */
+public class HitboxDescriptor {
+
+    private String name;
+    private Vector3f center;
+    private float radius;
+    private Vector3f extent;
+    /* name of the airfoil covered */
+    private String airfoil;
+    /* index of the engine covered */
+    private Integer engine;
+    /* part of the airfoil or engine lost to one round */
+    private float damage;
+    private List<HitboxDescriptor> children = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    @JsonSerialize(converter = Vector3fToPoint3fConverter.class)
+    public Vector3f getCenter() {
+        return center;
+    }
+
+    @JsonDeserialize(converter = Point3fToVector3fConverter.class)
+    public void setCenter(Vector3f center) {
+        this.center = center;
+    }
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public void setRadius(float radius) {
+        this.radius = radius;
+    }
+
+    @JsonSerialize(converter = Vector3fToPoint3fConverter.class)
+    public Vector3f getExtent() {
+        return extent;
+    }
+
+    @JsonDeserialize(converter = Point3fToVector3fConverter.class)
+    public void setExtent(Vector3f extent) {
+        this.extent = extent;
+    }
+
+    public String getAirfoil() {
+        return airfoil;
+    }
+
+    public void setAirfoil(String airfoil) {
+        this.airfoil = airfoil;
+    }
+
+    public Integer getEngine() {
+        return engine;
+    }
+
+    public void setEngine(Integer engine) {
+        this.engine = engine;
+    }
+
+    public float getDamage() {
+        return damage;
+    }
+
+    public void setDamage(float damage) {
+        this.damage = damage;
+    }
+
+    public List<HitboxDescriptor> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<HitboxDescriptor> children) {
+        this.children = children;
+    }
+}
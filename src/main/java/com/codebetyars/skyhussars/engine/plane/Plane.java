@@ -25,20 +25,29 @@
  */
 package com.codebetyars.skyhussars.engine.plane;
 
+import com.codebetyars.skyhussars.engine.RandomStreams;
+import com.codebetyars.skyhussars.engine.StateHash;
 import com.codebetyars.skyhussars.engine.mission.PlaneMissionDescriptor;
-import com.codebetyars.skyhussars.engine.physics.PlanePhysicsImpl;
-import com.codebetyars.skyhussars.engine.physics.Airfoil;
 import com.codebetyars.skyhussars.engine.physics.Engine;
-import com.codebetyars.skyhussars.engine.physics.SymmetricAirfoil;
+import com.codebetyars.skyhussars.engine.physics.FlightEngine;
+import com.codebetyars.skyhussars.engine.physics.FlightModel;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.physics.FlightState;
+import com.codebetyars.skyhussars.engine.physics.PhysicsLevel;
 import com.codebetyars.skyhussars.engine.physics.environment.Environment;
 import com.codebetyars.skyhussars.engine.plane.instruments.Instruments;
 import com.codebetyars.skyhussars.engine.sound.AudioHandler;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
+import com.codebetyars.skyhussars.engine.weapons.BallisticsTable;
+import com.codebetyars.skyhussars.engine.weapons.HitboxModel;
 import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileSpawns;
+import com.jme3.bounding.BoundingBox;
+import com.jme3.bounding.BoundingSphere;
 import com.jme3.bounding.BoundingVolume;
 import com.jme3.effect.ParticleEmitter;
 import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Spatial;
@@ -55,27 +64,69 @@ public class Plane {
     private final PlaneDescriptor planeDescriptor;
     private PlaneMissionDescriptor planeMissionDescriptor;
     private String name;
-    private final PlanePhysicsImpl physics;
+    private FlightEngine.Slot physics;
+    private final Vector3f velocity = new Vector3f();
     private final AudioHandler engineSound;
     private final AudioHandler gunSound;
     private List<GunGroup> gunGroups;
     private final List<Engine> engines = new ArrayList<>();
-    private boolean firing = false;
+    private volatile boolean firing = false;
     private final ProjectileManager projectileManager;
-    private boolean crashed = false;
-    private boolean shotdown = false;
+    private volatile boolean crashed = false;
+    private volatile boolean shotdown = false;
+    /* only touched by the render thread */
+    private boolean burning = false;
     private ParticleEmitter fireEffect;
+    /* damage of the hits not applied yet, guarded by itself */
+    private final float[] pendingAirfoilDamage;
+    private final float[] pendingEngineDamage;
+    private boolean pendingDestruction;
     private final PlaneGeometry geom;
-
-    public void updatePlanePhysics(float tpf, Environment environment) {
-        physics.update(tpf, environment);
-        logger.debug(getInfo());
-    }
+    private float aileron = 0f;
+    private float throttle = Float.NaN;
+    /* controls of the player from the render thread, NaN until first set */
+    private volatile float aileronInput = Float.NaN;
+    private volatile float elevatorInput = Float.NaN;
+    private volatile float rudderInput = Float.NaN;
+    private volatile float throttleInput = Float.NaN;
+    /* speed of a respawn requested by the render thread, NaN if there is none */
+    private volatile float respawnSpeed = Float.NaN;
+    private float elevator = 0f;
+    private float rudder = 0f;
+    private final int telemetrySource;
+    private int projectileOwner;
+    /* only used by the simulation thread to fire the guns */
+    private final FlightSnapshot muzzleState = new FlightSnapshot(1);
+    private final ProjectileSpawns spawns = new ProjectileSpawns();
+    private final Vector3f muzzleLocation = new Vector3f();
+    private final Vector3f muzzleVelocity = new Vector3f();
+    private final Quaternion muzzleRotation = new Quaternion();
+    /* only used by the simulation thread, the render thread reads the instruments */
+    private final FlightState flightState = new FlightState();
+    private final Vector3f stateLocation = new Vector3f();
+    private final Vector3f stateVelocity = new Vector3f();
+    private final Vector3f stateDirection = new Vector3f();
+    private final Quaternion stateRotation = new Quaternion();
+    private final Vector3f leadVelocity = new Vector3f();
+    private final Vector3f engineThrust = new Vector3f();
+    private final Instruments instruments;
+    /* the bound of the model around the root, for planes without hitboxes */
+    private final HitboxModel boundModel;
 
     Vector3f accG = new Vector3f(0f, -10f, 0f);
 
-    public String getInfo() {
-        return physics.getInfo();
+    /**
+     * @return the telemetry source of the plane
+     */
+    public int telemetrySource() {
+        return telemetrySource;
+    }
+
+    /**
+     * @return the owner of the projectiles fired by the plane
+     */
+    public int projectileOwner() {
+        return projectileOwner;
     }
 
     public PlaneGeometry planeGeometry() {
@@ -94,11 +145,6 @@ public class Plane {
         return planeMissionDescriptor;
     }
 
-    private final List<SymmetricAirfoil> leftWings = new ArrayList<>();
-    private final List<SymmetricAirfoil> rightWings = new ArrayList<>();
-    private final List<SymmetricAirfoil> horizontalStabilizers = new ArrayList<>();
-    private final List<SymmetricAirfoil> verticalStabilizers = new ArrayList<>();
-
     public Plane(Spatial model, PlaneDescriptor planeDescriptor,
             AudioHandler engineSound, AudioHandler gunSound,
             ProjectileManager projectileManager, Geometry cockpit,
@@ -111,59 +157,73 @@ public class Plane {
         //test model is backwards
         model.rotate(0, 0, 0 * FastMath.DEG_TO_RAD);
         this.projectileManager = projectileManager;
+        this.instruments = instruments;
         initializeGunGroup();
         geom = new PlaneGeometry();
         geom.attachSpatialToCockpitNode(cockpit);
         geom.attachSpatialToModelNode(model);
+        boundModel = planeDescriptor.hitboxModel() == null ? boundModel(planeDescriptor) : null;
         geom.attachSpatialToRootNode(engineSound.audioNode());
         geom.attachSpatialToRootNode(gunSound.audioNode());
-        List<Airfoil> airfoils = new ArrayList<>();
-        for (AirfoilDescriptor airfoilDescriptor : planeDescriptor.getAirfolDescriptors()) {
-            SymmetricAirfoil symmetricalAirfoil
-                    = new SymmetricAirfoil(
-                            airfoilDescriptor.getName(),
-                            airfoilDescriptor.getCog(),
-                            airfoilDescriptor.getWingArea(),
-                            airfoilDescriptor.getIncidence(),
-                            airfoilDescriptor.getAspectRatio(),
-                            airfoilDescriptor.isDamper(),
-                            airfoilDescriptor.getDehidralDegree());
-
-            airfoils.add(symmetricalAirfoil);
-            /*
-             should be temporary solution, use enum or something to indicate
-             */
-            if (symmetricalAirfoil.getName().startsWith("WingLeft")) {
-                leftWings.add(symmetricalAirfoil);
-            }
-            if (symmetricalAirfoil.getName().startsWith("WingRight")) {
-                rightWings.add(symmetricalAirfoil);
-            }
-            if (symmetricalAirfoil.getName().startsWith("Horizontal")) {
-                horizontalStabilizers.add(symmetricalAirfoil);
-            }
-            if (symmetricalAirfoil.getName().startsWith("Vertical")) {
-                verticalStabilizers.add(symmetricalAirfoil);
-            }
-        }
-        /*airfoils.add(leftWing);
-         airfoils.add(rightWing);
-         airfoils.add(horizontalStabilizer);
-         airfoils.add(verticalStabilizer);*/
+        Telemetry telemetry = Telemetry.shared();
+        telemetrySource = telemetry.source(planeDescriptor.getName());
+        FlightModel flightModel = planeDescriptor.flightModel();
         for (EngineLocation engineLocation : planeDescriptor.getEngineLocations()) {
             engines.add(new Engine(engineLocation, 1.0f));
         }
+        pendingAirfoilDamage = new float[flightModel.airfoils().size()];
+        pendingEngineDamage = new float[engines.size()];
         Quaternion rotation = Quaternion.IDENTITY.clone();//geom.root() .getLocalRotation(); 
 
         Vector3f translation = geom.root().getLocalTranslation();
-        this.physics = new PlanePhysicsImpl(rotation, translation, planeDescriptor.getMassGross(), engines, airfoils);
-        this.physics.setSpeedForward(model, 300f);
+        /* a flight engine of its own until the plane is bound to the engine of the world */
+        physics = new FlightEngine(1).register(flightModel, translation, rotation, Vector3f.ZERO);
+        physics.telemetrySource(telemetrySource);
+        for (int i = 0; i < flightModel.airfoils().size(); i++) {
+            physics.airfoilTelemetrySource(i,
+                    telemetry.source(planeDescriptor.getName() + "/" + flightModel.airfoils().get(i).name()));
+        }
+        physics.setSpeedForward(300f);
+        updateThrust();
+    }
+
+    /**
+     * Moves the flight model of this plane into a slot of the flight engine,
+     * the engine steps its physics together with the other planes.
+     */
+    public void bindTo(FlightEngine flightEngine) {
+        physics = physics.moveTo(flightEngine);
+    }
+
+    private void updateThrust() {
+        float sum = 0f;
+        for (Engine engine : engines) {
+            sum += engine.getThrust(engineThrust).length();
+        }
+        physics.thrust(sum);
+    }
+
+    /**
+     * Seeds every random stream of the plane, for deterministic runs.
+     */
+    public void randomStreams(RandomStreams randomStreams) {
+        for (int i = 0; i < gunGroups.size(); i++) {
+            gunGroups.get(i).randomStreams(randomStreams.child(i));
+        }
+    }
+
+    /**
+     * Adds the state of the plane that is not part of the flight snapshot.
+     */
+    public void hashState(StateHash hash) {
+        hash.add(crashed).add(shotdown).add(firing).add(rounds());
     }
 
     private void initializeGunGroup() {
         gunGroups = new ArrayList<>();
+        projectileOwner = projectileManager.registerOwner();
         for (GunGroupDescriptor gunGroupDescriptor : planeDescriptor.getGunGroupDescriptors()) {
-            gunGroups.add(new GunGroup(gunGroupDescriptor, projectileManager));
+            gunGroups.add(new GunGroup(gunGroupDescriptor, projectileManager, projectileOwner));
         }
     }
 
@@ -171,31 +231,269 @@ public class Plane {
         return geom.root().getWorldBound();
     }
 
-    public void hit() {
-        if (!shotdown) {
-            geom.attachSpatialToRootNode(fireEffect);
-            fireEffect.emitAllParticles();
-            for (Engine engine : engines) {
-                engine.damage(1.0f);
+    /**
+     * @return the hitboxes of the type, null if it has none
+     */
+    public HitboxModel hitboxModel() {
+        return planeDescriptor.hitboxModel();
+    }
+
+    /**
+     * @return the hitboxes of the plane, or a single hitbox around its model
+     * if it has none
+     */
+    public HitboxModel collisionModel() {
+        return boundModel != null ? boundModel : hitboxModel();
+    }
+
+    /* taken before the plane is placed, while the root is still at the origin */
+    private HitboxModel boundModel(PlaneDescriptor planeDescriptor) {
+        geom.root().updateGeometricState();
+        BoundingVolume bound = geom.modelNode().getWorldBound();
+        HitboxDescriptor hitbox = new HitboxDescriptor();
+        hitbox.setName("model");
+        if (bound instanceof BoundingBox) {
+            BoundingBox box = (BoundingBox) bound;
+            hitbox.setExtent(new Vector3f(box.getXExtent(), box.getYExtent(), box.getZExtent()));
+        } else if (bound instanceof BoundingSphere) {
+            hitbox.setRadius(((BoundingSphere) bound).getRadius());
+        } else {
+            throw new IllegalStateException("The model of " + planeDescriptor.getName() + " has no bound");
+        }
+        hitbox.setCenter(bound.getCenter().clone());
+        return new HitboxModel(hitbox, planeDescriptor);
+    }
+
+    /**
+     * Takes the damage of a round in a hitbox. The damage is only applied by
+     * the next applyDamage, on the simulation thread.
+     *
+     * @param hitbox - -1 if the plane has no hitboxes, a hit destroys it
+     */
+    public void hit(int hitbox) {
+        HitboxModel model = hitboxModel();
+        synchronized (pendingEngineDamage) {
+            if (hitbox < 0 || model == null) {
+                pendingDestruction = true;
+                return;
+            }
+            if (model.airfoil(hitbox) >= 0) {
+                pendingAirfoilDamage[model.airfoil(hitbox)] += model.damage(hitbox);
+            }
+            if (model.engine(hitbox) >= 0) {
+                pendingEngineDamage[model.engine(hitbox)] += model.damage(hitbox);
+            }
+        }
+    }
+
+    /**
+     * Applies the damage of the hits since the last call to the engines and
+     * the airfoils. The plane is shot down when every engine or an airfoil is
+     * destroyed.
+     */
+    public void applyDamage() {
+        boolean damaged = false;
+        synchronized (pendingEngineDamage) {
+            for (int i = 0; i < engines.size(); i++) {
+                float damage = pendingDestruction ? 1f : pendingEngineDamage[i];
+                if (damage > 0f) {
+                    engines.get(i).damage(damage);
+                    pendingEngineDamage[i] = 0f;
+                    damaged = true;
+                }
             }
+            for (int i = 0; i < pendingAirfoilDamage.length; i++) {
+                if (pendingAirfoilDamage[i] > 0f) {
+                    physics.airfoilIntegrity(i, Math.max(0f, physics.airfoilIntegrity(i) - pendingAirfoilDamage[i]));
+                    pendingAirfoilDamage[i] = 0f;
+                    damaged = true;
+                }
+            }
+            pendingDestruction = false;
+        }
+        if (!damaged) {
+            return;
+        }
+        updateThrust();
+        boolean enginesLost = true;
+        for (Engine engine : engines) {
+            enginesLost &= engine.getEngineStatus() <= 0f;
+        }
+        boolean airfoilLost = false;
+        for (int i = 0; i < pendingAirfoilDamage.length; i++) {
+            airfoilLost |= physics.airfoilIntegrity(i) <= 0f;
+        }
+        if (enginesLost || airfoilLost) {
+            shotdown = true;
         }
-        shotdown = true;
     }
 
-    public void update(float tpf) {
-        physics.updateScene(geom.root());
+    /**
+     * Copies the current physical state into the snapshot, called from the
+     * simulation thread after each tick.
+     */
+    public void writeSnapshot(FlightSnapshot snapshot, int index) {
+        physics.writeSnapshot(snapshot, index);
+    }
+
+    /**
+     * Derives the flight state from the plane in the snapshot and copies it
+     * into the snapshot, called from the simulation thread after the plane is
+     * written.
+     *
+     * @param ground - height of the terrain under the plane
+     * @param dt - time since the previous update of the flight state
+     */
+    public void updateFlightState(FlightSnapshot snapshot, int index, float ground,
+            Environment environment, float dt) {
+        flightState.update(snapshot.translation(index, stateLocation), snapshot.rotation(index, stateRotation),
+                snapshot.velocity(index, stateVelocity), ground, environment, dt);
+        stateRotation.mult(Vector3f.UNIT_Z, stateDirection).normalizeLocal();
+        snapshot.flightState(index).set(flightState);
+    }
+
+    /**
+     * @return the flight state of the last tick, only for the simulation
+     * thread
+     */
+    public FlightState flightState() {
+        return flightState;
+    }
+
+    /**
+     * @return the location of the last tick, only for the simulation thread
+     */
+    public Vector3f flightLocation() {
+        return stateLocation;
+    }
+
+    /**
+     * @return the velocity of the last tick, only for the simulation thread
+     */
+    public Vector3f flightVelocity() {
+        return stateVelocity;
+    }
+
+    /**
+     * @return the direction of the nose at the last tick, only for the
+     * simulation thread
+     */
+    public Vector3f flightDirection() {
+        return stateDirection;
+    }
+
+    /**
+     * @return the instruments showing the last published flight state, only
+     * for the render thread
+     */
+    public Instruments instruments() {
+        return instruments;
+    }
+
+    /**
+     * Updates the scene of the plane from the last published snapshot.
+     *
+     * @param alpha - interpolation between the previous and the current
+     * simulation tick, should be between 0.0f and 1.0f
+     */
+    public void update(FlightSnapshot snapshot, int index, float alpha) {
+        snapshot.applyTo(index, geom.root(), alpha);
+        instruments.update(snapshot.flightState(index));
+        if (shotdown && !burning) {
+            burning = true;
+            if (fireEffect != null) {
+                geom.attachSpatialToRootNode(fireEffect);
+                fireEffect.emitAllParticles();
+            }
+        } else if (!shotdown && burning) {
+            burning = false;
+            if (fireEffect != null) {
+                fireEffect.removeFromParent();
+            }
+        }
         if (!crashed) {
-            gunGroups.parallelStream().forEach(gunGroup -> {
-                gunGroup.firing(firing, geom.root().getLocalTranslation(),
-                        physics.getVVelovity(), geom.root().getWorldRotation());
-            });
+            snapshot.velocity(index, velocity);
+        }
+    }
+
+    /**
+     * Fires the guns for a step of the simulation from the current state of
+     * the physics, the rounds are handed to the projectile manager in one
+     * batch. Should be called from the simulation thread.
+     */
+    public void fireGuns(float dt) {
+        boolean trigger = firing && !crashed;
+        if (trigger) {
+            physics.writeSnapshot(muzzleState, 0);
+            muzzleState.translation(0, muzzleLocation);
+            muzzleState.velocity(0, muzzleVelocity);
+            muzzleState.rotation(0, muzzleRotation);
+        }
+        /* in order, so the projectiles are always added in the same order */
+        for (GunGroup gunGroup : gunGroups) {
+            gunGroup.fire(dt, trigger, muzzleLocation, muzzleVelocity, muzzleRotation, spawns);
+        }
+        projectileManager.spawn(spawns);
+        spawns.clear();
+    }
+
+    /**
+     * @return the ballistics of the first gun, null if the plane has no gun
+     * with a described bullet
+     */
+    public BallisticsTable ballistics() {
+        for (GunGroup gunGroup : gunGroups) {
+            for (GunLocation gunLocation : gunGroup.getGunLocations()) {
+                if (gunLocation.ballistics() != null) {
+                    return gunLocation.ballistics();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Predicts the point the guns have to be aimed at for the rounds fired
+     * now to meet a target keeping its velocity, from the state of the last
+     * tick. Only for the simulation thread.
+     *
+     * @return store, or the target location in it if the plane has no
+     * ballistics
+     */
+    public Vector3f lead(Vector3f targetLocation, Vector3f targetVelocity, Vector3f store) {
+        BallisticsTable table = ballistics();
+        if (table == null) {
+            return store.set(targetLocation);
+        }
+        Vector3f location = stateLocation;
+        float scale = table.speedScale(leadVelocity.set(stateDirection).multLocal(table.muzzleVelocity())
+                .addLocal(stateVelocity).length());
+        float time = 0f;
+        store.set(targetLocation);
+        /* the time of flight to the predicted point converges in a few rounds */
+        for (int i = 0; i < 3; i++) {
+            time = table.timeOfFlight(store.distance(location), location.y, scale);
+            store.set(targetVelocity).multLocal(time).addLocal(targetLocation);
         }
+        store.y += table.drop(time, location.y);
+        return store;
+    }
+
+    /**
+     * @return the rounds left in every gun
+     */
+    public int rounds() {
+        int rounds = 0;
+        for (GunGroup gunGroup : gunGroups) {
+            rounds += gunGroup.rounds();
+        }
+        return rounds;
     }
 
     public void updateSound() {
         if (!crashed) {
             engineSound.play();
-            if (firing) {
+            if (firing && rounds() > 0) {
                 gunSound.play();
             } else {
                 gunSound.stop();
@@ -213,20 +511,102 @@ public class Plane {
      * 1.0f
      */
     public void setThrottle(float throttle) {
-        /* maybe it would be better to normalize instead of throwing an exception*/
-        if (throttle < 0.0f || throttle > 1.0f) {
-            throw new IllegalArgumentException();
-        }
+        checkThrottle(throttle);
+        this.throttle = throttle;
         for (Engine engine : engines) {
             engine.setThrottle(throttle);
         }
+        updateThrust();
         engineSound.setPitch(0.5f + throttle);
     }
 
-    public void setAileron(float aileron) {
-        leftWings.forEach(w -> w.controlAileron(maxAileron * aileron));
-        rightWings.forEach(w -> w.controlAileron(-1f * maxAileron * aileron));
+    /* maybe it would be better to normalize instead of throwing an exception*/
+    private static void checkThrottle(float throttle) {
+        if (throttle < 0.0f || throttle > 1.0f) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Takes the controls of the player from any thread, they are only applied
+     * to the plane by the next applyControls, on the simulation thread.
+     */
+    public void inputThrottle(float throttle) {
+        checkThrottle(throttle);
+        throttleInput = throttle;
+    }
 
+    public void inputAileron(float aileron) {
+        aileronInput = aileron;
+    }
+
+    public void inputElevator(float elevator) {
+        elevatorInput = elevator;
+    }
+
+    public void inputRudder(float rudder) {
+        rudderInput = rudder;
+    }
+
+    /**
+     * Applies the controls of the player that changed since the last call.
+     * Should be called from the simulation thread.
+     */
+    public void applyControls() {
+        float speed = respawnSpeed;
+        if (!Float.isNaN(speed)) {
+            respawnSpeed = Float.NaN;
+            repair(speed);
+        }
+        float input = throttleInput;
+        if (!Float.isNaN(input) && input != throttle) {
+            setThrottle(input);
+        }
+        input = aileronInput;
+        if (!Float.isNaN(input) && input != aileron) {
+            setAileron(input);
+        }
+        input = elevatorInput;
+        if (!Float.isNaN(input) && input != elevator) {
+            setElevator(input);
+        }
+        input = rudderInput;
+        if (!Float.isNaN(input) && input != rudder) {
+            setRudder(input);
+        }
+    }
+
+    /**
+     * Brings back a crashed or shot down plane, repaired and flying forward at
+     * the given speed. Can be called from any thread, the plane is only
+     * repaired by the next applyControls, on the simulation thread.
+     */
+    public void respawn(float kmh) {
+        crashed = false;
+        respawnSpeed = kmh;
+    }
+
+    private void repair(float kmh) {
+        synchronized (pendingEngineDamage) {
+            for (int i = 0; i < engines.size(); i++) {
+                engines.get(i).repair();
+                pendingEngineDamage[i] = 0f;
+            }
+            for (int i = 0; i < pendingAirfoilDamage.length; i++) {
+                physics.airfoilIntegrity(i, 1f);
+                pendingAirfoilDamage[i] = 0f;
+            }
+            pendingDestruction = false;
+        }
+        updateThrust();
+        physics.setSpeedForward(kmh);
+        shotdown = false;
+        crashed = false;
+    }
+
+    public void setAileron(float aileron) {
+        this.aileron = aileron;
+        physics.aileron(maxAileron * aileron);
     }
 
     float maxElevator = 10f;
@@ -239,11 +619,13 @@ public class Plane {
      * @param elevator must be between -1.0 and 1.0
      */
     public void setElevator(float elevator) {
-        horizontalStabilizers.forEach(s -> s.controlAileron(maxElevator * elevator));
+        this.elevator = elevator;
+        physics.elevator(maxElevator * elevator);
     }
 
     public void setRudder(float rudder) {
-        verticalStabilizers.forEach(s -> s.controlAileron(rudder));
+        this.rudder = rudder;
+        physics.rudder(rudder);
     }
 
     public void setHeight(int height) {
@@ -273,27 +655,11 @@ public class Plane {
         return geom.root().getLocalTranslation();
     }
 
-    public Vector3f getDirection() {
-        return geom.root().getLocalRotation().mult(Vector3f.UNIT_Z).normalize();
-    }
-
-    public Vector3f getUp() {
-        return geom.root().getLocalRotation().mult(Vector3f.UNIT_Y).normalize();
-    }
-
-    public float roll() {
-        Vector3f forward = getDirection();
-        Vector3f up = getUp();
-        int i = forward.cross(Vector3f.UNIT_Y).dot(up) > 0 ? 1 : -1;
-        return i * geom.root().getLocalRotation().mult(Vector3f.UNIT_Y).angleBetween(Vector3f.UNIT_Y) * FastMath.RAD_TO_DEG;
-    }
-
-    public Vector2f getLocation2D() {
-        return new Vector2f(geom.root().getLocalTranslation().x, geom.root().getLocalTranslation().z);
-    }
-
-    public String getSpeedKmH() {
-        return physics.getSpeedKmH();
+    /**
+     * @return the velocity of the last published snapshot
+     */
+    public Vector3f getVelocity() {
+        return velocity;
     }
 
     public void setFiring(boolean trigger) {
@@ -307,4 +673,19 @@ public class Plane {
     public boolean crashed() {
         return crashed;
     }
+
+    public boolean shotdown() {
+        return shotdown;
+    }
+
+    public PhysicsLevel physicsLevel() {
+        return physics.physicsLevel();
+    }
+
+    /**
+     * Should be called from the simulation thread.
+     */
+    public void physicsLevel(PhysicsLevel level) {
+        physics.physicsLevel(level);
+    }
 }
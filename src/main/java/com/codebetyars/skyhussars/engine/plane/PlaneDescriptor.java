@@ -25,6 +25,8 @@
  */
 package com.codebetyars.skyhussars.engine.plane;
 
+import com.codebetyars.skyhussars.engine.physics.FlightModel;
+import com.codebetyars.skyhussars.engine.weapons.HitboxModel;
 import java.util.List;
 
 public class PlaneDescriptor {
@@ -40,6 +42,10 @@ public class PlaneDescriptor {
     private float wingArea;
     private List<AirfoilDescriptor> airfolDescriptors;
     private List<GunGroupDescriptor> gunGroupDescriptors;
+    private HitboxDescriptor hitbox;
+    /* compiled on first use, shared by every plane of the type */
+    private volatile FlightModel flightModel;
+    private volatile HitboxModel hitboxModel;
 
     public List<GunGroupDescriptor> getGunGroupDescriptors() {
         return gunGroupDescriptors;
@@ -104,6 +110,40 @@ public class PlaneDescriptor {
     public List<AirfoilDescriptor> getAirfolDescriptors() {
         return airfolDescriptors;
     }
+
+    public HitboxDescriptor getHitbox() {
+        return hitbox;
+    }
+
+    public void setHitbox(HitboxDescriptor hitbox) {
+        this.hitbox = hitbox;
+    }
+
+    /**
+     * @return the hitboxes compiled from this descriptor, null if the type
+     * has none
+     */
+    public HitboxModel hitboxModel() {
+        HitboxModel compiled = hitboxModel;
+        if (compiled == null && hitbox != null) {
+            compiled = new HitboxModel(hitbox, this);
+            hitboxModel = compiled;
+        }
+        return compiled;
+    }
+
+    /**
+     * @return the flight model compiled from this descriptor, the descriptor
+     * should not be changed after the first call
+     */
+    public FlightModel flightModel() {
+        FlightModel compiled = flightModel;
+        if (compiled == null) {
+            compiled = new FlightModel(this);
+            flightModel = compiled;
+        }
+        return compiled;
+    }
     
     
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.plane;
+
+/**
+ * Measured polar of an airfoil at one Mach number. Angles are in degrees from
+ * 0 upwards, the airfoil is symmetric. Beyond the last angle the airfoil is
+ * stalled and produces no lift. Drag is the profile drag of the airfoil, the
+ * induced drag is calculated from the lift.
+ */
+public class PolarDescriptor {
+
+    private float mach;
+    private float[] angles;
+    private float[] lift;
+    private float[] drag;
+
+    public float getMach() {
+        return mach;
+    }
+
+    public void setMach(float mach) {
+        this.mach = mach;
+    }
+
+    public float[] getAngles() {
+        return angles;
+    }
+
+    public void setAngles(float[] angles) {
+        this.angles = angles;
+    }
+
+    public float[] getLift() {
+        return lift;
+    }
+
+    public void setLift(float[] lift) {
+        this.lift = lift;
+    }
+
+    public float[] getDrag() {
+        return drag;
+    }
+
+    public void setDrag(float[] drag) {
+        this.drag = drag;
+    }
+
+}
@@ -25,15 +25,33 @@
  */
 package com.codebetyars.skyhussars.engine.plane.instruments;
 
+import com.codebetyars.skyhussars.engine.physics.FlightState;
+
 public class Instruments {
 
     public Instruments(BarometricAltimeter altimeter) {
         this.altimeter = altimeter;
     }
     private final BarometricAltimeter altimeter;
+    private final FlightState flightState = new FlightState();
 
     public BarometricAltimeter altimeter() {
         return altimeter;
     }
 
+    /**
+     * Shows the published flight state, called from the render thread.
+     */
+    public void update(FlightState published) {
+        flightState.set(published);
+    }
+
+    public FlightState flightState() {
+        return flightState;
+    }
+
+    public float altitude() {
+        return altimeter.getHeight(flightState.altitude());
+    }
+
 }
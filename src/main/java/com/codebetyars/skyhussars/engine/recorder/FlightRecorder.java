@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.codebetyars.skyhussars.engine.recorder.RecorderFormat.*;
+
+/**
+ * Records the state of the planes and the projectiles into an append-only
+ * file for replays and offline analysis.
+ *
+ * The simulation thread only quantises the state into a pooled frame and hands
+ * it over; encoding and writing happens on a background thread into memory
+ * mapped regions of the file. When the writer falls behind and the pool runs
+ * out, frames are dropped instead of stalling the simulation.
+ */
+public class FlightRecorder implements Closeable {
+
+    private final static Logger logger = LoggerFactory.getLogger(FlightRecorder.class);
+
+    private final static int POOL_SIZE = 8;
+    private final static long REGION_SIZE = 8 << 20;
+    private final static RecordedFrame END = new RecordedFrame();
+
+    private final File file;
+    private final FileChannel channel;
+    private final int ticksPerSecond;
+    private final int keyframeInterval;
+    private final BlockingQueue<RecordedFrame> free = new ArrayBlockingQueue<>(POOL_SIZE);
+    private final BlockingQueue<RecordedFrame> written = new ArrayBlockingQueue<>(POOL_SIZE + 1);
+    private final Thread writer;
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+    private volatile IOException failure;
+
+    /* only used by the simulation thread */
+    private final Vector3f vector = new Vector3f();
+    private final Quaternion quaternion = new Quaternion();
+
+    /* only used by the writer thread */
+    private final RecordedFrame previous = new RecordedFrame();
+    private ByteBuffer payload = ByteBuffer.allocate(64 * 1024);
+    private MappedByteBuffer region;
+    private long position = HEADER_SIZE;
+    private long frames;
+    private int keyframes;
+    private long[] keyframeTicks = new long[64];
+    private long[] keyframeOffsets = new long[64];
+
+    /**
+     * @param keyframeInterval - a keyframe is written every that many frames,
+     * replay seeks to the closest keyframe before the tick and decodes from
+     * there
+     */
+    public FlightRecorder(File file, int ticksPerSecond, int keyframeInterval) throws IOException {
+        if (ticksPerSecond <= 0 || keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Tick rate and keyframe interval must be positive");
+        }
+        this.file = file;
+        this.ticksPerSecond = ticksPerSecond;
+        this.keyframeInterval = keyframeInterval;
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        writeHeader();
+        for (int i = 0; i < POOL_SIZE; i++) {
+            free.add(new RecordedFrame());
+        }
+        writer = new Thread(this::writeFrames, "flight-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public File file() {
+        return file;
+    }
+
+    /**
+     * @return the number of frames dropped because the writer fell behind
+     */
+    public long droppedFrames() {
+        return dropped.get();
+    }
+
+    /**
+     * Records the state of a tick. Called by the simulation thread, never
+     * blocks.
+     *
+     * @param projectiles - can be null if projectiles are not recorded
+     * @return false if the frame was dropped
+     */
+    public boolean record(long tick, FlightSnapshot planes, ProjectileManager projectiles) {
+        if (closed || failure != null) {
+            return false;
+        }
+        RecordedFrame frame = free.poll();
+        if (frame == null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        frame.tick = tick;
+        frame.planeCount(planes.capacity());
+        int[] values = frame.planes;
+        for (int i = 0, v = 0; i < frame.planeCount; i++) {
+            planes.translation(i, vector);
+            values[v++] = quantise(vector.x, POSITION_SCALE);
+            values[v++] = quantise(vector.y, POSITION_SCALE);
+            values[v++] = quantise(vector.z, POSITION_SCALE);
+            planes.rotation(i, quaternion);
+            values[v++] = quantise(quaternion.getX(), ROTATION_SCALE);
+            values[v++] = quantise(quaternion.getY(), ROTATION_SCALE);
+            values[v++] = quantise(quaternion.getZ(), ROTATION_SCALE);
+            values[v++] = quantise(quaternion.getW(), ROTATION_SCALE);
+            planes.velocity(i, vector);
+            values[v++] = quantise(vector.x, VELOCITY_SCALE);
+            values[v++] = quantise(vector.y, VELOCITY_SCALE);
+            values[v++] = quantise(vector.z, VELOCITY_SCALE);
+        }
+        frame.projectileCount(projectiles == null ? 0 : projectiles.projectileCount());
+        values = frame.projectiles;
+        for (int i = 0, v = 0; i < frame.projectileCount; i++) {
+            projectiles.projectileLocation(i, vector);
+            values[v++] = quantise(vector.x, POSITION_SCALE);
+            values[v++] = quantise(vector.y, POSITION_SCALE);
+            values[v++] = quantise(vector.z, POSITION_SCALE);
+            projectiles.projectileVelocity(i, vector);
+            values[v++] = quantise(vector.x, VELOCITY_SCALE);
+            values[v++] = quantise(vector.y, VELOCITY_SCALE);
+            values[v++] = quantise(vector.z, VELOCITY_SCALE);
+        }
+        written.add(frame);
+        return true;
+    }
+
+    private void writeFrames() {
+        try {
+            RecordedFrame frame;
+            while ((frame = written.take()) != END) {
+                if (failure == null) {
+                    write(frame);
+                }
+                free.add(frame);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            logger.error("Unable to write flight recording " + file, ex);
+            failure = ex;
+        }
+    }
+
+    private void write(RecordedFrame frame) throws IOException {
+        boolean keyframe = frames % keyframeInterval == 0 || frame.planeCount != previous.planeCount;
+        int planeValues = frame.planeCount * PLANE_VALUES;
+        int projectileValues = frame.projectileCount * PROJECTILE_VALUES;
+        int maxSize = (planeValues + projectileValues + 2) * 5;
+        if (payload.capacity() < maxSize) {
+            payload = ByteBuffer.allocate(maxSize);
+        }
+        payload.clear();
+        putVarint(payload, frame.planeCount);
+        for (int i = 0; i < planeValues; i++) {
+            putVarint(payload, keyframe ? frame.planes[i] : frame.planes[i] - previous.planes[i]);
+        }
+        putVarint(payload, frame.projectileCount);
+        for (int i = 0; i < projectileValues; i++) {
+            putVarint(payload, frame.projectiles[i]);
+        }
+        payload.flip();
+        int length = FRAME_HEADER_SIZE + payload.remaining();
+        if (region == null || region.remaining() < length) {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(REGION_SIZE, length));
+        }
+        if (keyframe) {
+            addKeyframe(frame.tick, position);
+        }
+        region.putLong(frame.tick).put(keyframe ? KEYFRAME : DELTA).putInt(payload.remaining()).put(payload);
+        position += length;
+        frames++;
+        previous.copyPlanesFrom(frame);
+    }
+
+    private void addKeyframe(long tick, long offset) {
+        if (keyframes == keyframeTicks.length) {
+            keyframeTicks = Arrays.copyOf(keyframeTicks, keyframes * 2);
+            keyframeOffsets = Arrays.copyOf(keyframeOffsets, keyframes * 2);
+        }
+        keyframeTicks[keyframes] = tick;
+        keyframeOffsets[keyframes] = offset;
+        keyframes++;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC_OFFSET, MAGIC)
+                .putInt(VERSION_OFFSET, VERSION)
+                .putInt(TICKS_PER_SECOND_OFFSET, ticksPerSecond)
+                .putInt(KEYFRAME_INTERVAL_OFFSET, keyframeInterval)
+                .putLong(FRAME_COUNT_OFFSET, frames)
+                .putLong(END_OFFSET, position)
+                .putLong(INDEX_OFFSET, closed ? position : 0)
+                .putInt(INDEX_COUNT_OFFSET, closed ? keyframes : 0);
+        channel.write(header, 0);
+    }
+
+    private void writeIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(keyframes * 16);
+        for (int i = 0; i < keyframes; i++) {
+            index.putLong(keyframeTicks[i]).putLong(keyframeOffsets[i]);
+        }
+        index.flip();
+        channel.write(index, position);
+    }
+
+    /**
+     * Writes the pending frames and the keyframe index and cuts off the unused
+     * tail of the last mapped region. Until the recording is closed replay has
+     * to scan the frames to find the keyframes.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        written.add(END);
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while closing flight recording " + file, ex);
+        }
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            if (region != null) {
+                region.force();
+            }
+            writeIndex();
+            writeHeader();
+            channel.truncate(position + keyframes * 16);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+        logger.info("Recorded {} frames to {}, dropped {}", frames, file, dropped.get());
+    }
+}
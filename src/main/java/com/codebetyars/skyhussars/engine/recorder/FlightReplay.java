@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.codebetyars.skyhussars.engine.recorder.RecorderFormat.*;
+
+/**
+ * Plays back a recording written by the FlightRecorder. Seeking jumps to the
+ * closest keyframe through the index and only decodes the frames after it.
+ */
+public class FlightReplay implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final int ticksPerSecond;
+    private final int keyframeInterval;
+    private final long[] keyframeTicks;
+    private final long[] keyframeOffsets;
+    private final RecordedFrame frame = new RecordedFrame();
+    private int next = -1;
+    private boolean decoded;
+
+    public FlightReplay(File file) throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Not a flight recording: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Recordings over 2 GB are not supported: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (data.getInt(MAGIC_OFFSET) != MAGIC) {
+                throw new IOException("Not a flight recording: " + file);
+            }
+            if (data.getInt(VERSION_OFFSET) != VERSION) {
+                throw new IOException("Unsupported flight recording version " + data.getInt(VERSION_OFFSET) + ": " + file);
+            }
+            ticksPerSecond = data.getInt(TICKS_PER_SECOND_OFFSET);
+            keyframeInterval = data.getInt(KEYFRAME_INTERVAL_OFFSET);
+            long indexOffset = data.getLong(INDEX_OFFSET);
+            if (indexOffset > 0) {
+                int count = data.getInt(INDEX_COUNT_OFFSET);
+                keyframeTicks = new long[count];
+                keyframeOffsets = new long[count];
+                for (int i = 0; i < count; i++) {
+                    keyframeTicks[i] = data.getLong((int) indexOffset + i * 16);
+                    keyframeOffsets[i] = data.getLong((int) indexOffset + i * 16 + 8);
+                }
+            } else {
+                long[][] keyframes = scanKeyframes();
+                keyframeTicks = keyframes[0];
+                keyframeOffsets = keyframes[1];
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        if (keyframeOffsets.length > 0) {
+            next = (int) keyframeOffsets[0];
+        }
+    }
+
+    /* the recording was not closed, the frames end where the zeroes start */
+    private long[][] scanKeyframes() {
+        long[] ticks = new long[64];
+        long[] offsets = new long[64];
+        int count = 0;
+        int offset = HEADER_SIZE;
+        while (offset + FRAME_HEADER_SIZE <= data.limit()) {
+            byte kind = data.get(offset + 8);
+            int length = data.getInt(offset + 9);
+            if ((kind != KEYFRAME && kind != DELTA) || offset + FRAME_HEADER_SIZE + length > data.limit()) {
+                break;
+            }
+            if (kind == KEYFRAME) {
+                if (count == ticks.length) {
+                    ticks = Arrays.copyOf(ticks, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                ticks[count] = data.getLong(offset);
+                offsets[count] = offset;
+                count++;
+            }
+            offset += FRAME_HEADER_SIZE + length;
+        }
+        return new long[][]{Arrays.copyOf(ticks, count), Arrays.copyOf(offsets, count)};
+    }
+
+    public int ticksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public int keyframeInterval() {
+        return keyframeInterval;
+    }
+
+    /**
+     * @return the tick of the current frame, -1 before the first frame
+     */
+    public long tick() {
+        return decoded ? frame.tick : -1;
+    }
+
+    /**
+     * Moves to the next frame.
+     *
+     * @return false at the end of the recording
+     */
+    public boolean next() {
+        if (next < 0 || next + FRAME_HEADER_SIZE > data.limit()) {
+            return false;
+        }
+        byte kind = data.get(next + 8);
+        int length = data.getInt(next + 9);
+        if ((kind != KEYFRAME && kind != DELTA) || next + FRAME_HEADER_SIZE + length > data.limit()
+                || (kind == DELTA && !decoded)) {
+            return false;
+        }
+        decode(next, kind == KEYFRAME);
+        next += FRAME_HEADER_SIZE + length;
+        return true;
+    }
+
+    /**
+     * Moves to the last frame at or before the tick.
+     *
+     * @return false if the recording starts after the tick
+     */
+    public boolean seek(long tick) {
+        int keyframe = Arrays.binarySearch(keyframeTicks, tick);
+        if (keyframe < 0) {
+            keyframe = -keyframe - 2;
+        }
+        if (keyframe < 0) {
+            return false;
+        }
+        decoded = false;
+        next = (int) keyframeOffsets[keyframe];
+        next();
+        while (next + FRAME_HEADER_SIZE <= data.limit() && data.get(next + 8) == DELTA
+                && data.getLong(next) <= tick) {
+            next();
+        }
+        return true;
+    }
+
+    private void decode(int offset, boolean keyframe) {
+        data.position(offset + FRAME_HEADER_SIZE);
+        frame.tick = data.getLong(offset);
+        frame.planeCount(getVarint(data));
+        int planeValues = frame.planeCount * PLANE_VALUES;
+        for (int i = 0; i < planeValues; i++) {
+            frame.planes[i] = keyframe ? getVarint(data) : frame.planes[i] + getVarint(data);
+        }
+        frame.projectileCount(getVarint(data));
+        int projectileValues = frame.projectileCount * PROJECTILE_VALUES;
+        for (int i = 0; i < projectileValues; i++) {
+            frame.projectiles[i] = getVarint(data);
+        }
+        decoded = true;
+    }
+
+    public int planeCount() {
+        return frame.planeCount;
+    }
+
+    public Vector3f translation(int plane, Vector3f store) {
+        int v = plane * PLANE_VALUES;
+        return store.set(frame.planes[v] / POSITION_SCALE, frame.planes[v + 1] / POSITION_SCALE,
+                frame.planes[v + 2] / POSITION_SCALE);
+    }
+
+    public Quaternion rotation(int plane, Quaternion store) {
+        int v = plane * PLANE_VALUES + 3;
+        store.set(frame.planes[v] / ROTATION_SCALE, frame.planes[v + 1] / ROTATION_SCALE,
+                frame.planes[v + 2] / ROTATION_SCALE, frame.planes[v + 3] / ROTATION_SCALE);
+        return store.normalizeLocal();
+    }
+
+    public Vector3f velocity(int plane, Vector3f store) {
+        int v = plane * PLANE_VALUES + 7;
+        return store.set(frame.planes[v] / VELOCITY_SCALE, frame.planes[v + 1] / VELOCITY_SCALE,
+                frame.planes[v + 2] / VELOCITY_SCALE);
+    }
+
+    public int projectileCount() {
+        return frame.projectileCount;
+    }
+
+    public Vector3f projectileLocation(int projectile, Vector3f store) {
+        int v = projectile * PROJECTILE_VALUES;
+        return store.set(frame.projectiles[v] / POSITION_SCALE, frame.projectiles[v + 1] / POSITION_SCALE,
+                frame.projectiles[v + 2] / POSITION_SCALE);
+    }
+
+    public Vector3f projectileVelocity(int projectile, Vector3f store) {
+        int v = projectile * PROJECTILE_VALUES + 3;
+        return store.set(frame.projectiles[v] / VELOCITY_SCALE, frame.projectiles[v + 1] / VELOCITY_SCALE,
+                frame.projectiles[v + 2] / VELOCITY_SCALE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
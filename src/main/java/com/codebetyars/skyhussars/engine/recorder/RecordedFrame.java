@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import java.util.Arrays;
+
+import static com.codebetyars.skyhussars.engine.recorder.RecorderFormat.PLANE_VALUES;
+import static com.codebetyars.skyhussars.engine.recorder.RecorderFormat.PROJECTILE_VALUES;
+
+/**
+ * The quantised state of one tick, reused between the simulation and the
+ * writer thread.
+ */
+class RecordedFrame {
+
+    long tick;
+    int planeCount;
+    int[] planes = new int[0];
+    int projectileCount;
+    int[] projectiles = new int[0];
+
+    void planeCount(int planeCount) {
+        this.planeCount = planeCount;
+        if (planes.length < planeCount * PLANE_VALUES) {
+            planes = Arrays.copyOf(planes, planeCount * PLANE_VALUES);
+        }
+    }
+
+    void projectileCount(int projectileCount) {
+        this.projectileCount = projectileCount;
+        if (projectiles.length < projectileCount * PROJECTILE_VALUES) {
+            projectiles = Arrays.copyOf(projectiles, Math.max(projectileCount * PROJECTILE_VALUES, projectiles.length * 2));
+        }
+    }
+
+    /* the projectiles are not delta encoded, so only the planes are kept */
+    void copyPlanesFrom(RecordedFrame frame) {
+        tick = frame.tick;
+        planeCount(frame.planeCount);
+        System.arraycopy(frame.planes, 0, planes, 0, planeCount * PLANE_VALUES);
+    }
+}
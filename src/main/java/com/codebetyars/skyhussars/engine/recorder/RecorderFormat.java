@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of a recording. A fixed header is followed by frames, each frame is
+ * the tick, the kind of the frame, the length of the payload and the payload.
+ * The payload is the quantised state as zigzag varints. The planes are
+ * absolute in keyframes and relative to the previous frame in delta frames,
+ * the projectiles are always absolute as the store moves the last round into
+ * the place of an expired one, so the same index is not the same round from
+ * frame to frame. The index of the keyframes follows the last frame once the
+ * recording is closed.
+ */
+final class RecorderFormat {
+
+    static final int MAGIC = 0x53484652;
+    static final int VERSION = 2;
+
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int TICKS_PER_SECOND_OFFSET = 8;
+    static final int KEYFRAME_INTERVAL_OFFSET = 12;
+    static final int FRAME_COUNT_OFFSET = 16;
+    static final int END_OFFSET = 24;
+    static final int INDEX_OFFSET = 32;
+    static final int INDEX_COUNT_OFFSET = 40;
+
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    /* tick, kind, payload length */
+    static final int FRAME_HEADER_SIZE = 8 + 1 + 4;
+
+    /* translation xyz, rotation xyzw, velocity xyz */
+    static final int PLANE_VALUES = 10;
+    /* location xyz, velocity xyz */
+    static final int PROJECTILE_VALUES = 6;
+
+    /* centimeters, 1/32767 and centimeters per second */
+    static final float POSITION_SCALE = 100f;
+    static final float ROTATION_SCALE = 32767f;
+    static final float VELOCITY_SCALE = 100f;
+
+    private RecorderFormat() {
+    }
+
+    static int quantise(float value, float scale) {
+        return Math.round(value * scale);
+    }
+
+    static void putVarint(ByteBuffer buffer, int value) {
+        int zigzag = (value << 1) ^ (value >> 31);
+        while ((zigzag & ~0x7f) != 0) {
+            buffer.put((byte) ((zigzag & 0x7f) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.put((byte) zigzag);
+    }
+
+    static int getVarint(ByteBuffer buffer) {
+        int zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigzag |= (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+}
@@ -88,7 +88,12 @@ public class SoundManager implements InitializingBean {
         });
     }
 
-    public void update() {
+    /**
+     * Sorts the sounds by their distance from the listener, only the closest
+     * ones are played. The order changes slowly, it does not have to be sorted
+     * every frame.
+     */
+    public void prioritise() {
         if (requestedHandlers.size() > 20) {
             requestedHandlers.sort((handler1, handler2) -> {
                 float dist1 = handler1.audioNode().getWorldTranslation().distance(listener.getLocation());
@@ -100,6 +105,9 @@ public class SoundManager implements InitializingBean {
                 }
             });
         }
+    }
+
+    public void update() {
         requestedHandlers.stream().limit(20).forEach(handler -> handler.update());
         requestedHandlers.stream().skip(20).forEach(handler -> {
             handler.stop();
@@ -23,49 +23,42 @@
  * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
  * POSSIBILITY OF SUCH DAMAGE.
  */
-package com.codebetyars.skyhussars.engine.weapons;
 
-import com.codebetyars.skyhussars.engine.plane.BulletDescriptor;
-import com.jme3.bounding.BoundingVolume;
-import com.jme3.math.Vector3f;
+package com.codebetyars.skyhussars.engine.telemetry;
 
-public class Bullet extends Projectile {
+import java.io.IOException;
+import java.io.Writer;
 
-    private Vector3f vStartLocation;
-    private Vector3f vLocation;
-    private Vector3f vVelocity;
-    private BulletDescriptor bulletDescriptor;
+/**
+ * Writes the samples as CSV: tick, source id, source name, metric and value.
+ */
+public class CsvTelemetrySink implements TelemetrySink {
 
-    public Bullet(Vector3f vLocation, Vector3f vVelocity, BulletDescriptor bulletDescriptor) {
-        this.vStartLocation = vLocation.clone();
-        /*temp fix to avoid self shooting*/
-        this.vLocation = vLocation.add(vVelocity.normalize().mult(10));
-        this.vVelocity = vVelocity.clone();
-        this.bulletDescriptor = bulletDescriptor;
-    }
+    private final Telemetry telemetry;
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(96);
 
-    @Override
-    public void update(float tpf) {
-        vLocation = vLocation.add(vVelocity.mult(tpf));
+    public CsvTelemetrySink(Telemetry telemetry, Writer writer) throws IOException {
+        this.telemetry = telemetry;
+        this.writer = writer;
+        writer.write("tick,source,name,metric,value\n");
     }
 
     @Override
-    public Vector3f getLocation() {
-        return vLocation;
+    public void sample(long tick, int source, Metric metric, float value) throws IOException {
+        line.setLength(0);
+        line.append(tick).append(',').append(source).append(',').append(telemetry.sourceName(source)).append(',')
+                .append(metric).append(',').append(value).append('\n');
+        writer.append(line);
     }
 
     @Override
-    public Vector3f getVelocity() {
-        return vVelocity;
+    public void flush() throws IOException {
+        writer.flush();
     }
 
     @Override
-    public BoundingVolume getHitbox() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override 
-    public boolean isLive() {
-        return vStartLocation.distance(vLocation) <= 2000;
+    public void close() throws IOException {
+        writer.close();
     }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.telemetry;
+
+public enum Metric {
+
+    /* degrees */
+    ANGLE_OF_ATTACK,
+    /* degrees */
+    ROLL,
+    /* m/s */
+    SPEED,
+    /* m */
+    ALTITUDE,
+    /* m/s^2 */
+    LINEAR_ACCELERATION,
+    /* substeps of the last physics step */
+    SUBSTEPS,
+    /* ordinal of the PhysicsLevel */
+    PHYSICS_LEVEL,
+    /* N */
+    LIFT,
+    /* N */
+    INDUCED_DRAG,
+    /* cosine between the direction of flight and the direction to the target */
+    TARGET_ALIGNMENT,
+    /* live projectiles */
+    PROJECTILES,
+    /* projectiles so far that did not fit into the store */
+    PROJECTILE_OVERFLOWS,
+    /* projectiles so far that ended in the ground */
+    PROJECTILE_IMPACTS
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.telemetry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Numeric diagnostics of the hot paths. Samples go into a preallocated ring
+ * buffer and a background thread drains them to a sink, so sampling neither
+ * allocates nor waits for IO. Hot paths ask sampling() first and only compute
+ * what they sample on the sampled ticks, nothing at all while the telemetry is
+ * stopped. When the ring is full, samples are dropped and counted.
+ *
+ * A sample is a source, e.g. a plane or an airfoil, a metric and a value.
+ */
+public class Telemetry {
+
+    private final static Logger logger = LoggerFactory.getLogger(Telemetry.class);
+
+    private static final long DRAIN_INTERVAL_NANOS = 50_000_000L;
+    private static Telemetry shared;
+
+    private final int mask;
+    private final long[] ticks;
+    private final int[] sources;
+    private final Metric[] metrics;
+    private final float[] values;
+    /* sequence + 1 of the sample in each slot, once the sample is complete */
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final List<String> sourceNames = new CopyOnWriteArrayList<>();
+
+    private volatile boolean active;
+    private volatile boolean sampling;
+    private volatile long tick;
+    private volatile int interval = 1;
+    private TelemetrySink sink;
+    private Thread drain;
+
+    /**
+     * @param capacity - samples in the ring, a power of two
+     */
+    public Telemetry(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two, was " + capacity);
+        }
+        mask = capacity - 1;
+        ticks = new long[capacity];
+        sources = new int[capacity];
+        metrics = new Metric[capacity];
+        values = new float[capacity];
+        published = new AtomicLongArray(capacity);
+    }
+
+    public static synchronized Telemetry shared() {
+        if (shared == null) {
+            shared = new Telemetry(1 << 16);
+        }
+        return shared;
+    }
+
+    /**
+     * @return the id of a new source of samples
+     */
+    public synchronized int source(String name) {
+        sourceNames.add(name);
+        return sourceNames.size() - 1;
+    }
+
+    public String sourceName(int source) {
+        return source >= 0 && source < sourceNames.size() ? sourceNames.get(source) : "unknown";
+    }
+
+    /**
+     * Called by the simulation at the start of every tick.
+     */
+    public void tick(long tick) {
+        this.tick = tick;
+        sampling = active && tick % interval == 0;
+    }
+
+    /**
+     * @return true if the current tick should be sampled
+     */
+    public boolean sampling() {
+        return sampling;
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+
+    public void sample(int source, Metric metric, float value) {
+        if (!active) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - drained.get() > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        int slot = (int) (sequence & mask);
+        ticks[slot] = tick;
+        sources[slot] = source;
+        metrics[slot] = metric;
+        values[slot] = value;
+        published.lazySet(slot, sequence + 1);
+    }
+
+    /**
+     * Starts sampling every interval ticks and draining the samples to the
+     * sink on a background thread.
+     */
+    public synchronized void start(TelemetrySink sink, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("Sampling interval must be positive");
+        }
+        if (active) {
+            throw new IllegalStateException("Telemetry is already running");
+        }
+        this.sink = sink;
+        this.interval = interval;
+        active = true;
+        drain = new Thread(this::drainUntilStopped, "SkyHussars-Telemetry");
+        drain.setDaemon(true);
+        drain.start();
+    }
+
+    /**
+     * Stops sampling, drains the rest of the samples and closes the sink.
+     */
+    public synchronized void stop() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        sampling = false;
+        drain.interrupt();
+        try {
+            drain.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        drain = null;
+        try {
+            sink.close();
+        } catch (IOException ex) {
+            logger.error("Unable to close the telemetry sink", ex);
+        }
+        sink = null;
+        if (dropped.get() > 0) {
+            logger.warn("Telemetry dropped {} samples", dropped.get());
+        }
+    }
+
+    private void drainUntilStopped() {
+        try {
+            while (active) {
+                if (drain(sink) == 0) {
+                    LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+                }
+            }
+            drain(sink);
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Telemetry sink failed, telemetry stopped", ex);
+            active = false;
+            sampling = false;
+        }
+    }
+
+    /**
+     * Passes every complete sample to the sink. Only one thread may drain.
+     *
+     * @return the number of samples drained
+     */
+    int drain(TelemetrySink sink) throws IOException {
+        long sequence = drained.get();
+        long start = sequence;
+        while (true) {
+            int slot = (int) (sequence & mask);
+            if (published.get(slot) != sequence + 1) {
+                break;
+            }
+            sink.sample(ticks[slot], sources[slot], metrics[slot], values[slot]);
+            sequence++;
+            drained.lazySet(sequence);
+        }
+        if (sequence > start) {
+            sink.flush();
+        }
+        return (int) (sequence - start);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.physics.environment.Atmosphere;
+import com.codebetyars.skyhussars.engine.plane.BulletDescriptor;
+
+/**
+ * The flight of a bullet type fired level at its muzzle velocity, integrated
+ * once with drag and gravity and sampled against the time of flight: the
+ * distance along the line of departure, the speed along it, and the drop
+ * below it. There is a row for each of a few altitudes of the atmosphere, a
+ * query interpolates in time and altitude.
+ *
+ * A round launched faster or slower than the muzzle velocity, e.g. with the
+ * speed of the plane added, follows the same curve on a scaled clock: with
+ * quadratic drag the distance at t is the distance of the table at t times
+ * the speed scale. The drop is taken at the time of flight itself.
+ */
+public class BallisticsTable {
+
+    /* s between two samples */
+    public static final float STEP = 1f / 60f;
+    /* the rows are ROW_HEIGHT m from each other from sea level */
+    private static final int ROWS = 5;
+    private static final float ROW_HEIGHT = 3000f;
+    /* s, the longest flight tabulated */
+    private static final float MAX_TIME = 10f;
+    private static final int SUBSTEPS = 16;
+
+    private final float muzzleVelocity;
+    private final int samples;
+    /* row after row, each row has the samples of one altitude */
+    private final float[] distance;
+    private final float[] speed;
+    private final float[] drop;
+    private final float[] dropSpeed;
+
+    /**
+     * @param range - m, the table covers the flight until the range is reached
+     * in the densest air
+     * @param gravity - m/s2
+     */
+    public BallisticsTable(BulletDescriptor bullet, float muzzleVelocity, float range, float gravity,
+            Atmosphere atmosphere) {
+        if (bullet.getCaliber() <= 0f || bullet.getMass() <= 0f || bullet.getDragCoefficient() < 0f) {
+            throw new IllegalArgumentException("Bullet " + bullet.getName()
+                    + " needs a positive caliber and mass and a drag coefficient of at least 0");
+        }
+        if (muzzleVelocity <= 0f) {
+            throw new IllegalArgumentException("Muzzle velocity of " + bullet.getName() + " must be positive");
+        }
+        this.muzzleVelocity = muzzleVelocity;
+        float radius = bullet.getCaliber() / 2f;
+        /* drag deceleration per air density and speed squared */
+        float drag = bullet.getDragCoefficient() * (float) Math.PI * radius * radius / (2f * bullet.getMass());
+        samples = samplesToRange(range, muzzleVelocity, drag * atmosphere.airDensity(0f), gravity);
+        distance = new float[ROWS * samples];
+        speed = new float[ROWS * samples];
+        drop = new float[ROWS * samples];
+        dropSpeed = new float[ROWS * samples];
+        for (int row = 0; row < ROWS; row++) {
+            integrate(row, muzzleVelocity, drag * atmosphere.airDensity(row * ROW_HEIGHT), gravity);
+        }
+    }
+
+    private static int samplesToRange(float range, float muzzleVelocity, float drag, float gravity) {
+        float x = 0f, vx = muzzleVelocity, vy = 0f;
+        float h = STEP / SUBSTEPS;
+        int steps = 0;
+        while (x < range && steps < MAX_TIME / h) {
+            float v = (float) Math.sqrt(vx * vx + vy * vy);
+            vx -= drag * v * vx * h;
+            vy -= (drag * v * vy + gravity) * h;
+            x += vx * h;
+            steps++;
+        }
+        /* one more sample, so the range is inside the table */
+        return steps / SUBSTEPS + 2;
+    }
+
+    private void integrate(int row, float muzzleVelocity, float drag, float gravity) {
+        float x = 0f, y = 0f, vx = muzzleVelocity, vy = 0f;
+        float h = STEP / SUBSTEPS;
+        int offset = row * samples;
+        for (int i = 0; i < samples; i++) {
+            distance[offset + i] = x;
+            speed[offset + i] = vx;
+            drop[offset + i] = -y;
+            dropSpeed[offset + i] = -vy;
+            for (int j = 0; j < SUBSTEPS; j++) {
+                float v = (float) Math.sqrt(vx * vx + vy * vy);
+                vx -= drag * v * vx * h;
+                vy -= (drag * v * vy + gravity) * h;
+                x += vx * h;
+                y += vy * h;
+            }
+        }
+    }
+
+    public float muzzleVelocity() {
+        return muzzleVelocity;
+    }
+
+    /**
+     * @return s, the longest time of flight in the table
+     */
+    public float duration() {
+        return (samples - 1) * STEP;
+    }
+
+    /**
+     * @return the launch speed over the muzzle velocity, the rate of the
+     * clock of the round on the table
+     */
+    public float speedScale(float launchSpeed) {
+        return launchSpeed / muzzleVelocity;
+    }
+
+    /**
+     * @return m along the line of departure after the time of flight
+     */
+    public float distance(float time, float altitude, float speedScale) {
+        return lookup(distance, time * speedScale, altitude);
+    }
+
+    /**
+     * @return m/s along the line of departure after the time of flight
+     */
+    public float speed(float time, float altitude, float speedScale) {
+        return lookup(speed, time * speedScale, altitude) * speedScale;
+    }
+
+    /**
+     * @return m below the line of departure after the time of flight
+     */
+    public float drop(float time, float altitude) {
+        return lookup(drop, time, altitude);
+    }
+
+    /**
+     * @return m/s downwards after the time of flight
+     */
+    public float dropSpeed(float time, float altitude) {
+        return lookup(dropSpeed, time, altitude);
+    }
+
+    /**
+     * @return s until the round is the distance away along its line of
+     * departure, the duration of the table if it never gets there
+     */
+    public float timeOfFlight(float distance, float altitude, float speedScale) {
+        float a = rowPosition(altitude);
+        int row = Math.min((int) a, ROWS - 2);
+        float weight = a - row;
+        int low = 0;
+        int high = samples - 1;
+        if (interpolate(this.distance, row, high, weight) < distance) {
+            return duration() / speedScale;
+        }
+        while (high - low > 1) {
+            int middle = (low + high) >>> 1;
+            if (interpolate(this.distance, row, middle, weight) < distance) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        float from = interpolate(this.distance, row, low, weight);
+        float to = interpolate(this.distance, row, high, weight);
+        float fraction = to > from ? (distance - from) / (to - from) : 0f;
+        return (low + fraction) * STEP / speedScale;
+    }
+
+    private float lookup(float[] column, float time, float altitude) {
+        float a = rowPosition(altitude);
+        int row = Math.min((int) a, ROWS - 2);
+        float weight = a - row;
+        float t = Math.max(0f, Math.min(time / STEP, samples - 1));
+        int sample = Math.min((int) t, samples - 2);
+        float fraction = t - sample;
+        float from = interpolate(column, row, sample, weight);
+        return from + (interpolate(column, row, sample + 1, weight) - from) * fraction;
+    }
+
+    private float interpolate(float[] column, int row, int sample, float weight) {
+        float low = column[row * samples + sample];
+        return low + (column[(row + 1) * samples + sample] - low) * weight;
+    }
+
+    /* the row of the altitude with the fraction towards the next one, clamped to the table */
+    private static float rowPosition(float altitude) {
+        return Math.max(0f, Math.min(altitude / ROW_HEIGHT, ROWS - 1));
+    }
+}
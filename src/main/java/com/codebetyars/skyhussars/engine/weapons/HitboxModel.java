@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.HitboxDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hitboxes of a plane type compiled for the collision check, shared by
+ * every plane of the type. The hitboxes are numbered breadth first from the
+ * outermost one, so the children of a hitbox are next to each other.
+ */
+public class HitboxModel {
+
+    final int count;
+    final boolean[] sphere;
+    final float[] cx, cy, cz;
+    /* box extents, the radius of a sphere in ex */
+    final float[] ex, ey, ez;
+    final int[] firstChild;
+    final int[] childCount;
+    private final String[] names;
+    private final int[] airfoil;
+    private final int[] engine;
+    private final float[] damage;
+    private final float boundingRadius;
+
+    public HitboxModel(HitboxDescriptor root, PlaneDescriptor planeDescriptor) {
+        List<HitboxDescriptor> hitboxes = new ArrayList<>();
+        hitboxes.add(root);
+        count = countHitboxes(root);
+        sphere = new boolean[count];
+        cx = new float[count];
+        cy = new float[count];
+        cz = new float[count];
+        ex = new float[count];
+        ey = new float[count];
+        ez = new float[count];
+        firstChild = new int[count];
+        childCount = new int[count];
+        names = new String[count];
+        airfoil = new int[count];
+        engine = new int[count];
+        damage = new float[count];
+        for (int i = 0; i < count; i++) {
+            HitboxDescriptor hitbox = hitboxes.get(i);
+            compile(i, hitbox, planeDescriptor);
+            firstChild[i] = hitboxes.size();
+            childCount[i] = hitbox.getChildren() == null ? 0 : hitbox.getChildren().size();
+            if (childCount[i] > 0) {
+                hitboxes.addAll(hitbox.getChildren());
+            }
+        }
+        boundingRadius = sphere[0] ? ex[0] : (float) Math.sqrt(ex[0] * ex[0] + ey[0] * ey[0] + ez[0] * ez[0]);
+    }
+
+    private static int countHitboxes(HitboxDescriptor hitbox) {
+        int hitboxes = 1;
+        if (hitbox.getChildren() != null) {
+            for (HitboxDescriptor child : hitbox.getChildren()) {
+                hitboxes += countHitboxes(child);
+            }
+        }
+        return hitboxes;
+    }
+
+    private void compile(int i, HitboxDescriptor hitbox, PlaneDescriptor planeDescriptor) {
+        names[i] = hitbox.getName();
+        if (hitbox.getCenter() != null) {
+            cx[i] = hitbox.getCenter().x;
+            cy[i] = hitbox.getCenter().y;
+            cz[i] = hitbox.getCenter().z;
+        }
+        if (hitbox.getRadius() > 0f) {
+            sphere[i] = true;
+            ex[i] = hitbox.getRadius();
+        } else if (hitbox.getExtent() != null) {
+            ex[i] = hitbox.getExtent().x;
+            ey[i] = hitbox.getExtent().y;
+            ez[i] = hitbox.getExtent().z;
+        } else {
+            throw new IllegalArgumentException("Hitbox " + hitbox.getName() + " of " + planeDescriptor.getName()
+                    + " has neither a radius nor an extent");
+        }
+        airfoil[i] = airfoilIndex(hitbox.getAirfoil(), planeDescriptor);
+        engine[i] = -1;
+        if (hitbox.getEngine() != null) {
+            if (hitbox.getEngine() < 0 || hitbox.getEngine() >= planeDescriptor.getEngineLocations().size()) {
+                throw new IllegalArgumentException("Hitbox " + hitbox.getName() + " of " + planeDescriptor.getName()
+                        + " covers a missing engine: " + hitbox.getEngine());
+            }
+            engine[i] = hitbox.getEngine();
+        }
+        damage[i] = hitbox.getDamage();
+    }
+
+    private static int airfoilIndex(String name, PlaneDescriptor planeDescriptor) {
+        if (name == null) {
+            return -1;
+        }
+        List<AirfoilDescriptor> airfoils = planeDescriptor.getAirfolDescriptors();
+        for (int i = 0; i < airfoils.size(); i++) {
+            if (name.equals(airfoils.get(i).getName())) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Hitbox of " + planeDescriptor.getName() + " covers a missing airfoil: " + name);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @return the radius of a sphere around the outermost hitbox, around its
+     * center
+     */
+    public float boundingRadius() {
+        return boundingRadius;
+    }
+
+    public String name(int hitbox) {
+        return names[hitbox];
+    }
+
+    /**
+     * @return the index of the airfoil covered in the airfoils of the plane,
+     * -1 if none
+     */
+    public int airfoil(int hitbox) {
+        return airfoil[hitbox];
+    }
+
+    /**
+     * @return the index of the engine covered, -1 if none
+     */
+    public int engine(int hitbox) {
+        return engine[hitbox];
+    }
+
+    public float damage(int hitbox) {
+        return damage[hitbox];
+    }
+}
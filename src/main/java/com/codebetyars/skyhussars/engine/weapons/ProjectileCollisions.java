@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.List;
+
+/**
+ * Finds the planes hit by the projectiles in their last update.
+ *
+ * The planes are where the simulation put them in the tick, read from its
+ * snapshot, not from the interpolated scene.
+ *
+ * The broadphase is a sweep and prune on the x axis: the planes are kept
+ * sorted by the low end of their bounds, and each projectile only visits the
+ * planes whose x interval overlaps the one it swept. Planes move little
+ * between two checks, so the order of the last check is almost right and the
+ * insertion sort is close to linear.
+ *
+ * The narrow phase tests the segment swept by the projectile against the
+ * sphere around the hitboxes of the plane, in the frame of the plane: the
+ * start of the segment is moved with the plane over the same step. Fast
+ * rounds do not pass through a plane between two updates. Only a segment
+ * through the sphere is turned into the frame of the plane and tested
+ * against the hitboxes inside. A plane without hitboxes is a single hitbox
+ * around its model.
+ */
+public class ProjectileCollisions {
+
+    private static final float EPSILON = 1e-6f;
+
+    private int planeCount;
+    /* the planes sorted by minX */
+    private int[] order = new int[0];
+    private float[] minX = new float[0];
+    private float[] maxX = new float[0];
+    /* center and radius of the sphere around the hitboxes */
+    private float[] center = new float[0];
+    private float[] radius = new float[0];
+    /* how far each plane moved during the step */
+    private float[] shift = new float[0];
+    private int[] owner = new int[0];
+    private HitboxModel[] models = new HitboxModel[0];
+    /* the model is not the hitboxes of the plane but the bound of its model */
+    private boolean[] bound = new boolean[0];
+    /* world location and inverse rotation of the planes */
+    private float[] location = new float[0];
+    private Quaternion[] inverseRotation = new Quaternion[0];
+    private float widest;
+    private float fastest;
+    /* the part of the segment inside the slabs tested so far */
+    private float enter;
+    private float exit;
+    /* the hitbox found by the last sweep */
+    private int hitbox;
+    private float hitboxEnter;
+
+    private final Vector3f start = new Vector3f();
+    private final Vector3f end = new Vector3f();
+    private final Vector3f velocity = new Vector3f();
+    private final Vector3f localStart = new Vector3f();
+    private final Vector3f localDirection = new Vector3f();
+    private final Vector3f planeLocation = new Vector3f();
+    private final Vector3f planeVelocity = new Vector3f();
+    private final Quaternion planeRotation = new Quaternion();
+
+    /**
+     * Kills every projectile that hit a plane other than its owner's and adds
+     * the hit.
+     *
+     * @param snapshot - the state of the planes at the end of the step, in the
+     * order of the list
+     * @param tpf - the length of the last update of the projectiles
+     */
+    public void detect(ProjectileStore store, List<Plane> planes, FlightSnapshot snapshot, float tpf,
+            ProjectileHits hits) {
+        hits.clear();
+        prepare(planes, snapshot, tpf);
+        if (planeCount == 0) {
+            return;
+        }
+        for (int i = 0; i < store.count(); i++) {
+            if (store.life(i) <= 0f) {
+                continue;
+            }
+            store.previousLocation(i, start);
+            store.location(i, end);
+            float low = Math.min(start.x, end.x) - fastest;
+            float high = Math.max(start.x, end.x) + fastest;
+            int projectileOwner = store.owner(i);
+            float first = Float.MAX_VALUE;
+            int target = -1;
+            int component = -1;
+            for (int k = lowerBound(low - widest); k < planeCount && minX[order[k]] <= high; k++) {
+                int plane = order[k];
+                if (maxX[plane] < low || owner[plane] == projectileOwner) {
+                    continue;
+                }
+                float t = sweep(plane);
+                if (t < first) {
+                    first = t;
+                    target = plane;
+                    component = bound[plane] ? -1 : hitbox;
+                }
+            }
+            if (target >= 0) {
+                int s = target * 3;
+                start.addLocal(shift[s], shift[s + 1], shift[s + 2]);
+                end.subtractLocal(start).multLocal(first).addLocal(start);
+                hits.add(target, component, projectileOwner, end, store.velocity(i, velocity));
+                store.kill(i);
+            }
+        }
+    }
+
+    private void prepare(List<Plane> planes, FlightSnapshot snapshot, float tpf) {
+        if (planes.size() != planeCount) {
+            planeCount = planes.size();
+            order = new int[planeCount];
+            minX = new float[planeCount];
+            maxX = new float[planeCount];
+            center = new float[planeCount * 3];
+            radius = new float[planeCount];
+            shift = new float[planeCount * 3];
+            owner = new int[planeCount];
+            models = new HitboxModel[planeCount];
+            bound = new boolean[planeCount];
+            location = new float[planeCount * 3];
+            inverseRotation = new Quaternion[planeCount];
+            for (int i = 0; i < planeCount; i++) {
+                order[i] = i;
+                inverseRotation[i] = new Quaternion();
+            }
+        }
+        widest = 0f;
+        fastest = 0f;
+        for (int i = 0; i < planeCount; i++) {
+            bounds(planes.get(i), i, snapshot, tpf);
+        }
+        for (int i = 1; i < planeCount; i++) {
+            int plane = order[i];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > minX[plane]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = plane;
+        }
+    }
+
+    private void bounds(Plane plane, int index, FlightSnapshot snapshot, float tpf) {
+        int v = index * 3;
+        HitboxModel model = plane.collisionModel();
+        models[index] = model;
+        bound[index] = plane.hitboxModel() == null;
+        snapshot.translation(index, planeLocation);
+        snapshot.rotation(index, planeRotation);
+        snapshot.velocity(index, planeVelocity);
+        location[v] = planeLocation.x;
+        location[v + 1] = planeLocation.y;
+        location[v + 2] = planeLocation.z;
+        inverseRotation[index].set(planeRotation).inverseLocal();
+        Vector3f sphereCenter = planeRotation.mult(localStart.set(model.cx[0], model.cy[0], model.cz[0]), localStart)
+                .addLocal(planeLocation);
+        float r = model.boundingRadius();
+        radius[index] = r;
+        center[v] = sphereCenter.x;
+        center[v + 1] = sphereCenter.y;
+        center[v + 2] = sphereCenter.z;
+        minX[index] = sphereCenter.x - r;
+        maxX[index] = sphereCenter.x + r;
+        shift[v] = planeVelocity.x * tpf;
+        shift[v + 1] = planeVelocity.y * tpf;
+        shift[v + 2] = planeVelocity.z * tpf;
+        owner[index] = plane.projectileOwner();
+        widest = Math.max(widest, 2 * r);
+        fastest = Math.max(fastest, Math.abs(shift[v]));
+    }
+
+    /* first sorted position with a minX not below the value */
+    private int lowerBound(float value) {
+        int low = 0;
+        int high = planeCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (minX[order[middle]] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the fraction of the segment where it enters a hitbox of the
+     * plane, Float.MAX_VALUE if it does not
+     */
+    private float sweep(int plane) {
+        int v = plane * 3;
+        /* the segment relative to the center of the sphere, its start moved with the plane */
+        float sx = start.x + shift[v] - center[v];
+        float sy = start.y + shift[v + 1] - center[v + 1];
+        float sz = start.z + shift[v + 2] - center[v + 2];
+        float dx = end.x - center[v] - sx;
+        float dy = end.y - center[v + 1] - sy;
+        float dz = end.z - center[v + 2] - sz;
+        float t = sweepSphere(sx, sy, sz, dx, dy, dz, radius[plane]);
+        if (t == Float.MAX_VALUE) {
+            return t;
+        }
+        HitboxModel model = models[plane];
+        Quaternion inverse = inverseRotation[plane];
+        inverse.mult(localStart.set(start).addLocal(shift[v], shift[v + 1], shift[v + 2])
+                .subtractLocal(location[v], location[v + 1], location[v + 2]), localStart);
+        inverse.mult(localDirection.set(dx, dy, dz), localDirection);
+        return descend(model, 0, t) ? hitboxEnter : Float.MAX_VALUE;
+    }
+
+    /**
+     * Finds the first hitbox under a hitbox that the local segment enters,
+     * into hitbox and hitboxEnter. The outermost hitbox only counts if it has
+     * no children.
+     *
+     * @param t - where the segment enters the hitbox
+     */
+    private boolean descend(HitboxModel model, int node, float t) {
+        float first = Float.MAX_VALUE;
+        int firstHitbox = -1;
+        int end = model.firstChild[node] + model.childCount[node];
+        for (int child = model.firstChild[node]; child < end; child++) {
+            float childEnter = sweep(model, child);
+            if (childEnter < first && descend(model, child, childEnter) && hitboxEnter < first) {
+                first = hitboxEnter;
+                firstHitbox = hitbox;
+            }
+        }
+        if (firstHitbox >= 0) {
+            hitbox = firstHitbox;
+            hitboxEnter = first;
+            return true;
+        }
+        if (node > 0) {
+            hitbox = node;
+            hitboxEnter = t;
+            return true;
+        }
+        if (model.childCount[0] == 0) {
+            /* a single hitbox is tested itself, not the sphere around it */
+            hitbox = 0;
+            hitboxEnter = sweep(model, 0);
+            return hitboxEnter != Float.MAX_VALUE;
+        }
+        return false;
+    }
+
+    private float sweep(HitboxModel model, int node) {
+        float sx = localStart.x - model.cx[node];
+        float sy = localStart.y - model.cy[node];
+        float sz = localStart.z - model.cz[node];
+        Vector3f d = localDirection;
+        return model.sphere[node] ? sweepSphere(sx, sy, sz, d.x, d.y, d.z, model.ex[node])
+                : sweepBox(sx, sy, sz, d.x, d.y, d.z, model.ex[node], model.ey[node], model.ez[node]);
+    }
+
+    float sweepBox(float sx, float sy, float sz, float dx, float dy, float dz, float ex, float ey, float ez) {
+        enter = 0f;
+        exit = 1f;
+        return slab(sx, dx, ex) && slab(sy, dy, ey) && slab(sz, dz, ez) ? enter : Float.MAX_VALUE;
+    }
+
+    /* narrows enter and exit to where the segment is between the two planes of an axis */
+    private boolean slab(float s, float d, float e) {
+        if (Math.abs(d) < EPSILON) {
+            return s >= -e && s <= e;
+        }
+        float t1 = (-e - s) / d;
+        float t2 = (e - s) / d;
+        enter = Math.max(enter, Math.min(t1, t2));
+        exit = Math.min(exit, Math.max(t1, t2));
+        return enter <= exit;
+    }
+
+    static float sweepSphere(float sx, float sy, float sz, float dx, float dy, float dz, float radius) {
+        float c = sx * sx + sy * sy + sz * sz - radius * radius;
+        if (c <= 0f) {
+            return 0f;
+        }
+        float a = dx * dx + dy * dy + dz * dz;
+        float b = sx * dx + sy * dy + sz * dz;
+        float discriminant = b * b - a * c;
+        if (a < EPSILON || b >= 0f || discriminant < 0f) {
+            return Float.MAX_VALUE;
+        }
+        float t = (-b - (float) Math.sqrt(discriminant)) / a;
+        return t <= 1f ? t : Float.MAX_VALUE;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+
+/**
+ * The projectiles that ended in the ground in one check, as columns reused
+ * by the next check. Effects can be placed from the impacts.
+ */
+public class ProjectileImpacts {
+
+    private int count;
+    private int[] owners = new int[16];
+    /* impact point and velocity of the projectile, x y z after each other */
+    private float[] locations = new float[48];
+    private float[] velocities = new float[48];
+
+    void clear() {
+        count = 0;
+    }
+
+    void add(int owner, Vector3f location, Vector3f velocity) {
+        if (count == owners.length) {
+            owners = Arrays.copyOf(owners, count * 2);
+            locations = Arrays.copyOf(locations, count * 6);
+            velocities = Arrays.copyOf(velocities, count * 6);
+        }
+        owners[count] = owner;
+        int v = count * 3;
+        locations[v] = location.x;
+        locations[v + 1] = location.y;
+        locations[v + 2] = location.z;
+        velocities[v] = velocity.x;
+        velocities[v + 1] = velocity.y;
+        velocities[v + 2] = velocity.z;
+        count++;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int owner(int impact) {
+        return owners[impact];
+    }
+
+    public Vector3f location(int impact, Vector3f store) {
+        int v = impact * 3;
+        return store.set(locations[v], locations[v + 1], locations[v + 2]);
+    }
+
+    public Vector3f velocity(int impact, Vector3f store) {
+        int v = impact * 3;
+        return store.set(velocities[v], velocities[v + 1], velocities[v + 2]);
+    }
+}
@@ -23,21 +23,32 @@
  * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
  * POSSIBILITY OF SUCH DAMAGE.
  */
+
 package com.codebetyars.skyhussars.engine.weapons;
 
 import com.codebetyars.skyhussars.engine.DataManager;
+import com.codebetyars.skyhussars.engine.StateHash;
+import com.codebetyars.skyhussars.engine.TerrainHeight;
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.physics.TripleBuffer;
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.codebetyars.skyhussars.engine.plane.GunDescriptor;
 import com.codebetyars.skyhussars.engine.plane.Plane;
-import com.jme3.collision.CollisionResults;
+import com.codebetyars.skyhussars.engine.telemetry.Metric;
+import com.codebetyars.skyhussars.engine.telemetry.Telemetry;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileStore.OverflowPolicy;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,58 +57,254 @@ public class ProjectileManager {
 
     private final static Logger logger = LoggerFactory.getLogger(ProjectileManager.class);
 
+    /* m, bullets are removed after flying this far */
+    private static final float RANGE = 2000f;
+    /* s, the length of a tracer as the distance its round flies in this time */
+    private static final float TRACER_STREAK = 0.02f;
+
     @Autowired
     private Node rootNode;
 
     @Autowired
     private DataManager dataManager;
 
-    private List<Projectile> projectiles = new ArrayList<>();
-
-    private List<Geometry> projectileGeometries = new LinkedList<>();
-
-    public void addProjectile(Bullet projectile) {
-        Geometry newGeometry = dataManager.getBullet();
-        projectileGeometries.add(newGeometry);
-        rootNode.attachChild(newGeometry);
-        newGeometry.move(projectile.getLocation());
-        projectiles.add(projectile);
-    }
-
-    public void update(float tpf) {
-        logger.info("Current projectiles: {}", projectileGeometries.size());
-        Iterator<Geometry > geomIterator = projectileGeometries.iterator();
-        projectiles.parallelStream().forEach(projectile -> projectile.update(tpf));
-        Iterator<Projectile> it = projectiles.iterator();
-        while (it.hasNext()) {
-            Projectile projectile = it.next();
-            if (!projectile.isLive()) {
-                it.remove();
-                if (geomIterator.hasNext()) {
-                    Geometry geom = geomIterator.next();
-                    rootNode.detachChild(geom);
-                    geomIterator.remove();
-                }
-            } else {
-                if (geomIterator.hasNext()) {
-                    Geometry geom = geomIterator.next();
-                    geom.setLocalTranslation(projectile.getLocation());
-                    Vector3f direction = projectile.getVelocity().normalize();
-                    geom.lookAt(direction, Vector3f.UNIT_Y);
-                }
-            }
+    private final ProjectileStore store = new ProjectileStore(Integer.getInteger("skyhussars.projectiles.capacity", 8192),
+            OverflowPolicy.valueOf(System.getProperty("skyhussars.projectiles.overflow", OverflowPolicy.REPLACE_OLDEST.name())));
+
+    /* every round is simulated, but only every tracerRatio-th of a gun is rendered */
+    private final int tracerRatio = Math.max(1, Integer.getInteger("skyhussars.tracers.ratio", 5));
+    /* written after every update of the store, the render thread only draws the latest */
+    private final TripleBuffer<TracerFrame> tracerFrames = new TripleBuffer<>(() -> new TracerFrame(store.capacity()));
+    /* only used by the render thread */
+    private TracerMesh tracerMesh;
+    private Geometry tracers;
+
+    private final JobSystem jobs = JobSystem.shared();
+    private final Telemetry telemetry = Telemetry.shared();
+    private final int telemetrySource = telemetry.source("projectiles");
+    private int owners;
+    private final ProjectileCollisions collisions = new ProjectileCollisions();
+    private final ProjectileHits hits = new ProjectileHits();
+    private final TerrainCollisions terrainCollisions = new TerrainCollisions();
+    private final ProjectileImpacts impacts = new ProjectileImpacts();
+    private long groundImpacts;
+    /* s, the length of the last update */
+    private float lastStep;
+    /* rounds fired by the guns on the simulation thread, guarded by spawnLock */
+    private final Object spawnLock = new Object();
+    private ProjectileSpawns pendingSpawns = new ProjectileSpawns();
+    /* only used by the thread updating the store */
+    private ProjectileSpawns spawning = new ProjectileSpawns();
+    private final Vector3f spawnOrigin = new Vector3f();
+    private final Vector3f spawnLocation = new Vector3f();
+    private final Vector3f spawnVelocity = new Vector3f();
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    /* one table for each gun by name, guarded by itself */
+    private final Map<String, BallisticsTable> ballistics = new HashMap<>();
+
+    public ProjectileManager() {
+    }
+
+    ProjectileManager(Node rootNode, DataManager dataManager) {
+        this.rootNode = rootNode;
+        this.dataManager = dataManager;
+    }
+
+    /**
+     * @return the owner id for the projectiles of a new shooter
+     */
+    public synchronized int registerOwner() {
+        return owners++;
+    }
+
+    /**
+     * Fires a bullet, it lives until it flies out of range.
+     *
+     * @param tracer - only tracers are rendered
+     * @return false if the bullet did not fit into the store
+     */
+    public boolean addProjectile(int owner, Vector3f location, Vector3f velocity, boolean tracer) {
+        return addProjectile(owner, location, velocity, tracer, null);
+    }
+
+    /**
+     * Fires a bullet along its ballistics table, it lives until it flies out
+     * of range.
+     *
+     * @param ballistics - null for a bullet moving in a straight line
+     * @return false if the bullet did not fit into the store
+     */
+    public boolean addProjectile(int owner, Vector3f location, Vector3f velocity, boolean tracer,
+            BallisticsTable ballistics) {
+        return addProjectile(owner, location, location, velocity, tracer, ballistics);
+    }
+
+    /**
+     * @param origin - where the bullet left the muzzle, its path is checked for
+     * hits from there
+     */
+    private boolean addProjectile(int owner, Vector3f origin, Vector3f location, Vector3f velocity, boolean tracer,
+            BallisticsTable ballistics) {
+        float speed = velocity.length();
+        float life;
+        if (ballistics != null) {
+            life = ballistics.timeOfFlight(RANGE, location.y, ballistics.speedScale(speed));
+        } else {
+            life = speed > 0f ? RANGE / speed : 0f;
+        }
+        return store.spawn(owner, origin, location, velocity, life, tracer, ballistics) >= 0;
+    }
+
+    /**
+     * @return the ballistics table of the rounds of the gun, shared by every
+     * gun of the same name, null if its bullet is not described
+     */
+    public BallisticsTable ballistics(GunDescriptor gunDescriptor) {
+        if (gunDescriptor.getBulletDescriptor() == null) {
+            return null;
+        }
+        synchronized (ballistics) {
+            return ballistics.computeIfAbsent(gunDescriptor.getName(), name -> new BallisticsTable(
+                    gunDescriptor.getBulletDescriptor(), gunDescriptor.getMuzzleVelocity(), RANGE,
+                    -environment.gravity().y, environment.atmosphere()));
+        }
+    }
+
+    /**
+     * Queues the rounds of a batch, they are added to the store by the next
+     * update. Can be called from any thread, the batch can be cleared after.
+     */
+    public void spawn(ProjectileSpawns spawns) {
+        if (spawns.count() == 0) {
+            return;
+        }
+        synchronized (spawnLock) {
+            pendingSpawns.addAll(spawns);
+        }
+    }
+
+    private void spawnPending() {
+        synchronized (spawnLock) {
+            ProjectileSpawns spawned = spawning;
+            spawning = pendingSpawns;
+            pendingSpawns = spawned;
+        }
+        for (int i = 0; i < spawning.count(); i++) {
+            addProjectile(spawning.owner(i), spawning.origin(i, spawnOrigin), spawning.location(i, spawnLocation),
+                    spawning.velocity(i, spawnVelocity), spawning.tracer(i), spawning.ballistics(i));
         }
+        spawning.clear();
+    }
+
+    /**
+     * @return every how many rounds of a gun a tracer is fired
+     */
+    public int tracerRatio() {
+        return tracerRatio;
+    }
+
+    public int projectileCount() {
+        return store.count();
+    }
+
+    public Vector3f projectileLocation(int index, Vector3f store) {
+        return this.store.location(index, store);
+    }
+
+    public Vector3f projectileVelocity(int index, Vector3f store) {
+        return this.store.velocity(index, store);
+    }
+
+    /**
+     * @return the store of the projectiles, with its counters
+     */
+    public ProjectileStore store() {
+        return store;
+    }
+
+    /**
+     * Moves every projectile by a step of the simulation, then adds the
+     * rounds fired during the step, which are already where they are at its
+     * end. Should be called from the simulation thread, before the collision
+     * checks of the same step.
+     */
+    public void update(float dt) {
+        store.update(dt, jobs, null);
+        spawnPending();
+        lastStep = dt;
+        if (telemetry.sampling()) {
+            telemetry.sample(telemetrySource, Metric.PROJECTILES, store.count());
+            telemetry.sample(telemetrySource, Metric.PROJECTILE_OVERFLOWS, store.overflowed());
+            telemetry.sample(telemetrySource, Metric.PROJECTILE_IMPACTS, groundImpacts);
+        }
+    }
+
+    /**
+     * Hands the tracers of the current state to the render thread, called
+     * from the simulation thread after the collision checks.
+     */
+    public void publishTracers() {
+        tracerFrames.back().write(store, TRACER_STREAK);
+        tracerFrames.publish();
+    }
+
+    /**
+     * Draws the last published tracers, called from the render thread.
+     * Without a root node, e.g. when created outside of the context,
+     * projectiles are only simulated.
+     */
+    public void updateTracers() {
+        if (rootNode == null) {
+            return;
+        }
+        if (tracers == null) {
+            tracerMesh = new TracerMesh(store.capacity());
+            tracers = dataManager.getTracers(tracerMesh);
+            rootNode.attachChild(tracers);
+        }
+        int visible = tracerMesh.update(tracerFrames.front());
+        tracers.setCullHint(visible > 0 ? Spatial.CullHint.Dynamic : Spatial.CullHint.Always);
+        tracers.updateModelBound();
+    }
+
+    public void hashState(StateHash hash) {
+        store.hashState(hash);
+    }
+
+    /**
+     * Checks the paths of the projectiles in the last update against the
+     * planes. Projectiles end at the first plane they hit, and the plane
+     * takes the damage of the hitbox hit. A plane is never hit by its own
+     * projectiles.
+     *
+     * @param snapshot - the state of the planes at the end of the last update,
+     * in the order of the list
+     * @return the hits, valid until the next check
+     */
+    public ProjectileHits checkCollisions(List<Plane> planes, FlightSnapshot snapshot) {
+        collisions.detect(store, planes, snapshot, lastStep, hits);
+        for (int i = 0; i < hits.count(); i++) {
+            planes.get(hits.target(i)).hit(hits.component(i));
+        }
+        return hits;
+    }
+
+    /**
+     * Checks the paths of the projectiles in the last update against the
+     * ground, projectiles that went into it end there.
+     *
+     * @return the impacts, valid until the next check
+     */
+    public ProjectileImpacts checkGround(TerrainHeight terrain) {
+        terrainCollisions.detect(store, terrain, impacts);
+        groundImpacts += impacts.count();
+        return impacts;
     }
 
-    public void checkCollision(Plane plane) {
-        Node planeNode = plane.planeGeometry().modelNode();
-        projectileGeometries.forEach(projectile -> {
-            CollisionResults collisionResults = new CollisionResults();
-            if (projectile.collideWith(planeNode.getWorldBound(), collisionResults) > 0) {
-                if (collisionResults.size() > 0) {
-                    plane.hit();
-                }
-            }
-        });
+    /**
+     * @return the projectiles so far that ended in the ground
+     */
+    public long groundImpacts() {
+        return groundImpacts;
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+
+/**
+ * Rounds fired but not yet in the projectile store, as columns reused after
+ * they were spawned.
+ */
+public class ProjectileSpawns {
+
+    private int count;
+    private int[] owners = new int[16];
+    private boolean[] tracers = new boolean[16];
+    private BallisticsTable[] ballistics = new BallisticsTable[16];
+    /* muzzle the round left, its location and velocity, x y z after each other */
+    private float[] origins = new float[48];
+    private float[] locations = new float[48];
+    private float[] velocities = new float[48];
+
+    public void clear() {
+        Arrays.fill(ballistics, 0, count, null);
+        count = 0;
+    }
+
+    /**
+     * @param origin - where the round left the muzzle, the collision checks
+     * sweep its path from there
+     * @param ballistics - null for a round moving in a straight line
+     */
+    public void add(int owner, Vector3f origin, Vector3f location, Vector3f velocity, boolean tracer,
+            BallisticsTable ballistics) {
+        ensureCapacity(count + 1);
+        owners[count] = owner;
+        tracers[count] = tracer;
+        this.ballistics[count] = ballistics;
+        int v = count * 3;
+        origins[v] = origin.x;
+        origins[v + 1] = origin.y;
+        origins[v + 2] = origin.z;
+        locations[v] = location.x;
+        locations[v + 1] = location.y;
+        locations[v + 2] = location.z;
+        velocities[v] = velocity.x;
+        velocities[v + 1] = velocity.y;
+        velocities[v + 2] = velocity.z;
+        count++;
+    }
+
+    /**
+     * Appends every round of the other batch.
+     */
+    public void addAll(ProjectileSpawns spawns) {
+        ensureCapacity(count + spawns.count);
+        System.arraycopy(spawns.owners, 0, owners, count, spawns.count);
+        System.arraycopy(spawns.tracers, 0, tracers, count, spawns.count);
+        System.arraycopy(spawns.ballistics, 0, ballistics, count, spawns.count);
+        System.arraycopy(spawns.origins, 0, origins, count * 3, spawns.count * 3);
+        System.arraycopy(spawns.locations, 0, locations, count * 3, spawns.count * 3);
+        System.arraycopy(spawns.velocities, 0, velocities, count * 3, spawns.count * 3);
+        count += spawns.count;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > owners.length) {
+            int size = Math.max(capacity, owners.length * 2);
+            owners = Arrays.copyOf(owners, size);
+            tracers = Arrays.copyOf(tracers, size);
+            ballistics = Arrays.copyOf(ballistics, size);
+            origins = Arrays.copyOf(origins, size * 3);
+            locations = Arrays.copyOf(locations, size * 3);
+            velocities = Arrays.copyOf(velocities, size * 3);
+        }
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int owner(int round) {
+        return owners[round];
+    }
+
+    public boolean tracer(int round) {
+        return tracers[round];
+    }
+
+    public BallisticsTable ballistics(int round) {
+        return ballistics[round];
+    }
+
+    public Vector3f origin(int round, Vector3f store) {
+        int v = round * 3;
+        return store.set(origins[v], origins[v + 1], origins[v + 2]);
+    }
+
+    public Vector3f location(int round, Vector3f store) {
+        int v = round * 3;
+        return store.set(locations[v], locations[v + 1], locations[v + 2]);
+    }
+
+    public Vector3f velocity(int round, Vector3f store) {
+        int v = round * 3;
+        return store.set(velocities[v], velocities[v + 1], velocities[v + 2]);
+    }
+}
@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.StateHash;
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.jme3.math.Vector3f;
+
+/**
+ * Fixed capacity store of the live projectiles. Every property is a column of
+ * primitives indexed by the projectile, the live projectiles are always the
+ * first count() of them: a projectile that dies is replaced by the last one.
+ * Indices are therefore only stable until the next update.
+ *
+ * A projectile with a ballistics table follows the table from where it was
+ * launched, one without moves in a straight line.
+ */
+public class ProjectileStore {
+
+    /**
+     * What happens to a new projectile when the store is full.
+     */
+    public enum OverflowPolicy {
+        /* the new projectile is not created */
+        DROP_NEWEST,
+        /* the projectile spawned first makes room for the new one */
+        REPLACE_OLDEST
+    }
+
+    /**
+     * Told about every projectile removed by update, before the last
+     * projectile is moved into its place.
+     */
+    public interface RemovalListener {
+
+        void removed(int index, int last);
+    }
+
+    /* the smallest number of projectiles worth a task on the job system */
+    private static final int PROJECTILES_PER_TASK = 256;
+
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final float[] px;
+    private final float[] py;
+    private final float[] pz;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] vz;
+    /* location before the last update, the projectile swept the segment from here */
+    private final float[] ox;
+    private final float[] oy;
+    private final float[] oz;
+    /* seconds */
+    private final float[] life;
+    private final int[] owner;
+    /* tracers are the rounds that are rendered */
+    private final boolean[] tracer;
+    /* launch location, unit direction of the line of departure and time of flight */
+    private final float[] sx;
+    private final float[] sy;
+    private final float[] sz;
+    private final float[] dx;
+    private final float[] dy;
+    private final float[] dz;
+    private final float[] age;
+    private final float[] speedScale;
+    private final BallisticsTable[] ballistics;
+    private int count;
+    /*
+     * the projectiles in the order they were spawned, the oldest at the head.
+     * A removed projectile leaves -1 behind, skipped when it reaches the head
+     * and dropped when the ring is full and gets compacted.
+     */
+    private int[] spawnOrder;
+    private int[] compacted;
+    private int orderHead;
+    private int orderSize;
+    /* where the projectile is in the spawn order */
+    private final int[] orderPosition;
+
+    private long spawned;
+    private long expired;
+    private long overflowed;
+    private int peak;
+
+    public ProjectileStore(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Projectile capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        px = new float[capacity];
+        py = new float[capacity];
+        pz = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        vz = new float[capacity];
+        ox = new float[capacity];
+        oy = new float[capacity];
+        oz = new float[capacity];
+        life = new float[capacity];
+        owner = new int[capacity];
+        tracer = new boolean[capacity];
+        sx = new float[capacity];
+        sy = new float[capacity];
+        sz = new float[capacity];
+        dx = new float[capacity];
+        dy = new float[capacity];
+        dz = new float[capacity];
+        age = new float[capacity];
+        speedScale = new float[capacity];
+        ballistics = new BallisticsTable[capacity];
+        spawnOrder = new int[capacity * 2];
+        compacted = new int[capacity * 2];
+        orderPosition = new int[capacity];
+    }
+
+    /**
+     * @return the index of the new projectile, -1 if it was dropped
+     */
+    public int spawn(int owner, Vector3f location, Vector3f velocity, float life, boolean tracer) {
+        return spawn(owner, location, velocity, life, tracer, null);
+    }
+
+    /**
+     * @param ballistics - null for a projectile moving in a straight line
+     * @return the index of the new projectile, -1 if it was dropped
+     */
+    public int spawn(int owner, Vector3f location, Vector3f velocity, float life, boolean tracer,
+            BallisticsTable ballistics) {
+        return spawn(owner, location, location, velocity, life, tracer, ballistics);
+    }
+
+    /**
+     * @param origin - where the projectile was fired from, its first sweep
+     * starts there
+     * @param ballistics - null for a projectile moving in a straight line
+     * @return the index of the new projectile, -1 if it was dropped
+     */
+    public int spawn(int owner, Vector3f origin, Vector3f location, Vector3f velocity, float life, boolean tracer,
+            BallisticsTable ballistics) {
+        int index;
+        if (count < capacity) {
+            index = count++;
+            peak = Math.max(peak, count);
+        } else {
+            overflowed++;
+            if (overflowPolicy == OverflowPolicy.DROP_NEWEST) {
+                return -1;
+            }
+            index = oldest();
+        }
+        append(index);
+        spawned++;
+        px[index] = location.x;
+        py[index] = location.y;
+        pz[index] = location.z;
+        ox[index] = origin.x;
+        oy[index] = origin.y;
+        oz[index] = origin.z;
+        vx[index] = velocity.x;
+        vy[index] = velocity.y;
+        vz[index] = velocity.z;
+        this.life[index] = life;
+        this.owner[index] = owner;
+        this.tracer[index] = tracer;
+        this.ballistics[index] = ballistics;
+        if (ballistics != null) {
+            float speed = velocity.length();
+            sx[index] = location.x;
+            sy[index] = location.y;
+            sz[index] = location.z;
+            dx[index] = speed > 0f ? velocity.x / speed : 0f;
+            dy[index] = speed > 0f ? velocity.y / speed : 0f;
+            dz[index] = speed > 0f ? velocity.z / speed : 1f;
+            age[index] = 0f;
+            speedScale[index] = ballistics.speedScale(speed);
+        }
+        return index;
+    }
+
+    /* takes the oldest projectile out of the spawn order */
+    private int oldest() {
+        while (spawnOrder[orderHead] < 0) {
+            pop();
+        }
+        int oldest = spawnOrder[orderHead];
+        pop();
+        return oldest;
+    }
+
+    private void pop() {
+        orderHead = (orderHead + 1) % spawnOrder.length;
+        orderSize--;
+    }
+
+    private void append(int index) {
+        if (orderSize == spawnOrder.length) {
+            compact();
+        }
+        int position = (orderHead + orderSize) % spawnOrder.length;
+        spawnOrder[position] = index;
+        orderPosition[index] = position;
+        orderSize++;
+    }
+
+    /* at most capacity of the entries are live, so a compaction is paid by as many appends */
+    private void compact() {
+        int size = 0;
+        for (int i = 0; i < orderSize; i++) {
+            int index = spawnOrder[(orderHead + i) % spawnOrder.length];
+            if (index >= 0) {
+                compacted[size] = index;
+                orderPosition[index] = size;
+                size++;
+            }
+        }
+        int[] swap = spawnOrder;
+        spawnOrder = compacted;
+        compacted = swap;
+        orderHead = 0;
+        orderSize = size;
+    }
+
+    /**
+     * Moves every projectile, then removes the ones out of life.
+     *
+     * @param jobs - null moves the projectiles on the calling thread
+     * @param listener - can be null
+     */
+    public void update(float tpf, JobSystem jobs, RemovalListener listener) {
+        if (jobs != null) {
+            jobs.parallelRange(count, PROJECTILES_PER_TASK, (from, to) -> move(from, to, tpf));
+        } else {
+            move(0, count, tpf);
+        }
+        int i = 0;
+        while (i < count) {
+            if (life[i] > 0f) {
+                i++;
+            } else {
+                remove(i, listener);
+            }
+        }
+    }
+
+    private void move(int from, int to, float tpf) {
+        for (int i = from; i < to; i++) {
+            ox[i] = px[i];
+            oy[i] = py[i];
+            oz[i] = pz[i];
+            if (ballistics[i] != null) {
+                fly(i, tpf);
+            } else {
+                px[i] += vx[i] * tpf;
+                py[i] += vy[i] * tpf;
+                pz[i] += vz[i] * tpf;
+            }
+            life[i] -= tpf;
+        }
+    }
+
+    /* the table is looked up at the launch altitude, a round hardly climbs or sinks within its range */
+    private void fly(int i, float tpf) {
+        BallisticsTable table = ballistics[i];
+        float time = age[i] += tpf;
+        float distance = table.distance(time, sy[i], speedScale[i]);
+        float speed = table.speed(time, sy[i], speedScale[i]);
+        float drop = table.drop(time, sy[i]);
+        float dropSpeed = table.dropSpeed(time, sy[i]);
+        px[i] = sx[i] + dx[i] * distance;
+        py[i] = sy[i] + dy[i] * distance - drop;
+        pz[i] = sz[i] + dz[i] * distance;
+        vx[i] = dx[i] * speed;
+        vy[i] = dy[i] * speed - dropSpeed;
+        vz[i] = dz[i] * speed;
+    }
+
+    private void remove(int index, RemovalListener listener) {
+        int last = --count;
+        expired++;
+        if (listener != null) {
+            listener.removed(index, last);
+        }
+        spawnOrder[orderPosition[index]] = -1;
+        if (index != last) {
+            spawnOrder[orderPosition[last]] = index;
+            orderPosition[index] = orderPosition[last];
+        }
+        px[index] = px[last];
+        py[index] = py[last];
+        pz[index] = pz[last];
+        ox[index] = ox[last];
+        oy[index] = oy[last];
+        oz[index] = oz[last];
+        vx[index] = vx[last];
+        vy[index] = vy[last];
+        vz[index] = vz[last];
+        life[index] = life[last];
+        owner[index] = owner[last];
+        tracer[index] = tracer[last];
+        sx[index] = sx[last];
+        sy[index] = sy[last];
+        sz[index] = sz[last];
+        dx[index] = dx[last];
+        dy[index] = dy[last];
+        dz[index] = dz[last];
+        age[index] = age[last];
+        speedScale[index] = speedScale[last];
+        ballistics[index] = ballistics[last];
+        ballistics[last] = null;
+    }
+
+    /**
+     * Ends the life of a projectile, it is removed by the next update.
+     */
+    public void kill(int index) {
+        life[index] = 0f;
+    }
+
+    public Vector3f location(int index, Vector3f store) {
+        return store.set(px[index], py[index], pz[index]);
+    }
+
+    /**
+     * @return where the projectile was before the last update
+     */
+    public Vector3f previousLocation(int index, Vector3f store) {
+        return store.set(ox[index], oy[index], oz[index]);
+    }
+
+    public Vector3f velocity(int index, Vector3f store) {
+        return store.set(vx[index], vy[index], vz[index]);
+    }
+
+    public float life(int index) {
+        return life[index];
+    }
+
+    public int owner(int index) {
+        return owner[index];
+    }
+
+    public boolean tracer(int index) {
+        return tracer[index];
+    }
+
+    public void hashState(StateHash hash) {
+        hash.add(count);
+        for (int i = 0; i < count; i++) {
+            hash.add(px[i]).add(py[i]).add(pz[i]).add(vx[i]).add(vy[i]).add(vz[i]);
+        }
+    }
+
+    /**
+     * @return the number of live projectiles
+     */
+    public int count() {
+        return count;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public OverflowPolicy overflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * @return the most projectiles alive at the same time
+     */
+    public int peak() {
+        return peak;
+    }
+
+    public long spawned() {
+        return spawned;
+    }
+
+    /**
+     * @return the projectiles removed at the end of their life or killed
+     */
+    public long expired() {
+        return expired;
+    }
+
+    /**
+     * @return the projectiles that did not fit, dropped or replacing another
+     */
+    public long overflowed() {
+        return overflowed;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.TerrainHeight;
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+
+/**
+ * Finds the projectiles that went into the ground in their last update. The
+ * segment swept by a projectile is sampled against the height of the ground
+ * at least every SAMPLE_SPACING m, the impact is where the clearance between
+ * the last sample above and the first one below the ground reaches zero.
+ * Projectiles higher than any ground cost no height query.
+ */
+public class TerrainCollisions {
+
+    /* m, the ground is a height map of far larger cells */
+    private static final float SAMPLE_SPACING = 50f;
+
+    private final Vector3f start = new Vector3f();
+    private final Vector3f end = new Vector3f();
+    private final Vector3f velocity = new Vector3f();
+    private final Vector2f at = new Vector2f();
+
+    /**
+     * Kills every projectile that went into the ground and adds the impact.
+     */
+    public void detect(ProjectileStore store, TerrainHeight terrain, ProjectileImpacts impacts) {
+        impacts.clear();
+        float ceiling = terrain.maxHeight();
+        for (int i = 0; i < store.count(); i++) {
+            if (store.life(i) <= 0f) {
+                continue;
+            }
+            store.previousLocation(i, start);
+            store.location(i, end);
+            if (start.y > ceiling && end.y > ceiling) {
+                continue;
+            }
+            float t = sweep(terrain);
+            if (t >= 0f) {
+                end.subtractLocal(start).multLocal(t).addLocal(start);
+                float ground = terrain.getHeightAt(at.set(end.x, end.z));
+                if (!Float.isNaN(ground)) {
+                    end.y = ground;
+                }
+                impacts.add(store.owner(i), end, store.velocity(i, velocity));
+                store.kill(i);
+            }
+        }
+    }
+
+    /**
+     * @return the fraction of the segment from start to end where it goes
+     * into the ground, -1 if it stays above
+     */
+    private float sweep(TerrainHeight terrain) {
+        float dx = end.x - start.x;
+        float dy = end.y - start.y;
+        float dz = end.z - start.z;
+        int samples = Math.max(1, (int) Math.ceil(Math.sqrt(dx * dx + dz * dz) / SAMPLE_SPACING));
+        if (samples == 1) {
+            /* most segments are short and end above the ground, one query tells unless the start may be below */
+            float last = clearance(terrain, 1, dx, dy, dz, 1);
+            if (last >= 0f && (start.y > terrain.maxHeight() || clearance(terrain, 0, dx, dy, dz, 1) >= 0f)) {
+                return -1f;
+            }
+        }
+        float previous = clearance(terrain, 0, dx, dy, dz, samples);
+        if (previous < 0f) {
+            /* already below the ground, e.g. fired from a plane on it */
+            return 0f;
+        }
+        for (int k = 1; k <= samples; k++) {
+            float clearance = clearance(terrain, k, dx, dy, dz, samples);
+            if (clearance < 0f) {
+                return (k - 1 + previous / (previous - clearance)) / samples;
+            }
+            previous = clearance;
+        }
+        return -1f;
+    }
+
+    /* height above the ground at sample k, outside of the terrain there is no ground */
+    private float clearance(TerrainHeight terrain, int k, float dx, float dy, float dz, int samples) {
+        float f = (float) k / samples;
+        float ground = terrain.getHeightAt(at.set(start.x + dx * f, start.z + dz * f));
+        return Float.isNaN(ground) ? Float.POSITIVE_INFINITY : start.y + dy * f - ground;
+    }
+}
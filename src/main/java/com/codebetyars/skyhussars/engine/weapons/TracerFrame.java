@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.jme3.math.Vector3f;
+
+/**
+ * The lines of the visible tracers after a simulation tick, from the round
+ * back along its path. Written by the thread updating the projectiles and
+ * handed to the render thread, which only copies it into the tracer mesh.
+ */
+public class TracerFrame {
+
+    private final float[] positions;
+    private int tracers;
+    private final Vector3f tempLocation = new Vector3f();
+    private final Vector3f tempVelocity = new Vector3f();
+
+    public TracerFrame(int capacity) {
+        positions = new float[capacity * 2 * 3];
+    }
+
+    /**
+     * @param streak - s, how far back along its path a tracer is drawn
+     * @return the number of tracers written
+     */
+    public int write(ProjectileStore store, float streak) {
+        tracers = 0;
+        int p = 0;
+        for (int i = 0; i < store.count(); i++) {
+            if (!store.tracer(i)) {
+                continue;
+            }
+            Vector3f location = store.location(i, tempLocation);
+            Vector3f velocity = store.velocity(i, tempVelocity);
+            positions[p++] = location.x;
+            positions[p++] = location.y;
+            positions[p++] = location.z;
+            positions[p++] = location.x - velocity.x * streak;
+            positions[p++] = location.y - velocity.y * streak;
+            positions[p++] = location.z - velocity.z * streak;
+            tracers++;
+        }
+        return tracers;
+    }
+
+    public int tracers() {
+        return tracers;
+    }
+
+    /**
+     * @return two vertices per tracer, only the first tracers() * 6 are valid
+     */
+    float[] positions() {
+        return positions;
+    }
+}
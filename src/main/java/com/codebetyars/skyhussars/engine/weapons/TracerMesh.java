@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.util.BufferUtils;
+import java.nio.FloatBuffer;
+
+/**
+ * One line per visible tracer, from the round back along its path, so every
+ * tracer in the air is drawn by a single draw call. The vertex buffer is
+ * allocated for the capacity of the store and rewritten every frame from the
+ * last tracer frame of the simulation.
+ */
+public class TracerMesh extends Mesh {
+
+    private final FloatBuffer positions;
+
+    public TracerMesh(int capacity) {
+        positions = BufferUtils.createFloatBuffer(capacity * 2 * 3);
+        setMode(Mode.Lines);
+        setBuffer(VertexBuffer.Type.Position, 3, positions);
+        getBuffer(VertexBuffer.Type.Position).setUsage(VertexBuffer.Usage.Stream);
+        positions.limit(0);
+        updateCounts();
+    }
+
+    /**
+     * @return the number of tracers drawn
+     */
+    public int update(TracerFrame frame) {
+        int tracers = frame.tracers();
+        positions.clear();
+        positions.put(frame.positions(), 0, tracers * 2 * 3);
+        positions.flip();
+        getBuffer(VertexBuffer.Type.Position).updateData(positions);
+        updateCounts();
+        if (tracers > 0) {
+            updateBound();
+        }
+        return tracers;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine;
+
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpatialGridTest {
+
+    private final Random random = new Random(5);
+
+    private Vector3f[] locations(int count, float size) {
+        Vector3f[] locations = new Vector3f[count];
+        for (int i = 0; i < count; i++) {
+            locations[i] = new Vector3f((random.nextFloat() - 0.5f) * size, random.nextFloat() * size / 4f,
+                    (random.nextFloat() - 0.5f) * size);
+        }
+        return locations;
+    }
+
+    private static int[] sorted(SpatialGrid.Query query) {
+        int[] results = new int[query.count()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = query.result(i);
+        }
+        Arrays.sort(results);
+        return results;
+    }
+
+    @Test
+    public void radiusQueryFindsWhatAFullScanFinds() {
+        Vector3f[] locations = locations(500, 40000f);
+        SpatialGrid grid = new SpatialGrid(2000f);
+        grid.update(locations);
+        SpatialGrid.Query query = grid.query();
+        for (int i = 0; i < 50; i++) {
+            Vector3f center = locations[i];
+            List<Integer> expected = new ArrayList<>();
+            for (int e = 0; e < locations.length; e++) {
+                if (e != i && locations[e].distance(center) <= 5000f) {
+                    expected.add(e);
+                }
+            }
+            query.within(center.x, center.y, center.z, 5000f, i);
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), sorted(query));
+        }
+    }
+
+    @Test
+    public void nearestAreTheClosestInOrder() {
+        Vector3f[] locations = locations(300, 100000f);
+        SpatialGrid grid = new SpatialGrid(2000f);
+        grid.update(locations);
+        SpatialGrid.Query query = grid.query();
+        for (int i = 0; i < 30; i++) {
+            Vector3f center = locations[i];
+            Integer[] expected = new Integer[locations.length];
+            for (int e = 0; e < expected.length; e++) {
+                expected[e] = e;
+            }
+            Arrays.sort(expected, (a, b) -> Float.compare(locations[a].distanceSquared(center),
+                    locations[b].distanceSquared(center)));
+            assertEquals(5, query.nearest(center.x, center.y, center.z, 5, i));
+            for (int k = 0; k < 5; k++) {
+                /* the first one of the full scan is the plane itself */
+                assertEquals(expected[k + 1].intValue(), query.result(k));
+            }
+        }
+        assertEquals(299, query.nearest(0f, 0f, 0f, 1000, 0));
+    }
+
+    @Test
+    public void coneKeepsWhatIsAhead() {
+        SpatialGrid grid = new SpatialGrid(1000f);
+        grid.update(new Vector3f[]{
+            new Vector3f(0, 0, 0),
+            new Vector3f(0, 0, 3000),
+            new Vector3f(0, 0, -3000),
+            new Vector3f(3000, 0, 3000),
+            new Vector3f(100, 0, 3000),
+            new Vector3f(0, 0, 9000)});
+        SpatialGrid.Query query = grid.query();
+        query.cone(0f, 0f, 0f, 0f, 0f, 1f, (float) Math.cos(Math.toRadians(10)), 5000f, 0);
+        assertArrayEquals(new int[]{1, 4}, sorted(query));
+    }
+
+    @Test
+    public void emptyGridFindsNothing() {
+        SpatialGrid grid = new SpatialGrid(1000f);
+        grid.update(new Vector3f[0]);
+        assertEquals(0, grid.query().nearest(0f, 0f, 0f, 3, -1));
+        assertEquals(0, grid.query().within(0f, 0f, 0f, 3000f, -1));
+    }
+}
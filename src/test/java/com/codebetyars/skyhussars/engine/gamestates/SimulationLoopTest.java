@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.gamestates;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimulationLoopTest {
+
+    @Test
+    public void slowTicksAreCountedAsOverrunsAndDropped() throws InterruptedException {
+        SimulationLoop loop = new SimulationLoop(() -> sleep(60), 100, 2);
+        loop.start();
+        Thread.sleep(500);
+        loop.stop();
+        assertTrue(loop.overruns() > 0);
+        assertTrue(loop.droppedTicks() > 0);
+        assertTrue(loop.maxTickNanos() >= 60_000_000L);
+    }
+
+    @Test
+    public void ticksAreStampedOneStepApart() throws InterruptedException {
+        List<Long> stamps = Collections.synchronizedList(new ArrayList<>());
+        SimulationLoop[] loop = new SimulationLoop[1];
+        loop[0] = new SimulationLoop(() -> stamps.add(loop[0].tickNanos()), 50, 5);
+        loop[0].start();
+        Thread.sleep(300);
+        loop[0].stop();
+        Assume.assumeTrue(loop[0].droppedTicks() == 0);
+        assertEquals(loop[0].ticks(), stamps.size());
+        assertTrue(stamps.size() > 2);
+        for (int i = 1; i < stamps.size(); i++) {
+            assertEquals(20_000_000L, stamps.get(i) - stamps.get(i - 1));
+        }
+    }
+
+    @Test
+    public void alphaFollowsTheStampOfTheTick() {
+        SimulationLoop loop = new SimulationLoop(() -> {
+        }, 50, 5);
+        long now = System.nanoTime();
+        assertEquals(0.5f, loop.alpha(now - 10_000_000L), 0.05f);
+        assertEquals(0f, loop.alpha(now + 10_000_000L), 0f);
+        assertEquals(1f, loop.alpha(now - 30_000_000L), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tickRateMustBePositive() {
+        new SimulationLoop(() -> {
+        }, 0, 5);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
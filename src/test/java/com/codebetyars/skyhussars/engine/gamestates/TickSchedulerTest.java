@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.gamestates;
+
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickSchedulerTest {
+
+    @Test
+    public void systemsRunAtTheirRatesSpreadOverTheTicks() {
+        TickScheduler scheduler = new TickScheduler(60);
+        List<String> runs = new ArrayList<>();
+        scheduler.every("physics", 60, dt -> runs.add("physics"))
+                .every("ai", 10, dt -> runs.add("ai"))
+                .every("sound", 5, dt -> runs.add("sound"));
+        int[] perTick = new int[60];
+        for (int i = 0; i < 60; i++) {
+            int before = runs.size();
+            scheduler.tick();
+            perTick[i] = runs.size() - before;
+        }
+        assertEquals(60, runs.stream().filter("physics"::equals).count());
+        assertEquals(10, runs.stream().filter("ai"::equals).count());
+        assertEquals(5, runs.stream().filter("sound"::equals).count());
+        for (int ticks : perTick) {
+            assertEquals(true, ticks <= 2);
+        }
+        assertEquals(60, scheduler.times().get(0).runs());
+        assertEquals(10, scheduler.times().get(1).runs());
+    }
+
+    @Test
+    public void staggeredSystemVisitsEveryItemOncePerPeriod() {
+        TickScheduler scheduler = new TickScheduler(30);
+        int[] updates = new int[7];
+        float[] dts = new float[1];
+        scheduler.staggered("ai", 10, (slice, slices, dt) -> {
+            for (int i = slice; i < updates.length; i += slices) {
+                updates[i]++;
+            }
+            dts[0] = dt;
+        });
+        for (int i = 0; i < 30; i++) {
+            scheduler.tick();
+        }
+        for (int count : updates) {
+            assertEquals(10, count);
+        }
+        assertEquals(0.1f, dts[0], 0.0001f);
+    }
+
+    @Test
+    public void advanceRunsWholeTicksOnly() {
+        TickScheduler scheduler = new TickScheduler(60);
+        scheduler.every("weapons", 60, dt -> {
+        });
+        assertEquals(0, scheduler.advance(0.01f, 5));
+        assertEquals(1, scheduler.advance(0.01f, 5));
+        assertEquals(5, scheduler.advance(1f, 5));
+        assertEquals(6, scheduler.ticks());
+    }
+
+    @Test
+    public void unsupportedRatesAreRoundedToADivisor() {
+        TickScheduler scheduler = new TickScheduler(30);
+        assertEquals(10, scheduler.supportedRate(10));
+        assertEquals(30, scheduler.supportedRate(60));
+        assertEquals(6, scheduler.supportedRate(7));
+    }
+
+    @Test
+    public void independentSystemsShareAWave() {
+        TickScheduler scheduler = new TickScheduler(30, new JobSystem(2));
+        List<String> runs = Collections.synchronizedList(new ArrayList<>());
+        scheduler.every("lod", 30, dt -> runs.add("lod"))
+                .every("ai", 30, dt -> runs.add("ai")).after()
+                .every("physics", 30, dt -> runs.add("physics")).after("lod", "ai")
+                .every("publish", 30, dt -> runs.add("publish"));
+        assertEquals(Arrays.asList(Arrays.asList("lod", "ai"), Arrays.asList("physics"), Arrays.asList("publish")),
+                scheduler.waves());
+        scheduler.tick();
+        assertEquals(4, runs.size());
+        assertEquals(Arrays.asList("physics", "publish"), runs.subList(2, 4));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownDependencies() {
+        new TickScheduler(30).every("physics", 30, dt -> {
+        }).after("ai");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsRatesNotDividingTheTickRate() {
+        new TickScheduler(30).every("ai", 7, dt -> {
+        });
+    }
+}
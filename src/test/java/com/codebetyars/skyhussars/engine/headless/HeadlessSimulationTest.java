@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.headless;
+
+import com.codebetyars.skyhussars.engine.data.PlaneRegistry;
+import com.codebetyars.skyhussars.engine.loader.PlaneRegistryLoader;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.jme3.math.Vector3f;
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HeadlessSimulationTest {
+
+    private final PlaneRegistry planeRegistry = new PlaneRegistryLoader(new File("assets")).planeRegistry();
+
+    private ScenarioDescriptor scenario(float duration) {
+        List<ScenarioPlaneDescriptor> planes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ScenarioPlaneDescriptor plane = new ScenarioPlaneDescriptor();
+            plane.setPlaneType(planeRegistry.availablePlanes().get(0));
+            plane.setPlayer(i == 0);
+            plane.setLocation(new Vector3f(i * 500f, 3000f, i * -2000f));
+            planes.add(plane);
+        }
+        ScenarioDescriptor scenario = new ScenarioDescriptor();
+        scenario.setName("test");
+        scenario.setDuration(duration);
+        scenario.setTicks(30);
+        scenario.setPlanes(planes);
+        return scenario;
+    }
+
+    @Test
+    public void runsForTheDurationOfTheScenario() {
+        HeadlessSimulation simulation = new HeadlessSimulation(scenario(10f), planeRegistry, at -> 0f);
+        StringWriter trajectory = new StringWriter();
+        SimulationStats stats = simulation.run(trajectory);
+        assertEquals(300, stats.ticks());
+        assertEquals(10f, stats.simulatedSeconds(), 0.001f);
+        /* header, then both planes at the start and after every second */
+        assertEquals(1 + 2 * 11, trajectory.toString().split("\n").length);
+        Plane player = simulation.planes().get(0);
+        assertTrue(player.getLocation().distance(new Vector3f(0, 3000f, 0)) > 500f);
+    }
+
+    @Test
+    public void stopsWhenEveryPlaneCrashed() {
+        HeadlessSimulation simulation = new HeadlessSimulation(scenario(10f), planeRegistry, at -> 5000f);
+        SimulationStats stats = simulation.run();
+        assertEquals(1, stats.ticks());
+        assertTrue(simulation.planes().stream().allMatch(Plane::crashed));
+    }
+
+    private long stateHash(long seed) {
+        ScenarioDescriptor scenario = scenario(5f);
+        scenario.setSeed(seed);
+        scenario.getPlanes().get(1).setFiring(true);
+        return new HeadlessSimulation(scenario, planeRegistry, at -> 0f).run().stateHash();
+    }
+
+    @Test
+    public void sameSeedRunsTheSame() {
+        assertEquals(stateHash(7L), stateHash(7L));
+        assertNotEquals(stateHash(7L), stateHash(8L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownPlaneTypes() {
+        ScenarioDescriptor scenario = scenario(10f);
+        scenario.getPlanes().get(0).setPlaneType("Sopwith Camel");
+        new HeadlessSimulation(scenario, planeRegistry, at -> 0f);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.jobs;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class JobSystemTest {
+
+    private final JobSystem jobs = new JobSystem(4);
+
+    @Test
+    public void everyIndexRunsOnce() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(10_000);
+        jobs.parallelFor(runs.length(), 16, runs::incrementAndGet);
+        for (int i = 0; i < runs.length(); i++) {
+            assertEquals(1, runs.get(i));
+        }
+    }
+
+    @Test
+    public void smallWorkloadsRunOnTheCallingThread() {
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        jobs.parallelRange(8, 8, (from, to) -> {
+            assertEquals(0, from);
+            assertEquals(8, to);
+            thread.set(Thread.currentThread());
+        });
+        assertSame(Thread.currentThread(), thread.get());
+    }
+
+    @Test
+    public void invokeAllReturnsWhenEveryJobIsDone() {
+        AtomicIntegerArray runs = new AtomicIntegerArray(3);
+        jobs.invokeAll(Arrays.asList(() -> runs.incrementAndGet(0), () -> runs.incrementAndGet(1),
+                () -> runs.incrementAndGet(2)));
+        assertEquals(1, runs.get(0));
+        assertEquals(1, runs.get(1));
+        assertEquals(1, runs.get(2));
+    }
+}
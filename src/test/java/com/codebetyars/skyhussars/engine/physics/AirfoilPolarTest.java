@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PolarDescriptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jme3.math.FastMath;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AirfoilPolarTest {
+
+    private static float sin(float degrees) {
+        return FastMath.sin(degrees * FastMath.DEG_TO_RAD);
+    }
+
+    private PolarDescriptor polar(float mach, float[] angles, float[] lift, float[] drag) {
+        PolarDescriptor polar = new PolarDescriptor();
+        polar.setMach(mach);
+        polar.setAngles(angles);
+        polar.setLift(lift);
+        polar.setDrag(drag);
+        return polar;
+    }
+
+    @Test
+    public void defaultPolarInterpolatesTheMeasuredPoints() {
+        AirfoilPolar polar = AirfoilPolar.DEFAULT;
+        assertFalse(polar.machDependent());
+        assertEquals(0f, polar.liftCoefficient(sin(0), 0), 0.001f);
+        assertEquals(0.246f, polar.liftCoefficient(sin(2), 0), 0.001f);
+        assertEquals(0.3605f, polar.liftCoefficient(sin(3), 0), 0.001f);
+        assertEquals(0.3605f, polar.liftCoefficient(sin(-3), 0), 0.001f);
+        assertEquals(0.8075f, polar.liftCoefficient(sin(12.5f), 0), 0.001f);
+        assertEquals(0.8075f, polar.liftCoefficient(12.5f), 0.001f);
+        assertEquals(0f, polar.dragCoefficient(sin(10), 0), 0f);
+    }
+
+    @Test
+    public void stalledAirfoilHasNoLift() {
+        AirfoilPolar polar = AirfoilPolar.DEFAULT;
+        assertEquals(0f, polar.liftCoefficient(sin(45), 0), 0f);
+        assertEquals(0f, polar.liftCoefficient(1f, 0), 0f);
+    }
+
+    @Test
+    public void coefficientsAreInterpolatedByMach() {
+        float[] angles = {0, 10, 20};
+        AirfoilPolar polar = new AirfoilPolar(Arrays.asList(
+                polar(0.8f, angles, new float[]{0f, 0.6f, 0.6f}, new float[]{0.02f, 0.04f, 0.08f}),
+                polar(0.2f, angles, new float[]{0f, 1.0f, 1.0f}, new float[]{0.01f, 0.02f, 0.04f})));
+        assertTrue(polar.machDependent());
+        assertEquals(1.0f, polar.liftCoefficient(sin(10), 0.2f), 0.002f);
+        assertEquals(0.8f, polar.liftCoefficient(sin(10), 0.5f), 0.002f);
+        assertEquals(0.6f, polar.liftCoefficient(sin(10), 0.8f), 0.002f);
+        assertEquals(0.6f, polar.liftCoefficient(sin(10), 2f), 0.002f);
+        assertEquals(0.03f, polar.dragCoefficient(sin(10), 0.5f), 0.001f);
+        assertEquals(0.08f, polar.dragCoefficient(sin(40), 0.8f), 0.001f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void anglesMustIncrease() {
+        new AirfoilPolar(Collections.singletonList(polar(0f, new float[]{0, 5, 5}, new float[]{0, 0.5f, 0.6f}, null)));
+    }
+
+    @Test
+    public void polarIsLoadedFromTheDescriptor() throws IOException {
+        String json = "{\"name\":\"WingLeft\",\"polars\":[{\"mach\":0.0,"
+                + "\"angles\":[0.0,10.0,20.0],\"lift\":[0.0,1.0,1.2],\"drag\":[0.01,0.02,0.05]}]}";
+        AirfoilDescriptor airfoilDescriptor = new ObjectMapper().readValue(json, AirfoilDescriptor.class);
+        AirfoilPolar polar = airfoilDescriptor.polar();
+        assertSame(polar, airfoilDescriptor.polar());
+        assertEquals(1.1f, polar.liftCoefficient(sin(15), 0), 0.002f);
+        assertEquals(0.015f, polar.dragCoefficient(sin(5), 0), 0.001f);
+        assertSame(AirfoilPolar.DEFAULT, new AirfoilDescriptor().polar());
+    }
+}
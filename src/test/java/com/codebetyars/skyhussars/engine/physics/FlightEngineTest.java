@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.jobs.JobSystem;
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.THRUST_MAX;
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.engines;
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.flightEngine;
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.location;
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.planeDescriptor;
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.rotation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FlightEngineTest {
+
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    private final float tpf = 1f / 30f;
+
+    private FlightEngine createEngine() {
+        FlightEngine flightEngine = flightEngine(planeDescriptor(), 0f, 0.6f);
+        flightEngine.slot(0).setSpeedForward(300f);
+        return flightEngine;
+    }
+
+    /* the original flight model of the plane, built from the airfoil and engine objects */
+    private class ObjectModel implements Dynamics {
+
+        private final float mass;
+        private final Matrix3f inverseMomentOfInertia;
+        private final List<SymmetricAirfoil> airfoils = new ArrayList<>();
+        private final List<Engine> engines;
+
+        private ObjectModel(PlaneDescriptor planeDescriptor, float elevator, float throttle) {
+            mass = planeDescriptor.getMassGross();
+            inverseMomentOfInertia = FlightModel.momentOfInertiaTensor(mass).invertLocal();
+            for (AirfoilDescriptor airfoilDescriptor : planeDescriptor.getAirfolDescriptors()) {
+                SymmetricAirfoil airfoil = new SymmetricAirfoil(new AirfoilModel(airfoilDescriptor));
+                if (airfoil.role() == AirfoilRole.HORIZONTAL_STABILIZER) {
+                    airfoil.controlAileron(elevator);
+                }
+                airfoils.add(airfoil);
+            }
+            engines = engines(planeDescriptor, throttle);
+        }
+
+        @Override
+        public void accelerations(Quaternion rotation, Vector3f translation, Vector3f velocity,
+                Vector3f angularVelocity, Vector3f linearStore, Vector3f angularStore) {
+            float airDensity = environment.airDensity(translation.y);
+            float speedOfSound = environment.speedOfSound(translation.y);
+            Vector3f force = environment.gravity().mult(mass);
+            Vector3f torque = new Vector3f();
+            for (Engine engine : engines) {
+                force.addLocal(rotation.mult(engine.getThrust()));
+            }
+            for (SymmetricAirfoil airfoil : airfoils) {
+                Vector3f airfoilForce = airfoil.calculateResultantForce(airDensity, speedOfSound, velocity.negate(),
+                        rotation, angularVelocity);
+                force.addLocal(airfoilForce);
+                torque.addLocal(airfoil.getCenterOfGravity().cross(rotation.inverse().mult(airfoilForce)));
+            }
+            force.addLocal(velocity.negate().normalize().mult(airDensity * 0.2566f * velocity.lengthSquared()));
+            linearStore.set(force).divideLocal(mass);
+            inverseMomentOfInertia.mult(torque, angularStore);
+        }
+    }
+
+    @Test
+    public void followsTheObjectModel() {
+        PlaneDescriptor planeDescriptor = planeDescriptor();
+        FlightEngine flightEngine = flightEngine(planeDescriptor, 5f, 0.6f);
+        FlightEngine.Slot slot = flightEngine.slot(0);
+        slot.setSpeedForward(300f);
+        slot.substepping(Substepping.NONE);
+        slot.integrationMethod(IntegrationMethod.SEMI_IMPLICIT_EULER);
+        ObjectModel objectModel = new ObjectModel(planeDescriptor, 5f, 0.6f);
+        Integrator integrator = IntegrationMethod.SEMI_IMPLICIT_EULER.create();
+        Quaternion rotation = new Quaternion();
+        Vector3f translation = new Vector3f(0, 3000, 0);
+        Vector3f velocity = slot.velocity(new Vector3f());
+        Vector3f angularVelocity = new Vector3f();
+        for (int i = 0; i < 300; i++) {
+            integrator.step(objectModel, rotation, translation, velocity, angularVelocity, tpf);
+            flightEngine.step(tpf, environment, null);
+        }
+        Vector3f actual = location(slot);
+        assertEquals(translation.x, actual.x, 0.5f);
+        assertEquals(translation.y, actual.y, 0.5f);
+        assertEquals(translation.z, actual.z, 0.5f);
+        assertEquals(rotation.getX(), rotation(slot).getX(), 0.001f);
+        assertEquals(rotation.getW(), rotation(slot).getW(), 0.001f);
+        assertEquals(velocity.length(), slot.velocity(new Vector3f()).length(), 0.1f);
+    }
+
+    @Test
+    public void steadyStateStepDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        FlightEngine flightEngine = createEngine();
+        /* the tiered JIT allocates a little on the thread while it moves the step between tiers, so warm up past that */
+        for (int i = 0; i < 60000; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        assertEquals(0, allocated);
+    }
+
+    private float distanceFromReference(IntegrationMethod integrationMethod, int ticksPerSecond, Vector3f reference) {
+        FlightEngine flightEngine = createEngine();
+        flightEngine.slot(0).integrationMethod(integrationMethod);
+        flightEngine.slot(0).substepping(Substepping.NONE);
+        for (int i = 0; i < 10 * ticksPerSecond; i++) {
+            flightEngine.step(1f / ticksPerSecond, environment, null);
+        }
+        return location(flightEngine.slot(0)).distance(reference);
+    }
+
+    @Test
+    public void higherOrderIntegratorsStayCloserToReference() {
+        FlightEngine flightEngine = createEngine();
+        flightEngine.slot(0).integrationMethod(IntegrationMethod.RK4);
+        for (int i = 0; i < 10 * 960; i++) {
+            flightEngine.step(1f / 960f, environment, null);
+        }
+        Vector3f reference = location(flightEngine.slot(0));
+        float explicitEuler = distanceFromReference(IntegrationMethod.EXPLICIT_EULER, 10, reference);
+        float semiImplicitEuler = distanceFromReference(IntegrationMethod.SEMI_IMPLICIT_EULER, 10, reference);
+        float rk4 = distanceFromReference(IntegrationMethod.RK4, 10, reference);
+        assertTrue(explicitEuler + " > " + rk4, rk4 < explicitEuler);
+        assertTrue(semiImplicitEuler + " > " + rk4, rk4 < semiImplicitEuler);
+    }
+
+    @Test
+    public void thousandPlanesStepIndependently() {
+        PlaneDescriptor planeDescriptor = planeDescriptor();
+        int planes = 1000;
+        FlightEngine flightEngine = new FlightEngine(planes);
+        List<FlightEngine.Slot> slots = new ArrayList<>();
+        for (int i = 0; i < planes; i++) {
+            FlightEngine.Slot slot = flightEngine.register(planeDescriptor, new Vector3f(i * 100, 3000, 0), new Quaternion(), new Vector3f(0, 0, 83.3f));
+            slot.thrust(THRUST_MAX * 0.6f);
+            slots.add(slot);
+        }
+        for (int i = 0; i < 30; i++) {
+            flightEngine.step(tpf, environment, JobSystem.shared());
+        }
+        Vector3f first = location(slots.get(0));
+        Vector3f last = location(slots.get(planes - 1));
+        assertEquals(planes, flightEngine.count());
+        assertEquals((planes - 1) * 100, last.x - first.x, 0.01f);
+        assertEquals(first.z, last.z, 0.0001f);
+    }
+
+    @Test
+    public void movedSlotKeepsItsState() {
+        FlightEngine flightEngine = createEngine();
+        FlightEngine.Slot slot = flightEngine.slot(0);
+        slot.integrationMethod(IntegrationMethod.RK4);
+        slot.airfoilIntegrity(1, 0.5f);
+        for (int i = 0; i < 30; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+        FlightEngine world = new FlightEngine(2);
+        world.register(planeDescriptor(), new Vector3f(), new Quaternion(), new Vector3f());
+        FlightEngine.Slot moved = slot.moveTo(world);
+        assertEquals(1, moved.index());
+        assertEquals(IntegrationMethod.RK4, moved.integrationMethod());
+        assertEquals(0.5f, moved.airfoilIntegrity(1), 0f);
+        assertEquals(location(slot), location(moved));
+        flightEngine.step(tpf, environment, null);
+        world.step(tpf, environment, null);
+        assertEquals(location(slot), location(moved));
+        assertEquals(rotation(slot), rotation(moved));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void registeringOverCapacityFails() {
+        FlightEngine flightEngine = new FlightEngine(1);
+        flightEngine.register(planeDescriptor(), new Vector3f(), new Quaternion(), new Vector3f());
+        flightEngine.register(planeDescriptor(), new Vector3f(), new Quaternion(), new Vector3f());
+    }
+}
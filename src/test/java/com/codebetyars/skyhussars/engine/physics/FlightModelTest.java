@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Matrix3f;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FlightModelTest {
+
+    private AirfoilDescriptor airfoil(String name, Vector3f cog, boolean damper) {
+        AirfoilDescriptor airfoilDescriptor = new AirfoilDescriptor();
+        airfoilDescriptor.setName(name);
+        airfoilDescriptor.setCog(cog);
+        airfoilDescriptor.setWingArea(5f);
+        airfoilDescriptor.setAspectRatio(6f);
+        airfoilDescriptor.setDamper(damper);
+        return airfoilDescriptor;
+    }
+
+    private PlaneDescriptor planeDescriptor() {
+        List<AirfoilDescriptor> airfoils = new ArrayList<>();
+        airfoils.add(airfoil("WingLeft", new Vector3f(-2f, 0, 0), true));
+        airfoils.add(airfoil("WingRight", new Vector3f(2f, 0, 0), true));
+        airfoils.add(airfoil("HorizontalStabilizer", new Vector3f(0, 0, -6f), false));
+        airfoils.add(airfoil("VerticalStabilizer", new Vector3f(0, 0, -6f), false));
+        airfoils.add(airfoil("Canard", new Vector3f(0, 0, 3f), false));
+        PlaneDescriptor planeDescriptor = new PlaneDescriptor();
+        planeDescriptor.setMassGross(5307);
+        planeDescriptor.setAirfolDescriptors(airfoils);
+        return planeDescriptor;
+    }
+
+    @Test
+    public void modelIsCompiledOncePerDescriptor() {
+        PlaneDescriptor planeDescriptor = planeDescriptor();
+        FlightModel flightModel = planeDescriptor.flightModel();
+        assertSame(flightModel, planeDescriptor.flightModel());
+        assertSame(flightModel.airfoils().get(0).polar(), AirfoilPolar.DEFAULT);
+    }
+
+    @Test
+    public void inverseInertiaIsPrecomputed() {
+        FlightModel flightModel = planeDescriptor().flightModel();
+        Matrix3f identity = flightModel.momentOfInertia().mult(flightModel.inverseMomentOfInertia());
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                assertEquals(row == column ? 1f : 0f, identity.get(row, column), 0.0001f);
+            }
+        }
+    }
+
+    @Test
+    public void airfoilsGetRolesAndDampingFromTheirNames() {
+        List<AirfoilModel> airfoils = planeDescriptor().flightModel().airfoils();
+        assertEquals(AirfoilRole.WING_LEFT, airfoils.get(0).role());
+        assertEquals(AirfoilRole.WING_RIGHT, airfoils.get(1).role());
+        assertEquals(AirfoilRole.HORIZONTAL_STABILIZER, airfoils.get(2).role());
+        assertEquals(AirfoilRole.VERTICAL_STABILIZER, airfoils.get(3).role());
+        assertEquals(AirfoilRole.OTHER, airfoils.get(4).role());
+        assertEquals(2f, airfoils.get(0).damping(0f, 0f, 1f), 0f);
+        assertEquals(-2f, airfoils.get(1).damping(0f, 0f, 1f), 0f);
+        assertEquals(-12f, airfoils.get(2).damping(1f, 1f, 1f), 0f);
+        assertEquals(-6f, airfoils.get(3).damping(1f, 1f, 1f), 0f);
+        assertEquals(0f, airfoils.get(4).damping(1f, 1f, 1f), 0f);
+    }
+}
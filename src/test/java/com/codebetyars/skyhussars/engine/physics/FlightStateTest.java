@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlightStateTest {
+
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+
+    private static Quaternion rotation(float pitch, float yaw, float roll) {
+        return new Quaternion().fromAngles(pitch * FastMath.DEG_TO_RAD, yaw * FastMath.DEG_TO_RAD,
+                roll * FastMath.DEG_TO_RAD);
+    }
+
+    @Test
+    public void levelFlightHasNoAnglesAndOneG() {
+        FlightState state = new FlightState();
+        Vector3f velocity = new Vector3f(0, 0, 200);
+        state.update(new Vector3f(0, 1000, 0), rotation(0, 0, 0), velocity, 300, environment, 0);
+        state.update(new Vector3f(0, 1000, 10), rotation(0, 0, 0), velocity, 300, environment, 0.05f);
+        assertEquals(0f, state.roll(), 0.01f);
+        assertEquals(0f, state.pitch(), 0.01f);
+        assertEquals(0f, state.heading(), 0.01f);
+        assertEquals(0f, state.angleOfAttack(), 0.01f);
+        assertEquals(1000f, state.altitude(), 0f);
+        assertEquals(700f, state.heightAboveGround(), 0f);
+        assertEquals(720f, state.speedKmH(), 0.01f);
+        assertEquals(200f / environment.speedOfSound(1000), state.mach(), 0.0001f);
+        assertEquals(1f, state.gLoad(), 0.0001f);
+    }
+
+    @Test
+    public void anglesFollowTheRotation() {
+        FlightState state = new FlightState();
+        state.update(Vector3f.ZERO, rotation(0, 90, 0), new Vector3f(100, 0, 0), 0, environment, 0);
+        assertEquals(90f, state.heading(), 0.01f);
+        state.update(Vector3f.ZERO, rotation(0, 0, 30), new Vector3f(0, 0, 100), 0, environment, 0);
+        assertEquals(30f, state.roll(), 0.01f);
+        state.update(Vector3f.ZERO, rotation(0, 0, -30), new Vector3f(0, 0, 100), 0, environment, 0);
+        assertEquals(-30f, state.roll(), 0.01f);
+        /* nose up while still flying level */
+        state.update(Vector3f.ZERO, rotation(-10, 0, 0), new Vector3f(0, 0, 100), 0, environment, 0);
+        assertEquals(10f, state.pitch(), 0.01f);
+        assertEquals(10f, state.angleOfAttack(), 0.01f);
+    }
+
+    @Test
+    public void pullingUpLoadsThePlane() {
+        FlightState state = new FlightState();
+        state.update(Vector3f.ZERO, rotation(0, 0, 0), new Vector3f(0, 0, 200), 0, environment, 0);
+        state.update(Vector3f.ZERO, rotation(0, 0, 0), new Vector3f(0, 2, 200), 0, environment, 0.1f);
+        assertEquals(3f, state.gLoad(), 0.0001f);
+        FlightState copy = new FlightState().set(state);
+        assertEquals(3f, copy.gLoad(), 0f);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.EngineDescriptor;
+import com.codebetyars.skyhussars.engine.plane.EngineLocation;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The P-80 the physics tests fly, built by hand so the tests do not depend on
+ * the assets.
+ */
+final class PlaneFixtures {
+
+    /* N, of the single engine */
+    static final int THRUST_MAX = 17125;
+
+    private PlaneFixtures() {
+    }
+
+    static AirfoilDescriptor airfoil(String name, Vector3f cog, float wingArea, float incidence, float aspectRatio, boolean damper, float dehidral) {
+        AirfoilDescriptor airfoilDescriptor = new AirfoilDescriptor();
+        airfoilDescriptor.setName(name);
+        airfoilDescriptor.setCog(cog);
+        airfoilDescriptor.setWingArea(wingArea);
+        airfoilDescriptor.setIncidence(incidence);
+        airfoilDescriptor.setAspectRatio(aspectRatio);
+        airfoilDescriptor.setDamper(damper);
+        airfoilDescriptor.setDehidralDegree(dehidral);
+        return airfoilDescriptor;
+    }
+
+    static PlaneDescriptor planeDescriptor() {
+        List<AirfoilDescriptor> airfoils = new ArrayList<>();
+        airfoils.add(airfoil("WingLeft", new Vector3f(-2.0f, 0, -0.2f), 22.07f / 2f, 1f, 6.37f, true, 0f));
+        airfoils.add(airfoil("WingRight", new Vector3f(2.0f, 0, -0.2f), 22.07f / 2f, 1f, 6.37f, true, 0f));
+        airfoils.add(airfoil("HorizontalStabilizer", new Vector3f(0, 0, -6f), 5f, -3f, 6.37f / 1.5f, false, 0f));
+        airfoils.add(airfoil("VerticalStabilizer", new Vector3f(0, 0, -6f), 5f, 0f, 6.37f / 1.5f, false, 90f));
+        EngineDescriptor engineDescriptor = new EngineDescriptor();
+        engineDescriptor.setThrustMax(THRUST_MAX);
+        EngineLocation engineLocation = new EngineLocation();
+        engineLocation.setEngineDescriptor(engineDescriptor);
+        engineLocation.setLocation(new Vector3f(0f, 0f, 0f));
+        List<EngineLocation> engineLocations = new ArrayList<>();
+        engineLocations.add(engineLocation);
+        PlaneDescriptor planeDescriptor = new PlaneDescriptor();
+        planeDescriptor.setMassGross(5307);
+        planeDescriptor.setAirfolDescriptors(airfoils);
+        planeDescriptor.setEngineLocations(engineLocations);
+        return planeDescriptor;
+    }
+
+    static List<Engine> engines(PlaneDescriptor planeDescriptor, float throttle) {
+        List<Engine> engines = new ArrayList<>();
+        for (EngineLocation engineLocation : planeDescriptor.getEngineLocations()) {
+            Engine engine = new Engine(engineLocation, 1.0f);
+            engine.setThrottle(throttle);
+            engines.add(engine);
+        }
+        return engines;
+    }
+
+    /**
+     * @return the engine with the plane at 3000 m in its first slot, at rest
+     * until a speed is set
+     */
+    static FlightEngine flightEngine(PlaneDescriptor planeDescriptor, float elevator, float throttle) {
+        FlightEngine flightEngine = new FlightEngine(1);
+        FlightEngine.Slot slot = flightEngine.register(planeDescriptor, new Vector3f(0, 3000, 0), new Quaternion(),
+                new Vector3f());
+        slot.elevator(elevator);
+        slot.thrust(THRUST_MAX * throttle);
+        return flightEngine;
+    }
+
+    /**
+     * @return the location of the last step, read through a snapshot as the
+     * other threads see it
+     */
+    static Vector3f location(PlanePhysics planePhysics) {
+        FlightSnapshot snapshot = new FlightSnapshot(1);
+        planePhysics.writeSnapshot(snapshot, 0);
+        return snapshot.translation(0, new Vector3f());
+    }
+
+    static Quaternion rotation(PlanePhysics planePhysics) {
+        FlightSnapshot snapshot = new FlightSnapshot(1);
+        planePhysics.writeSnapshot(snapshot, 0);
+        return snapshot.rotation(0, new Quaternion());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.physics;
+
+import com.codebetyars.skyhussars.engine.physics.environment.Environment;
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.jme3.math.Vector3f;
+import org.junit.Test;
+
+import static com.codebetyars.skyhussars.engine.physics.PlaneFixtures.planeDescriptor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PointMassTest {
+
+    private final Environment environment = new Environment(10, new StandardAtmosphere());
+    private final float tpf = 1f / 30f;
+
+    private FlightEngine flightEngine() {
+        FlightEngine flightEngine = PlaneFixtures.flightEngine(planeDescriptor(), 0f, 0.6f);
+        flightEngine.slot(0).setSpeedForward(500f);
+        return flightEngine;
+    }
+
+    private float height(PlanePhysics planePhysics) {
+        return PlaneFixtures.location(planePhysics).y;
+    }
+
+    /* per unit of mass */
+    private float energy(PlanePhysics planePhysics) {
+        return planePhysics.velocity(new Vector3f()).lengthSquared() / 2f + 10f * height(planePhysics);
+    }
+
+    @Test
+    public void switchingToPointMassKeepsTheEnergy() {
+        FlightEngine full = flightEngine();
+        FlightEngine pointMass = flightEngine();
+        for (int i = 0; i < 60; i++) {
+            full.step(tpf, environment, null);
+            pointMass.step(tpf, environment, null);
+        }
+        pointMass.slot(0).physicsLevel(PhysicsLevel.POINT_MASS);
+        for (int i = 0; i < 30; i++) {
+            float before = energy(pointMass.slot(0));
+            full.step(tpf, environment, null);
+            pointMass.step(tpf, environment, null);
+            assertEquals(before, energy(pointMass.slot(0)), 0.002f * before);
+        }
+        assertEquals(energy(full.slot(0)), energy(pointMass.slot(0)), 0.005f * energy(full.slot(0)));
+        pointMass.slot(0).physicsLevel(PhysicsLevel.FULL);
+        float before = energy(pointMass.slot(0));
+        pointMass.step(tpf, environment, null);
+        assertEquals(before, energy(pointMass.slot(0)), 0.002f * before);
+    }
+
+    @Test
+    public void shotDownPlaneFalls() {
+        FlightEngine flightEngine = flightEngine();
+        flightEngine.slot(0).physicsLevel(PhysicsLevel.BALLISTIC);
+        for (int i = 0; i < 90; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+        assertTrue(height(flightEngine.slot(0)) < 3000f - 30f);
+        assertTrue(flightEngine.slot(0).velocity(new Vector3f()).y < -20f);
+    }
+
+    @Test
+    public void crashedPlaneSleeps() {
+        FlightEngine flightEngine = flightEngine();
+        flightEngine.slot(0).physicsLevel(PhysicsLevel.ASLEEP);
+        for (int i = 0; i < 30; i++) {
+            flightEngine.step(tpf, environment, null);
+        }
+        assertEquals(3000f, height(flightEngine.slot(0)), 0f);
+        assertEquals(500f / 3.6f, flightEngine.slot(0).velocity(new Vector3f()).length(), 0.001f);
+    }
+
+    @Test
+    public void wakingUpKeepsTheEnergy() {
+        FlightEngine flightEngine = flightEngine();
+        flightEngine.slot(0).physicsLevel(PhysicsLevel.ASLEEP);
+        flightEngine.step(tpf, environment, null);
+        flightEngine.slot(0).physicsLevel(PhysicsLevel.FULL);
+        float before = energy(flightEngine.slot(0));
+        flightEngine.step(tpf, environment, null);
+        assertEquals(before, energy(flightEngine.slot(0)), 0.002f * before);
+    }
+
+    @Test
+    public void levelsChangeWithHysteresis() {
+        PhysicsLod lod = new PhysicsLod(1000f, 2000f);
+        assertEquals(PhysicsLevel.FULL, lod.level(PhysicsLevel.FULL, false, false, 1500f * 1500f));
+        assertEquals(PhysicsLevel.POINT_MASS, lod.level(PhysicsLevel.FULL, false, false, 2500f * 2500f));
+        assertEquals(PhysicsLevel.POINT_MASS, lod.level(PhysicsLevel.POINT_MASS, false, false, 1500f * 1500f));
+        assertEquals(PhysicsLevel.FULL, lod.level(PhysicsLevel.POINT_MASS, false, false, 500f * 500f));
+        assertEquals(PhysicsLevel.BALLISTIC, lod.level(PhysicsLevel.POINT_MASS, false, true, 0f));
+        assertEquals(PhysicsLevel.ASLEEP, lod.level(PhysicsLevel.BALLISTIC, true, true, 0f));
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SubsteppingTest {
+
+    private final Substepping substepping = Substepping.ADAPTIVE;
+
+    @Test
+    public void calmFlightIsNotSubdivided() {
+        assertEquals(1, substepping.substeps(1f / 30f, 2f, 20000f));
+    }
+
+    @Test
+    public void fastRotationIsSubdivided() {
+        assertEquals(3, substepping.substeps(1f / 10f, 2.5f, 20000f));
+    }
+
+    @Test
+    public void highDynamicPressureIsSubdivided() {
+        assertEquals(2, substepping.substeps(1f / 30f, 0f, 45000f));
+    }
+
+    @Test
+    public void substepsAreLimited() {
+        assertEquals(8, substepping.substeps(1f / 10f, 100f, 20000f));
+        assertEquals(1, Substepping.NONE.substeps(1f / 10f, 100f, 1000000f));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void limitsMustBePositive() {
+        new Substepping(0.1f, 30000f, 0);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TripleBufferTest {
+
+    @Test
+    public void readerGetsLatestPublishedBuffer() {
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[1]);
+        long[] unpublished = buffer.front();
+        buffer.back()[0] = 1;
+        buffer.publish();
+        buffer.back()[0] = 2;
+        buffer.publish();
+        long[] front = buffer.front();
+        assertEquals(2, front[0]);
+        assertSame(front, buffer.front());
+        assertNotSame(unpublished, front);
+        assertNotSame(front, buffer.back());
+    }
+
+    @Test
+    public void readerNeverSeesTornOrOlderState() throws InterruptedException {
+        int ticks = 200000;
+        TripleBuffer<long[]> buffer = new TripleBuffer<>(() -> new long[64]);
+        AtomicInteger violations = new AtomicInteger();
+        Thread writer = new Thread(() -> {
+            for (long tick = 1; tick <= ticks; tick++) {
+                long[] back = buffer.back();
+                for (int i = 0; i < back.length; i++) {
+                    back[i] = tick;
+                }
+                buffer.publish();
+            }
+        });
+        writer.start();
+        long last = 0;
+        while (last < ticks) {
+            long[] front = buffer.front();
+            long tick = front[0];
+            for (int i = 1; i < front.length; i++) {
+                if (front[i] != tick) {
+                    violations.incrementAndGet();
+                }
+            }
+            if (tick < last) {
+                violations.incrementAndGet();
+            }
+            last = tick;
+        }
+        writer.join();
+        assertEquals(0, violations.get());
+        assertEquals(ticks, last);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.physics.environment;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class StandardAtmosphereTest {
+
+    private final StandardAtmosphere atmosphere = new StandardAtmosphere();
+
+    @Test
+    public void seaLevelValues() {
+        assertEquals(1.225f, atmosphere.airDensity(0), 0.001f);
+        assertEquals(288.15f, atmosphere.temperature(0), 0.01f);
+        assertEquals(101325f, atmosphere.pressure(0), 1f);
+        assertEquals(340.29f, atmosphere.speedOfSound(0), 0.01f);
+    }
+
+    @Test
+    public void tropopauseValues() {
+        assertEquals(216.65f, atmosphere.temperature(11000), 0.01f);
+        assertEquals(22632f, atmosphere.pressure(11000), 2f);
+        assertEquals(0.3639f, atmosphere.airDensity(11000), 0.0005f);
+        assertEquals(216.65f, atmosphere.temperature(15000), 0.01f);
+        assertEquals(0.0880f, atmosphere.airDensity(20000), 0.0005f);
+    }
+
+    @Test
+    public void densityIsContinuous() {
+        float previous = atmosphere.airDensity(-1000);
+        for (float altitude = -999.5f; altitude < 20000; altitude += 0.5f) {
+            float density = atmosphere.airDensity(altitude);
+            assertEquals("at " + altitude, previous, density, 0.0001f);
+            previous = density;
+        }
+    }
+
+    @Test
+    public void altitudesOutsideOfTheTablesAreClamped() {
+        assertEquals(atmosphere.airDensity(-2000), atmosphere.airDensity(-5000), 0f);
+        assertEquals(atmosphere.airDensity(86000), atmosphere.airDensity(200000), 0f);
+    }
+
+    @Test
+    public void batchSampleMatchesSingleQueries() {
+        float[] altitudes = {-500f, 0f, 123.4f, 3000f, 10999.9f, 45000f};
+        float[] densities = new float[altitudes.length];
+        float[] speedsOfSound = new float[altitudes.length];
+        atmosphere.sample(altitudes, densities);
+        atmosphere.sampleSpeedOfSound(altitudes, speedsOfSound);
+        for (int i = 0; i < altitudes.length; i++) {
+            assertEquals(atmosphere.airDensity(altitudes[i]), densities[i], 0f);
+            assertEquals(atmosphere.speedOfSound(altitudes[i]), speedsOfSound[i], 0f);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchOutputMustBeLongEnough() {
+        atmosphere.sample(new float[3], new float[2]);
+    }
+}
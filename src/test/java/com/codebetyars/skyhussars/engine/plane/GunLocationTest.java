@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.plane;
+
+import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileSpawns;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.lang.management.ManagementFactory;
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class GunLocationTest {
+
+    private static GunLocation gun(float rateOfFire, int rounds) {
+        GunDescriptor gunDescriptor = new GunDescriptor();
+        gunDescriptor.setRateOfFire(rateOfFire);
+        gunDescriptor.setMuzzleVelocity(800f);
+        GunLocationDescriptor gunLocationDescriptor = new GunLocationDescriptor();
+        gunLocationDescriptor.setGunDescriptor(gunDescriptor);
+        gunLocationDescriptor.setRoundsMax(rounds);
+        gunLocationDescriptor.setLocation(new Vector3f());
+        return new GunLocation(gunLocationDescriptor, rounds, new ProjectileManager(), 0);
+    }
+
+    private static int fire(GunLocation gun, float dt, int steps, ProjectileSpawns spawns) {
+        int fired = 0;
+        for (int i = 0; i < steps; i++) {
+            fired += gun.fire(dt, true, Vector3f.ZERO, Vector3f.ZERO, Quaternion.IDENTITY, spawns);
+        }
+        return fired;
+    }
+
+    @Test
+    public void roundsFollowTheRateOfFireAtAnyStep() {
+        /* one round is chambered, then 20 a second */
+        assertEquals(21, fire(gun(20f, 500), 1f / 30f, 30, new ProjectileSpawns()));
+        assertEquals(21, fire(gun(20f, 500), 1f / 120f, 120, new ProjectileSpawns()));
+        assertEquals(21, fire(gun(20f, 500), 1f, 1, new ProjectileSpawns()));
+    }
+
+    @Test
+    public void gunStopsWhenOutOfAmmunition() {
+        GunLocation gun = gun(20f, 10);
+        ProjectileSpawns spawns = new ProjectileSpawns();
+        assertEquals(10, fire(gun, 1f / 30f, 60, spawns));
+        assertEquals(0, gun.rounds());
+        assertEquals(10, spawns.count());
+    }
+
+    @Test
+    public void roundsOfAStepLeaveTheMuzzleInOrder() {
+        ProjectileSpawns spawns = new ProjectileSpawns();
+        fire(gun(20f, 500), 0.5f, 1, spawns);
+        assertEquals(11, spawns.count());
+        /* the first round flew 0.5 s, the last one just left */
+        assertEquals(400f, spawns.location(0, new Vector3f()).z, 1e-3f);
+        assertEquals(0f, spawns.location(10, new Vector3f()).z, 1e-3f);
+    }
+
+    @Test
+    public void firingDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        GunLocation gun = gun(20f, Integer.MAX_VALUE);
+        gun.descriptor().getGunDescriptor().setSpread(0.5f);
+        ProjectileSpawns spawns = new ProjectileSpawns();
+        Vector3f velocity = new Vector3f(0f, 0f, 200f);
+        /* the tiered JIT allocates a little on the thread while it moves the step between tiers, so warm up past that */
+        for (int i = 0; i < 60000; i++) {
+            gun.fire(1f / 30f, true, Vector3f.ZERO, velocity, Quaternion.IDENTITY, spawns);
+            spawns.clear();
+        }
+        long overhead = threadBean.getThreadAllocatedBytes(threadId);
+        overhead = threadBean.getThreadAllocatedBytes(threadId) - overhead;
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1000; i++) {
+            gun.fire(1f / 30f, true, Vector3f.ZERO, velocity, Quaternion.IDENTITY, spawns);
+            spawns.clear();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+        assertEquals(0, allocated);
+    }
+}
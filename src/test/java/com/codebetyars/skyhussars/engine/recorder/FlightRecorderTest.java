@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.recorder;
+
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileManager;
+import com.jme3.math.FastMath;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderTest {
+
+    private static final int PLANES = 3;
+    private static final int TICKS = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Vector3f vector = new Vector3f();
+    private final Quaternion rotation = new Quaternion();
+
+    private void flight(FlightSnapshot snapshot, long tick) {
+        snapshot.tick(tick);
+        for (int i = 0; i < PLANES; i++) {
+            rotation.fromAngles(0.01f * tick, i, 0);
+            snapshot.write(i, Vector3f.ZERO, Quaternion.IDENTITY,
+                    new Vector3f(i * 1000f + tick * 3.33f, 3000f - tick, -tick * 200.17f), rotation,
+                    new Vector3f(100f, -30f, i * 0.5f));
+        }
+    }
+
+    private File record(int keyframeInterval) throws IOException {
+        File file = folder.newFile("flight.shr");
+        FlightSnapshot snapshot = new FlightSnapshot(PLANES);
+        try (FlightRecorder recorder = new FlightRecorder(file, 30, keyframeInterval)) {
+            for (long tick = 1; tick <= TICKS; tick++) {
+                flight(snapshot, tick);
+                /* the test needs every frame, the simulation would drop them */
+                while (!recorder.record(tick, snapshot, null)) {
+                    Thread.yield();
+                }
+            }
+        }
+        return file;
+    }
+
+    private void assertFrame(FlightReplay replay, long tick) {
+        FlightSnapshot expected = new FlightSnapshot(PLANES);
+        flight(expected, tick);
+        assertEquals(tick, replay.tick());
+        assertEquals(PLANES, replay.planeCount());
+        Vector3f expectedVector = new Vector3f();
+        Quaternion expectedRotation = new Quaternion();
+        for (int i = 0; i < PLANES; i++) {
+            assertEquals(0f, expected.translation(i, expectedVector).distance(replay.translation(i, vector)), 0.01f);
+            assertEquals(0f, expected.velocity(i, expectedVector).distance(replay.velocity(i, vector)), 0.01f);
+            float dot = FastMath.abs(expected.rotation(i, expectedRotation).dot(replay.rotation(i, rotation)));
+            assertEquals(1f, dot, 0.0001f);
+        }
+    }
+
+    @Test
+    public void replaysEveryFrame() throws IOException {
+        try (FlightReplay replay = new FlightReplay(record(10))) {
+            assertEquals(30, replay.ticksPerSecond());
+            assertEquals(-1, replay.tick());
+            for (long tick = 1; tick <= TICKS; tick++) {
+                assertTrue(replay.next());
+                assertFrame(replay, tick);
+            }
+            assertFalse(replay.next());
+        }
+    }
+
+    @Test
+    public void seeksWithoutDecodingFromTheStart() throws IOException {
+        try (FlightReplay replay = new FlightReplay(record(10))) {
+            assertTrue(replay.seek(55));
+            assertFrame(replay, 55);
+            assertTrue(replay.seek(20));
+            assertFrame(replay, 20);
+            assertTrue(replay.next());
+            assertFrame(replay, 21);
+            assertTrue(replay.seek(1000));
+            assertFrame(replay, TICKS);
+            assertFalse(replay.seek(0));
+        }
+    }
+
+    @Test
+    public void replaysProjectilesWhenRoundsExpireOutOfOrder() throws IOException {
+        File file = folder.newFile("projectiles.shr");
+        FlightSnapshot snapshot = new FlightSnapshot(PLANES);
+        ProjectileManager projectiles = new ProjectileManager();
+        /* the fast round expires first and the last one takes its place */
+        projectiles.addProjectile(0, new Vector3f(0f, 1000f, 0f), new Vector3f(0f, 0f, 1000f), true);
+        projectiles.addProjectile(0, new Vector3f(10f, 1000f, 0f), new Vector3f(0f, 0f, 250f), true);
+        projectiles.addProjectile(0, new Vector3f(20f, 1000f, 0f), new Vector3f(0f, 0f, 500f), true);
+        List<float[]> expected = new ArrayList<>();
+        try (FlightRecorder recorder = new FlightRecorder(file, 30, 10)) {
+            for (long tick = 1; tick <= TICKS * 2; tick++) {
+                flight(snapshot, tick);
+                projectiles.update(1f / 30f);
+                float[] values = new float[projectiles.projectileCount() * 6];
+                for (int i = 0; i < projectiles.projectileCount(); i++) {
+                    projectiles.projectileLocation(i, vector);
+                    values[i * 6] = vector.x;
+                    values[i * 6 + 1] = vector.y;
+                    values[i * 6 + 2] = vector.z;
+                    projectiles.projectileVelocity(i, vector);
+                    values[i * 6 + 3] = vector.x;
+                    values[i * 6 + 4] = vector.y;
+                    values[i * 6 + 5] = vector.z;
+                }
+                expected.add(values);
+                while (!recorder.record(tick, snapshot, projectiles)) {
+                    Thread.yield();
+                }
+            }
+        }
+        assertEquals(2, expected.get(TICKS).length / 6);
+        try (FlightReplay replay = new FlightReplay(file)) {
+            for (float[] values : expected) {
+                assertTrue(replay.next());
+                assertEquals(values.length / 6, replay.projectileCount());
+                for (int i = 0; i < replay.projectileCount(); i++) {
+                    replay.projectileLocation(i, vector);
+                    assertEquals(values[i * 6], vector.x, 0.01f);
+                    assertEquals(values[i * 6 + 1], vector.y, 0.01f);
+                    assertEquals(values[i * 6 + 2], vector.z, 0.01f);
+                    replay.projectileVelocity(i, vector);
+                    assertEquals(values[i * 6 + 3], vector.x, 0.01f);
+                    assertEquals(values[i * 6 + 4], vector.y, 0.01f);
+                    assertEquals(values[i * 6 + 5], vector.z, 0.01f);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.telemetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TelemetryTest {
+
+    private static class Collecting implements TelemetrySink {
+
+        final List<String> samples = new ArrayList<>();
+        boolean closed;
+
+        @Override
+        public void sample(long tick, int source, Metric metric, float value) {
+            samples.add(tick + ":" + source + ":" + metric + ":" + value);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    @Test
+    public void samplesOnlyEveryIntervalTicksWhileRunning() {
+        Telemetry telemetry = new Telemetry(16);
+        telemetry.tick(0);
+        assertFalse(telemetry.sampling());
+        telemetry.start(new Collecting(), 3);
+        telemetry.tick(3);
+        assertTrue(telemetry.sampling());
+        telemetry.tick(4);
+        assertFalse(telemetry.sampling());
+        telemetry.stop();
+        telemetry.tick(6);
+        assertFalse(telemetry.sampling());
+    }
+
+    @Test
+    public void drainsEverySampleInOrder() {
+        Telemetry telemetry = new Telemetry(1024);
+        int source = telemetry.source("plane");
+        Collecting sink = new Collecting();
+        telemetry.start(sink, 1);
+        for (int tick = 1; tick <= 500; tick++) {
+            telemetry.tick(tick);
+            telemetry.sample(source, Metric.SPEED, tick);
+        }
+        telemetry.stop();
+        assertTrue(sink.closed);
+        assertEquals(500, sink.samples.size());
+        assertEquals("1:0:SPEED:1.0", sink.samples.get(0));
+        assertEquals("500:0:SPEED:500.0", sink.samples.get(499));
+        assertEquals(0, telemetry.dropped());
+    }
+
+    @Test
+    public void dropsSamplesWhenFull() throws InterruptedException {
+        Telemetry telemetry = new Telemetry(4);
+        CountDownLatch release = new CountDownLatch(1);
+        Collecting sink = new Collecting() {
+            @Override
+            public void sample(long tick, int source, Metric metric, float value) {
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                super.sample(tick, source, metric, value);
+            }
+        };
+        telemetry.start(sink, 1);
+        for (int i = 0; i < 6; i++) {
+            telemetry.sample(0, Metric.ALTITUDE, i);
+        }
+        assertEquals(2, telemetry.dropped());
+        release.countDown();
+        telemetry.stop();
+        assertEquals(4, sink.samples.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void capacityMustBeAPowerOfTwo() {
+        new Telemetry(100);
+    }
+}
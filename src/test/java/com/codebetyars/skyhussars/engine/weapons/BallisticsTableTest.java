@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.codebetyars.skyhussars.engine.plane.BulletDescriptor;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BallisticsTableTest {
+
+    private final StandardAtmosphere atmosphere = new StandardAtmosphere();
+
+    private static BulletDescriptor bullet(float dragCoefficient) {
+        BulletDescriptor bullet = new BulletDescriptor();
+        bullet.setName(".50 M2 Ball");
+        bullet.setCaliber(0.0127f);
+        bullet.setMass(0.0459f);
+        bullet.setDragCoefficient(dragCoefficient);
+        return bullet;
+    }
+
+    @Test
+    public void withoutDragTheRoundOnlyFalls() {
+        BallisticsTable table = new BallisticsTable(bullet(0f), 800f, 2000f, 10f, atmosphere);
+        assertEquals(800f, table.distance(1f, 0f, 1f), 0.5f);
+        assertEquals(800f, table.speed(1f, 0f, 1f), 1e-3f);
+        assertEquals(5f, table.drop(1f, 0f), 0.05f);
+        assertEquals(10f, table.dropSpeed(1f, 0f), 1e-3f);
+        assertEquals(2.5f, table.timeOfFlight(2000f, 0f, 1f), 1e-3f);
+    }
+
+    @Test
+    public void speedDecaysWithQuadraticDrag() {
+        BulletDescriptor bullet = bullet(0.28f);
+        BallisticsTable table = new BallisticsTable(bullet, 890f, 2000f, 10f, atmosphere);
+        float radius = bullet.getCaliber() / 2f;
+        float drag = bullet.getDragCoefficient() * (float) Math.PI * radius * radius / (2f * bullet.getMass())
+                * atmosphere.airDensity(0f);
+        /* v = v0 / (1 + k v0 t) without gravity, the drop hardly changes it */
+        assertEquals(890f / (1f + drag * 890f), table.speed(1f, 0f, 1f), 2f);
+        assertTrue(table.distance(1f, 6000f, 1f) > table.distance(1f, 0f, 1f));
+    }
+
+    @Test
+    public void fasterRoundsRunOnAScaledClock() {
+        BallisticsTable table = new BallisticsTable(bullet(0.28f), 890f, 2000f, 10f, atmosphere);
+        float time = table.timeOfFlight(1000f, 0f, 1f);
+        assertEquals(1000f, table.distance(time, 0f, 1f), 0.5f);
+        assertEquals(time / 1.2f, table.timeOfFlight(1000f, 0f, 1.2f), 1e-4f);
+        assertEquals(table.speed(time, 0f, 1f) * 1.2f, table.speed(time / 1.2f, 0f, 1.2f), 1e-2f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bulletWithoutMassIsRejected() {
+        BulletDescriptor bullet = bullet(0.28f);
+        bullet.setMass(0f);
+        new BallisticsTable(bullet, 890f, 2000f, 10f, atmosphere);
+    }
+}
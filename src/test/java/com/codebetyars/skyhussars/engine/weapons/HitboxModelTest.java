@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.plane.AirfoilDescriptor;
+import com.codebetyars.skyhussars.engine.plane.HitboxDescriptor;
+import com.codebetyars.skyhussars.engine.plane.PlaneDescriptor;
+import com.jme3.math.Vector3f;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HitboxModelTest {
+
+    private static HitboxDescriptor box(String name, String airfoil, HitboxDescriptor... children) {
+        HitboxDescriptor hitbox = new HitboxDescriptor();
+        hitbox.setName(name);
+        hitbox.setCenter(new Vector3f());
+        hitbox.setExtent(new Vector3f(1f, 1f, 1f));
+        hitbox.setAirfoil(airfoil);
+        hitbox.setDamage(0.1f);
+        hitbox.setChildren(Arrays.asList(children));
+        return hitbox;
+    }
+
+    private static PlaneDescriptor plane() {
+        AirfoilDescriptor wing = new AirfoilDescriptor();
+        wing.setName("Wing");
+        PlaneDescriptor plane = new PlaneDescriptor();
+        plane.setName("Test");
+        plane.setAirfolDescriptors(Collections.singletonList(wing));
+        plane.setEngineLocations(Collections.emptyList());
+        return plane;
+    }
+
+    @Test
+    public void hitboxesAreNumberedBreadthFirst() {
+        HitboxDescriptor root = box("Root", null, box("Fuselage", null, box("Cockpit", null)), box("Wing", "Wing"));
+        root.setRadius(5f);
+        HitboxModel model = new HitboxModel(root, plane());
+        assertEquals(4, model.count());
+        assertEquals(5f, model.boundingRadius(), 0f);
+        assertEquals("Fuselage", model.name(1));
+        assertEquals("Wing", model.name(2));
+        assertEquals("Cockpit", model.name(3));
+        assertEquals(1, model.firstChild[0]);
+        assertEquals(2, model.childCount[0]);
+        assertEquals(3, model.firstChild[1]);
+        assertEquals(0, model.airfoil(2));
+        assertEquals(-1, model.airfoil(1));
+        assertEquals(-1, model.engine(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingAirfoilIsRejected() {
+        new HitboxModel(box("Root", null, box("Tail", "Tail")), plane());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingEngineIsRejected() {
+        HitboxDescriptor engine = box("Engine", null);
+        engine.setEngine(0);
+        new HitboxModel(box("Root", null, engine), plane());
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.data.PlaneRegistry;
+import com.codebetyars.skyhussars.engine.headless.HeadlessSimulation;
+import com.codebetyars.skyhussars.engine.headless.ScenarioDescriptor;
+import com.codebetyars.skyhussars.engine.headless.ScenarioPlaneDescriptor;
+import com.codebetyars.skyhussars.engine.loader.PlaneRegistryLoader;
+import com.codebetyars.skyhussars.engine.physics.FlightSnapshot;
+import com.codebetyars.skyhussars.engine.plane.Plane;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileStore.OverflowPolicy;
+import com.jme3.math.Quaternion;
+import com.jme3.math.Vector3f;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProjectileCollisionsTest {
+
+    private final ProjectileCollisions collisions = new ProjectileCollisions();
+
+    @Test
+    public void segmentThroughABoxEntersAtItsFace() {
+        /* 30 m from the center of a 12 m wide box to 30 m past it, a point test at either end would miss */
+        assertEquals(0.4f, collisions.sweepBox(-30f, 0f, 0f, 60f, 0f, 0f, 6f, 1f, 4f), 1e-6f);
+    }
+
+    @Test
+    public void segmentBesideOrShortOfABoxMisses() {
+        assertEquals(Float.MAX_VALUE, collisions.sweepBox(-30f, 2f, 0f, 60f, 0f, 0f, 6f, 1f, 4f), 0f);
+        assertEquals(Float.MAX_VALUE, collisions.sweepBox(-30f, 0f, 0f, 20f, 0f, 0f, 6f, 1f, 4f), 0f);
+    }
+
+    @Test
+    public void segmentStartingInsideHitsAtOnce() {
+        assertEquals(0f, collisions.sweepBox(1f, 0f, 0f, 60f, 0f, 0f, 6f, 1f, 4f), 0f);
+        assertEquals(0f, ProjectileCollisions.sweepSphere(1f, 0f, 0f, 60f, 0f, 0f, 5f), 0f);
+    }
+
+    @Test
+    public void segmentThroughASphereEntersAtItsSurface() {
+        assertEquals(0.25f, ProjectileCollisions.sweepSphere(0f, 0f, -20f, 0f, 0f, 60f, 5f), 1e-6f);
+        assertEquals(Float.MAX_VALUE, ProjectileCollisions.sweepSphere(0f, 6f, -20f, 0f, 0f, 60f, 5f), 0f);
+        assertEquals(Float.MAX_VALUE, ProjectileCollisions.sweepSphere(0f, 0f, 20f, 0f, 0f, 60f, 5f), 0f);
+    }
+
+    private List<Plane> planes() {
+        PlaneRegistry planeRegistry = new PlaneRegistryLoader(new File("assets")).planeRegistry();
+        List<ScenarioPlaneDescriptor> planes = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ScenarioPlaneDescriptor plane = new ScenarioPlaneDescriptor();
+            plane.setPlaneType(planeRegistry.availablePlanes().get(0));
+            plane.setPlayer(i == 0);
+            plane.setLocation(new Vector3f(i * 500f, 3000f, 0f));
+            planes.add(plane);
+        }
+        ScenarioDescriptor scenario = new ScenarioDescriptor();
+        scenario.setName("test");
+        scenario.setTicks(30);
+        scenario.setPlanes(planes);
+        return new HeadlessSimulation(scenario, planeRegistry, at -> 0f).planes();
+    }
+
+    @Test
+    public void planesAreWhereTheSnapshotPutsThem() {
+        List<Plane> planes = planes();
+        FlightSnapshot snapshot = new FlightSnapshot(2);
+        Vector3f target = new Vector3f(2000f, 3000f, 2000f);
+        snapshot.write(0, planes.get(0).getLocation(), Quaternion.IDENTITY, planes.get(0).getLocation(),
+                Quaternion.IDENTITY, Vector3f.ZERO);
+        snapshot.write(1, target, Quaternion.IDENTITY, target, Quaternion.IDENTITY, Vector3f.ZERO);
+        ProjectileStore store = new ProjectileStore(8, OverflowPolicy.DROP_NEWEST);
+        int owner = planes.get(0).projectileOwner();
+        /* one round through the plane in the snapshot, one through its place in the scene */
+        store.spawn(owner, target.add(0f, 0f, -150f), new Vector3f(0f, 0f, 3000f), 1f, false);
+        store.spawn(owner, planes.get(1).getLocation().add(0f, 0f, -150f), new Vector3f(0f, 0f, 3000f), 1f, false);
+        store.update(0.1f, null, null);
+        ProjectileHits hits = new ProjectileHits();
+        collisions.detect(store, planes, snapshot, 0.1f, hits);
+        assertEquals(1, hits.count());
+        assertEquals(1, hits.target(0));
+        assertEquals(target.z, hits.location(0, new Vector3f()).z, 20f);
+    }
+
+    @Test
+    public void roundIsSweptFromTheMuzzle() {
+        List<Plane> planes = planes();
+        FlightSnapshot snapshot = new FlightSnapshot(2);
+        Vector3f target = new Vector3f(2000f, 3000f, 2000f);
+        snapshot.write(0, planes.get(0).getLocation(), Quaternion.IDENTITY, planes.get(0).getLocation(),
+                Quaternion.IDENTITY, Vector3f.ZERO);
+        snapshot.write(1, target, Quaternion.IDENTITY, target, Quaternion.IDENTITY, Vector3f.ZERO);
+        ProjectileStore store = new ProjectileStore(8, OverflowPolicy.DROP_NEWEST);
+        /* fired at point blank, the round already flew past the target in the tick it was fired */
+        store.spawn(planes.get(0).projectileOwner(), target.add(0f, 0f, -50f), target.add(0f, 0f, 50f),
+                new Vector3f(0f, 0f, 3000f), 1f, false, null);
+        ProjectileHits hits = new ProjectileHits();
+        collisions.detect(store, planes, snapshot, 0.1f, hits);
+        assertEquals(1, hits.count());
+        assertEquals(1, hits.target(0));
+    }
+}
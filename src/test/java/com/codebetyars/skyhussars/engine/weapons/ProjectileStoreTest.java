@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.physics.environment.StandardAtmosphere;
+import com.codebetyars.skyhussars.engine.plane.BulletDescriptor;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileStore.OverflowPolicy;
+import com.jme3.math.Vector3f;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProjectileStoreTest {
+
+    private final Vector3f location = new Vector3f();
+
+    @Test
+    public void movesAndRemovesExpiredProjectilesBySwappingTheLast() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, Vector3f.ZERO, new Vector3f(1, 0, 0), 0.5f, true);
+        store.spawn(1, Vector3f.ZERO, new Vector3f(2, 0, 0), 5f, true);
+        store.spawn(2, Vector3f.ZERO, new Vector3f(3, 0, 0), 5f, true);
+        List<String> removed = new ArrayList<>();
+        store.update(1f, null, (index, last) -> removed.add(index + "<-" + last));
+        assertEquals(2, store.count());
+        assertEquals("[0<-2]", removed.toString());
+        assertEquals(2, store.owner(0));
+        assertEquals(3f, store.location(0, location).x, 0f);
+        assertEquals(1, store.owner(1));
+        assertEquals(2f, store.location(1, location).x, 0f);
+        assertEquals(1, store.expired());
+    }
+
+    @Test
+    public void dropsTheNewestWhenFull() {
+        ProjectileStore store = new ProjectileStore(2, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, Vector3f.ZERO, Vector3f.UNIT_X, 1f, true);
+        store.spawn(1, Vector3f.ZERO, Vector3f.UNIT_X, 2f, true);
+        assertEquals(-1, store.spawn(2, Vector3f.ZERO, Vector3f.UNIT_X, 3f, true));
+        assertEquals(2, store.count());
+        assertEquals(1, store.overflowed());
+        assertEquals(2, store.spawned());
+    }
+
+    @Test
+    public void replacesTheOldestWhenFull() {
+        ProjectileStore store = new ProjectileStore(2, OverflowPolicy.REPLACE_OLDEST);
+        store.spawn(0, Vector3f.ZERO, Vector3f.UNIT_X, 2f, true);
+        store.spawn(1, Vector3f.ZERO, Vector3f.UNIT_X, 1f, true);
+        assertEquals(0, store.spawn(2, Vector3f.ZERO, Vector3f.UNIT_X, 3f, true));
+        assertEquals(2, store.owner(0));
+        assertEquals(1, store.spawn(3, Vector3f.ZERO, Vector3f.UNIT_X, 3f, true));
+        assertEquals(3, store.owner(1));
+        assertEquals(2, store.peak());
+        assertEquals(2, store.overflowed());
+    }
+
+    @Test
+    public void spawnOrderFollowsTheRemovedProjectiles() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.REPLACE_OLDEST);
+        for (int round = 0; round < 10; round++) {
+            store.spawn(round, Vector3f.ZERO, Vector3f.UNIT_X, round % 3 == 0 ? 0.5f : 10f, true);
+            store.update(1f, null, null);
+        }
+        /* every third round expires at once, 1, 2 and 4 made room for later ones */
+        assertEquals(3, store.count());
+        store.spawn(10, Vector3f.ZERO, Vector3f.UNIT_X, 10f, true);
+        int index = store.spawn(11, Vector3f.ZERO, Vector3f.UNIT_X, 10f, true);
+        int owners = 0;
+        for (int i = 0; i < store.count(); i++) {
+            owners |= 1 << store.owner(i);
+        }
+        assertEquals(11, store.owner(index));
+        assertEquals((1 << 7) | (1 << 8) | (1 << 10) | (1 << 11), owners);
+    }
+
+    @Test
+    public void ballisticProjectilesFollowTheirTable() {
+        BulletDescriptor bullet = new BulletDescriptor();
+        bullet.setCaliber(0.0127f);
+        bullet.setMass(0.0459f);
+        bullet.setDragCoefficient(0.28f);
+        BallisticsTable table = new BallisticsTable(bullet, 890f, 2000f, 10f, new StandardAtmosphere());
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, new Vector3f(0, 1000, 0), new Vector3f(0, 0, 890), 5f, true, table);
+        for (int i = 0; i < 60; i++) {
+            store.update(1f / 60f, null, null);
+        }
+        assertEquals(table.distance(1f, 1000f, 1f), store.location(0, location).z, 1e-2f);
+        assertEquals(1000f - table.drop(1f, 1000f), location.y, 1e-2f);
+        assertEquals(-table.dropSpeed(1f, 1000f), store.velocity(0, location).y, 1e-3f);
+    }
+}
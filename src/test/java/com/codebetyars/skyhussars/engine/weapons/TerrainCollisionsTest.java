@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.HeightMapTerrain;
+import com.codebetyars.skyhussars.engine.weapons.ProjectileStore.OverflowPolicy;
+import com.jme3.math.Vector3f;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TerrainCollisionsTest {
+
+    private final TerrainCollisions collisions = new TerrainCollisions();
+    private final ProjectileImpacts impacts = new ProjectileImpacts();
+    private final Vector3f location = new Vector3f();
+
+    /* 2 km wide, 100 m high ground with a 300 m hill in the middle */
+    private final HeightMapTerrain terrain = new HeightMapTerrain(new float[]{
+        1, 1, 1,
+        1, 3, 1,
+        1, 1, 1}, 3, 1000f, 100f);
+
+    @Test
+    public void projectileEndsWhereItEntersTheGround() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        store.spawn(7, new Vector3f(-800, 150, -800), new Vector3f(0, -100, 0), 5f, false);
+        store.spawn(8, new Vector3f(-800, 400, -800), new Vector3f(0, -100, 0), 5f, false);
+        store.update(1f, null, null);
+        collisions.detect(store, terrain, impacts);
+        assertEquals(1, impacts.count());
+        assertEquals(7, impacts.owner(0));
+        assertEquals(100f, impacts.location(0, location).y, 1e-3f);
+        assertEquals(-100f, impacts.velocity(0, location).y, 0f);
+        store.update(0f, null, null);
+        assertEquals(1, store.count());
+        assertEquals(8, store.owner(0));
+    }
+
+    @Test
+    public void longSegmentHitsTheHillBetweenItsEnds() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        /* both ends are 150 m above the ground, the hill is in the way */
+        store.spawn(0, new Vector3f(-700, 250, 0), new Vector3f(1400, 0, 0), 5f, false);
+        store.update(1f, null, null);
+        collisions.detect(store, terrain, impacts);
+        assertEquals(1, impacts.count());
+        assertEquals(250f, impacts.location(0, location).y, 1e-2f);
+        assertEquals(-250f, location.x, 1e-2f);
+    }
+
+    @Test
+    public void projectilesOutsideOfTheTerrainFlyOn() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, new Vector3f(5000, 50, 0), new Vector3f(0, -100, 0), 5f, false);
+        store.update(1f, null, null);
+        collisions.detect(store, terrain, impacts);
+        assertEquals(0, impacts.count());
+    }
+
+    @Test
+    public void shortSegmentStartingBelowTheGroundHitsAtItsStart() {
+        ProjectileStore store = new ProjectileStore(4, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, new Vector3f(-800, 50, -800), new Vector3f(0, 100, 0), 5f, false);
+        store.update(1f, null, null);
+        collisions.detect(store, terrain, impacts);
+        assertEquals(1, impacts.count());
+        assertEquals(-800f, impacts.location(0, location).x, 1e-3f);
+        assertEquals(100f, location.y, 1e-3f);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2016, ZoltanTheHun
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.codebetyars.skyhussars.engine.weapons;
+
+import com.codebetyars.skyhussars.engine.weapons.ProjectileStore.OverflowPolicy;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.VertexBuffer;
+import java.nio.FloatBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TracerMeshTest {
+
+    @Test
+    public void drawsALineBehindEveryTracer() {
+        ProjectileStore store = new ProjectileStore(8, OverflowPolicy.DROP_NEWEST);
+        store.spawn(0, new Vector3f(0, 0, 100), new Vector3f(0, 0, 500), 1f, true);
+        store.spawn(0, new Vector3f(0, 0, 200), new Vector3f(0, 0, 500), 1f, false);
+        store.spawn(1, new Vector3f(10, 0, 0), new Vector3f(1000, 0, 0), 1f, true);
+        TracerFrame frame = new TracerFrame(store.capacity());
+        TracerMesh mesh = new TracerMesh(store.capacity());
+        assertEquals(2, frame.write(store, 0.01f));
+        assertEquals(2, mesh.update(frame));
+        assertEquals(4, mesh.getVertexCount());
+        FloatBuffer positions = (FloatBuffer) mesh.getBuffer(VertexBuffer.Type.Position).getData();
+        assertEquals(100f, positions.get(2), 1e-4f);
+        assertEquals(95f, positions.get(5), 1e-4f);
+        assertEquals(0f, positions.get(9), 1e-4f);
+        store.update(2f, null, null);
+        frame.write(store, 0.01f);
+        assertEquals(0, mesh.update(frame));
+        assertEquals(0, mesh.getVertexCount());
+    }
+}